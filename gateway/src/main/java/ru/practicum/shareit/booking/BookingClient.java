@@ -9,6 +9,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.booking.dto.BookingItemIdAndTimeDto;
 import ru.practicum.shareit.booking.dto.BookingState;
+import ru.practicum.shareit.booking.dto.BookingStatusUpdateDto;
 import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.common.model.PaginationConfig;
 
@@ -40,33 +41,33 @@ public class BookingClient extends BaseClient {
         return patch("/" + bookingId + "?approved={approved}", userId, parameters);
     }
 
+    public ResponseEntity<Object> updateStatuses(Long userId, BookingStatusUpdateDto bookingStatusUpdateDto) {
+        return patch("/status", userId, bookingStatusUpdateDto);
+    }
+
     public ResponseEntity<Object> getById(Long userId, Long bookingId) {
         return get("/" + bookingId, userId);
     }
 
     public ResponseEntity<Object> getAllByBookerId(Long userId, BookingState state, PaginationConfig paginationConfig) {
-        Integer from = paginationConfig.getFrom();
-        Integer size = paginationConfig.getSize();
-
-        Map<String, Object> parameters = Map.of(
-                "state", state.name(),
-                "from", from,
-                "size", size
-        );
+        Map<String, Object> parameters = paginationConfig.toParameters();
+        parameters.put("state", state.name());
 
-        return get("?state={state}&from={from}&size={size}", userId, parameters);
+        return get("?state={state}&" + paginationConfig.toQuery(), userId, parameters);
     }
 
     public ResponseEntity<Object> getAllByOwnerId(Long userId, BookingState state, PaginationConfig paginationConfig) {
-        Integer from = paginationConfig.getFrom();
-        Integer size = paginationConfig.getSize();
+        Map<String, Object> parameters = paginationConfig.toParameters();
+        parameters.put("state", state.name());
 
-        Map<String, Object> parameters = Map.of(
-                "state", state.name(),
-                "from", from,
-                "size", size
-        );
+        return get("/owner?state={state}&" + paginationConfig.toQuery(), userId, parameters);
+    }
+
+    public ResponseEntity<Object> getSummaryByBookerId(Long userId) {
+        return get("/summary", userId);
+    }
 
-        return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
+    public ResponseEntity<Object> getSummaryByOwnerId(Long userId) {
+        return get("/owner/summary", userId);
     }
 }
@@ -7,8 +7,10 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.booking.dto.BookingItemIdAndTimeDto;
 import ru.practicum.shareit.booking.dto.BookingState;
+import ru.practicum.shareit.booking.dto.BookingStatusUpdateDto;
 import ru.practicum.shareit.common.exception.BadRequestException;
 import ru.practicum.shareit.common.model.PaginationConfig;
 
@@ -23,6 +25,7 @@ import java.time.LocalDateTime;
 @Validated
 public class BookingController {
     BookingClient bookingClient;
+    BookingStreamClient bookingStreamClient;
 
     @PostMapping
     public ResponseEntity<Object> create(@RequestHeader("X-Sharer-User-Id") long userId,
@@ -50,6 +53,14 @@ public class BookingController {
         return bookingClient.updateStatus(userId, bookingId, approved);
     }
 
+    @PatchMapping("/status")
+    public ResponseEntity<Object> updateStatuses(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                 @RequestBody @Valid BookingStatusUpdateDto bookingStatusUpdateDto) {
+        log.info("Обновляем статус {} booking, userId={}, approved={}", bookingStatusUpdateDto.getBookingIds().size(),
+                userId, bookingStatusUpdateDto.getApproved());
+        return bookingClient.updateStatuses(userId, bookingStatusUpdateDto);
+    }
+
     @GetMapping("/{bookingId}")
     public ResponseEntity<Object> getById(@RequestHeader("X-Sharer-User-Id") Long userId,
                                           @PathVariable Long bookingId) {
@@ -72,4 +83,22 @@ public class BookingController {
 		log.info("Получаем все booking с state {}, userId={}, paginationConfig={}", state, userId, paginationConfig);
 		return bookingClient.getAllByOwnerId(userId, state, paginationConfig);
     }
+
+    @GetMapping("/summary")
+    public ResponseEntity<Object> getSummaryByBookerId(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        log.info("Получаем сводку по booking, userId={}", userId);
+        return bookingClient.getSummaryByBookerId(userId);
+    }
+
+    @GetMapping("/owner/summary")
+    public ResponseEntity<Object> getSummaryByOwnerId(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        log.info("Получаем сводку по booking вещей владельца, userId={}", userId);
+        return bookingClient.getSummaryByOwnerId(userId);
+    }
+
+    @GetMapping("/stream")
+    public SseEmitter stream(@RequestHeader("X-Sharer-User-Id") long userId) {
+        log.info("Подписываем на события броней, userId={}", userId);
+        return bookingStreamClient.stream(userId);
+    }
 }
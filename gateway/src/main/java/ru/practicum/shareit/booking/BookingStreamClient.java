@@ -0,0 +1,125 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.common.exception.BadRequestException;
+import ru.practicum.shareit.common.exception.NotFoundException;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Proxies {@code GET /bookings/stream} of the server. The upstream is read with the non-blocking JDK HTTP client
+ * and its events are written to an {@link SseEmitter} as they arrive, so an open stream holds no thread here;
+ * only the wait for the response headers of the server blocks the request.
+ */
+@Service
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class BookingStreamClient {
+    private static final String API_PREFIX = "/bookings/stream";
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+
+    HttpClient httpClient;
+    URI uri;
+    Duration timeout;
+    ObjectMapper objectMapper;
+
+    @Autowired
+    public BookingStreamClient(@Value("${shareit-server.url}") String serverUrl,
+                               @Value("${shareit.booking.stream.timeout}") Duration timeout,
+                               ObjectMapper objectMapper) {
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(CONNECT_TIMEOUT)
+                .build();
+        uri = URI.create(serverUrl + API_PREFIX);
+        this.timeout = timeout;
+        this.objectMapper = objectMapper;
+    }
+
+    public SseEmitter stream(long userId) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        SseEventForwarder forwarder = new SseEventForwarder(emitter);
+        CompletableFuture<Void> connected = new CompletableFuture<>();
+
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .header("X-Sharer-User-Id", String.valueOf(userId))
+                .header("Accept", MediaType.TEXT_EVENT_STREAM_VALUE)
+                .build();
+        HttpResponse.BodyHandler<Void> bodyHandler = responseInfo -> {
+            if (responseInfo.statusCode() == HttpStatus.OK.value()) {
+                connected.complete(null);
+                return HttpResponse.BodySubscribers.fromLineSubscriber(forwarder);
+            }
+
+            return HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofString(StandardCharsets.UTF_8),
+                    body -> {
+                        connected.completeExceptionally(toException(responseInfo.statusCode(), body));
+                        return null;
+                    });
+        };
+        httpClient.sendAsync(request, bodyHandler)
+                .whenComplete((response, e) -> {
+                    if (e != null) {
+                        connected.completeExceptionally(e);
+                    }
+                });
+
+        try {
+            connected.get(CONNECT_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            forwarder.cancel();
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Не удалось подключиться к потоку событий броней", e.getCause());
+        } catch (TimeoutException e) {
+            forwarder.cancel();
+            throw new IllegalStateException("Сервер не ответил на подключение к потоку событий броней", e);
+        } catch (InterruptedException e) {
+            forwarder.cancel();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Подключение к потоку событий броней прервано", e);
+        }
+
+        emitter.onCompletion(forwarder::cancel);
+        emitter.onTimeout(forwarder::cancel);
+        emitter.onError(e -> forwarder.cancel());
+
+        return emitter;
+    }
+
+    private RuntimeException toException(int statusCode, String body) {
+        String message;
+        try {
+            message = objectMapper.readTree(body).path("error").asText(body);
+        } catch (JsonProcessingException e) {
+            message = body;
+        }
+
+        if (statusCode == HttpStatus.NOT_FOUND.value()) {
+            return new NotFoundException(message);
+        }
+        if (statusCode == HttpStatus.BAD_REQUEST.value()) {
+            return new BadRequestException(message);
+        }
+
+        return new IllegalStateException(message);
+    }
+}
@@ -0,0 +1,140 @@
+package ru.practicum.shareit.booking;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+
+/**
+ * Reads a {@code text/event-stream} line by line and sends every complete event to the emitter.
+ * Only the fields written by the server are parsed: {@code event}, {@code id}, {@code data} and {@code retry};
+ * comments are dropped. When the upstream ends, the emitter is completed and the client reconnects;
+ * when the emitter is gone, the upstream is cancelled.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Slf4j
+class SseEventForwarder implements Flow.Subscriber<String> {
+    final SseEmitter emitter;
+    volatile Flow.Subscription subscription;
+    volatile boolean cancelled;
+    String name;
+    String id;
+    List<String> data;
+    Long reconnectTime;
+
+    SseEventForwarder(SseEmitter emitter) {
+        this.emitter = emitter;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        if (cancelled) {
+            subscription.cancel();
+        } else {
+            subscription.request(Long.MAX_VALUE);
+        }
+    }
+
+    @Override
+    public void onNext(String line) {
+        if (line.isEmpty()) {
+            dispatch();
+            return;
+        }
+        if (line.startsWith(":")) {
+            return;
+        }
+
+        int colon = line.indexOf(':');
+        String field = colon < 0 ? line : line.substring(0, colon);
+        String value = colon < 0 ? "" : line.substring(colon + 1);
+        if (value.startsWith(" ")) {
+            value = value.substring(1);
+        }
+
+        switch (field) {
+            case "event":
+                name = value;
+                break;
+            case "id":
+                id = value;
+                break;
+            case "data":
+                if (data == null) {
+                    data = new ArrayList<>();
+                }
+                data.add(value);
+                break;
+            case "retry":
+                try {
+                    reconnectTime = Long.parseLong(value);
+                } catch (NumberFormatException e) {
+                    log.debug("Пропущено некорректное поле retry: {}", value);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        log.debug("Поток событий броней прерван: {}", throwable.getMessage());
+        emitter.complete();
+    }
+
+    @Override
+    public void onComplete() {
+        emitter.complete();
+    }
+
+    void cancel() {
+        cancelled = true;
+        Flow.Subscription current = subscription;
+        if (current != null) {
+            current.cancel();
+        }
+    }
+
+    private void dispatch() {
+        if (data == null && reconnectTime == null) {
+            reset();
+            return;
+        }
+
+        SseEmitter.SseEventBuilder event = SseEmitter.event();
+        if (name != null) {
+            event.name(name);
+        }
+        if (id != null) {
+            event.id(id);
+        }
+        if (reconnectTime != null) {
+            event.reconnectTime(reconnectTime);
+        }
+        if (data != null) {
+            data.forEach(event::data);
+        }
+        reset();
+
+        try {
+            emitter.send(event);
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Не удалось переслать событие брони: {}", e.getMessage());
+            cancel();
+        }
+    }
+
+    private void reset() {
+        name = null;
+        id = null;
+        data = null;
+        reconnectTime = null;
+    }
+}
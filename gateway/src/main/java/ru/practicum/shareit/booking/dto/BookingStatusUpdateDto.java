@@ -0,0 +1,21 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Data
+public class BookingStatusUpdateDto {
+    @NotEmpty(message = "Список броней не может быть пустым")
+    @Size(message = "За один раз можно обновить не более 1000 броней", max = 1000)
+    List<@NotNull Long> bookingIds;
+
+    @NotNull
+    Boolean approved;
+}
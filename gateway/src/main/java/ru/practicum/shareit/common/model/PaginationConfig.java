@@ -6,8 +6,11 @@ import lombok.Setter;
 import lombok.ToString;
 import lombok.experimental.FieldDefaults;
 
+import javax.validation.constraints.Pattern;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.util.HashMap;
+import java.util.Map;
 
 @FieldDefaults(level = AccessLevel.PRIVATE)
 @Setter
@@ -19,4 +22,26 @@ public class PaginationConfig {
 
     @Positive
     Integer size = 10;
+
+    @Pattern(regexp = "[A-Za-z0-9_-]+", message = "Некорректный курсор")
+    String after;
+
+    /**
+     * Query string of the page for the server, without the leading separator;
+     * {@code after} is forwarded only when the client sent it.
+     */
+    public String toQuery() {
+        return after == null ? "from={from}&size={size}" : "from={from}&size={size}&after={after}";
+    }
+
+    public Map<String, Object> toParameters() {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("from", from);
+        parameters.put("size", size);
+        if (after != null) {
+            parameters.put("after", after);
+        }
+
+        return parameters;
+    }
 }
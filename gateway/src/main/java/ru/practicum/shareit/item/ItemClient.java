@@ -13,6 +13,8 @@ import ru.practicum.shareit.item.dto.CommentTextDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemRequestIdDto;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -33,37 +35,41 @@ public class ItemClient extends BaseClient {
         return post(userId, itemRequestIdDto);
     }
 
-    public ResponseEntity<Object> update(Long userId, Long itemId, ItemDto itemDto) {
-        return patch("/" + itemId, userId, itemDto);
+    public ResponseEntity<Object> createAll(Long userId, List<ItemRequestIdDto> itemRequestIdDtos) {
+        return post("/batch", userId, itemRequestIdDtos);
     }
 
-    public ResponseEntity<Object> getById(Long userId, Long itemId) {
-        return get("/" + itemId, userId);
+    public ResponseEntity<Object> update(Long userId, Long itemId, ItemDto itemDto) {
+        return patch("/" + itemId, userId, itemDto);
     }
 
-    public ResponseEntity<Object> getAllByOwnerId(Long ownerId, PaginationConfig paginationConfig) {
-        Integer from = paginationConfig.getFrom();
-        Integer size = paginationConfig.getSize();
-
+    public ResponseEntity<Object> getById(Long userId, Long itemId, Integer commentsFrom, Integer commentsSize) {
         Map<String, Object> parameters = Map.of(
-                "from", from,
-                "size", size
+                "commentsFrom", commentsFrom,
+                "commentsSize", commentsSize
         );
 
-        return get("?from={from}&size={size}", ownerId, parameters);
+        return get("/" + itemId + "?commentsFrom={commentsFrom}&commentsSize={commentsSize}", userId, parameters);
+    }
+
+    public ResponseEntity<Object> getAllByOwnerId(Long ownerId, PaginationConfig paginationConfig) {
+        return get("?" + paginationConfig.toQuery(), ownerId, paginationConfig.toParameters());
     }
 
     public ResponseEntity<Object> getAllByTextQuery(Long userId, String text, PaginationConfig paginationConfig) {
-        Integer from = paginationConfig.getFrom();
-        Integer size = paginationConfig.getSize();
+        Map<String, Object> parameters = paginationConfig.toParameters();
+        parameters.put("text", text);
+
+        return get("/search?text={text}&" + paginationConfig.toQuery(), userId, parameters);
+    }
 
+    public ResponseEntity<Object> getAvailability(Long userId, Long itemId, LocalDateTime from, LocalDateTime to) {
         Map<String, Object> parameters = Map.of(
-                "text", text,
                 "from", from,
-                "size", size
+                "to", to
         );
 
-        return get("/search?text={text}&from={from}&size={size}", userId, parameters);
+        return get("/" + itemId + "/availability?from={from}&to={to}", userId, parameters);
     }
 
     public ResponseEntity<Object> deleteItem(Long userId, Long itemId) {
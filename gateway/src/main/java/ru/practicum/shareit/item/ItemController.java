@@ -3,14 +3,22 @@ package ru.practicum.shareit.item;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.common.exception.BadRequestException;
 import ru.practicum.shareit.common.marker.ValidationMarker;
 import ru.practicum.shareit.common.model.PaginationConfig;
 import ru.practicum.shareit.item.dto.*;
 
 import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.time.LocalDateTime;
+import java.util.List;
 
 @RestController
 @RequestMapping("/items")
@@ -27,6 +35,18 @@ public class ItemController {
         return itemClient.create(userId, itemRequestIdDto);
     }
 
+    @PostMapping("/batch")
+    @Validated(ValidationMarker.OnCreate.class)
+    public ResponseEntity<Object> createAll(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                            @RequestBody
+                                            @NotEmpty(message = "Список предметов не может быть пустым",
+                                                    groups = ValidationMarker.OnCreate.class)
+                                            @Size(message = "За один раз можно добавить не более 1000 предметов",
+                                                    max = 1000, groups = ValidationMarker.OnCreate.class)
+                                            List<@Valid ItemRequestIdDto> itemRequestIdDtos) {
+        return itemClient.createAll(userId, itemRequestIdDtos);
+    }
+
     @PatchMapping("/{itemId}")
     @Validated(ValidationMarker.OnUpdate.class)
     public ResponseEntity<Object> update(@RequestHeader("X-Sharer-User-Id") Long userId,
@@ -37,8 +57,10 @@ public class ItemController {
 
     @GetMapping("/{itemId}")
     public ResponseEntity<Object> getById(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                          @PathVariable Long itemId) {
-        return itemClient.getById(userId, itemId);
+                                          @PathVariable Long itemId,
+                                          @RequestParam(defaultValue = "0") @PositiveOrZero Integer commentsFrom,
+                                          @RequestParam(defaultValue = "10") @Positive Integer commentsSize) {
+        return itemClient.getById(userId, itemId, commentsFrom, commentsSize);
     }
 
     @GetMapping
@@ -54,6 +76,20 @@ public class ItemController {
         return itemClient.getAllByTextQuery(userId, text, paginationConfig);
     }
 
+    @GetMapping("/{itemId}/availability")
+    public ResponseEntity<Object> getAvailability(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                  @PathVariable Long itemId,
+                                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                  LocalDateTime from,
+                                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                  LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new BadRequestException("Конец периода должен быть позже его начала");
+        }
+
+        return itemClient.getAvailability(userId, itemId, from, to);
+    }
+
     @DeleteMapping("/{itemId}")
     public ResponseEntity<Object> deleteItem(@RequestHeader("X-Sharer-User-Id") Long userId, @PathVariable Long itemId) {
         return itemClient.deleteItem(userId, itemId);
@@ -13,6 +13,7 @@ import ru.practicum.shareit.request.dto.RequestDescriptionDto;
 
 import java.util.Map;
 
+
 @Service
 public class RequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
@@ -36,18 +37,19 @@ public class RequestClient extends BaseClient {
     }
 
     public ResponseEntity<Object> getAll(Long userId, PaginationConfig paginationConfig) {
-        Integer from = paginationConfig.getFrom();
-        Integer size = paginationConfig.getSize();
+        return get("/all?" + paginationConfig.toQuery(), userId, paginationConfig.toParameters());
+    }
+
+    public ResponseEntity<Object> getById(Long userId, Long requestId) {
+        return get("/" + requestId, userId);
+    }
 
+    public ResponseEntity<Object> getSuggestions(Long userId, Long requestId, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
                 "from", from,
                 "size", size
         );
 
-        return get("/all?from={from}&size={size}", userId, parameters);
-    }
-
-    public ResponseEntity<Object> getById(Long userId, Long requestId) {
-        return get("/" + requestId, userId);
+        return get("/" + requestId + "/suggestions?from={from}&size={size}", userId, parameters);
     }
 }
@@ -5,16 +5,20 @@ import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.common.model.PaginationConfig;
 import ru.practicum.shareit.request.dto.RequestDescriptionDto;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
 
 @RestController
 @RequestMapping(path = "/requests")
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 @RequiredArgsConstructor
+@Validated
 @Slf4j
 public class RequestController {
     RequestClient requestClient;
@@ -35,10 +39,7 @@ public class RequestController {
     @GetMapping("/all")
     public ResponseEntity<Object> getAll(@RequestHeader("X-Sharer-User-Id") Long userId,
                                          @Valid PaginationConfig paginationConfig) {
-        Integer from = paginationConfig.getFrom();
-        Integer size = paginationConfig.getSize();
-
-        log.info("Получаем все request, userId={}, from={}, size={}", userId, from, size);
+        log.info("Получаем все request, userId={}, paginationConfig={}", userId, paginationConfig);
         return requestClient.getAll(userId, paginationConfig);
     }
 
@@ -48,4 +49,14 @@ public class RequestController {
         log.info("Получаем request {}, userId={}", requestId, userId);
         return requestClient.getById(userId, requestId);
     }
+
+    @GetMapping("/{requestId}/suggestions")
+    public ResponseEntity<Object> getSuggestions(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                 @PathVariable Long requestId,
+                                                 @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
+                                                 @RequestParam(defaultValue = "10") @Positive Integer size) {
+        log.info("Получаем предложенные для request {} предметы, userId={}, from={}, size={}",
+                requestId, userId, from, size);
+        return requestClient.getSuggestions(userId, requestId, from, size);
+    }
 }
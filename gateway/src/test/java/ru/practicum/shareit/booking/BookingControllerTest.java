@@ -11,9 +11,11 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingItemIdAndTimeDto;
 import ru.practicum.shareit.booking.dto.BookingState;
+import ru.practicum.shareit.booking.dto.BookingStatusUpdateDto;
 import ru.practicum.shareit.common.exception.BadRequestException;
 import ru.practicum.shareit.common.exception.NotFoundException;
 import ru.practicum.shareit.common.model.PaginationConfig;
@@ -22,14 +24,18 @@ import ru.practicum.shareit.user.dto.ItemBookerDto;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = BookingController.class)
@@ -42,6 +48,9 @@ class BookingControllerTest {
     @MockBean
     BookingClient bookingClient;
 
+    @MockBean
+    BookingStreamClient bookingStreamClient;
+
     @Autowired
     MockMvc mvc;
 
@@ -381,6 +390,50 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$.error", containsString("Нельзя повторно одобрить бронь")));
     }
 
+    @Test
+    void updateStatuses_whenBookingIdsGiven_thenReturnResultsAndStatusOk() throws Exception {
+        BookingStatusUpdateDto bookingStatusUpdateDto = new BookingStatusUpdateDto(List.of(1L, 2L), true);
+        ResponseEntity<Object> response = ResponseEntity.ok().body(List.of(
+                Map.of("id", 1, "status", "APPROVED"),
+                Map.of("id", 2, "status", "REJECTED", "error", "Нельзя повторно одобрить бронь")));
+
+        when(bookingClient.updateStatuses(1L, bookingStatusUpdateDto)).thenReturn(response);
+
+        mvc.perform(patch(URL + "/status")
+                        .header("X-Sharer-User-Id", 1L)
+                        .content(mapper.writeValueAsString(bookingStatusUpdateDto))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(2)))
+                .andExpect(jsonPath("$[0].status", is("APPROVED")))
+                .andExpect(jsonPath("$[1].error", is("Нельзя повторно одобрить бронь")));
+    }
+
+    @Test
+    void updateStatuses_whenBookingIdsEmpty_thenReturnErrorAndStatusBadRequest() throws Exception {
+        mvc.perform(patch(URL + "/status")
+                        .header("X-Sharer-User-Id", 1L)
+                        .content("{\"bookingIds\": [], \"approved\": true}")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", containsString("Список броней не может быть пустым")));
+    }
+
+    @Test
+    void updateStatuses_whenDecisionMissing_thenReturnErrorAndStatusBadRequest() throws Exception {
+        mvc.perform(patch(URL + "/status")
+                        .header("X-Sharer-User-Id", 1L)
+                        .content("{\"bookingIds\": [1]}")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void getById_whenBookingFoundAndUserConnectedWithBooking_thenReturnBookingDtoAndStatusOk() throws Exception {
         ResponseEntity<Object> response = ResponseEntity.ok().body(bookingDto);
@@ -453,6 +506,35 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$[0].status", is(bookingDto.getStatus().toString())));
     }
 
+    @Test
+    void getAllByBookerId_whenCursorGiven_thenForwardCursorAndReturnNextCursor() throws Exception {
+        ResponseEntity<Object> response = ResponseEntity
+                .ok()
+                .header("X-Next-Cursor", "next-cursor")
+                .body(List.of(bookingDto));
+
+        when(bookingClient.getAllByBookerId(anyLong(), any(BookingState.class),
+                argThat(paginationConfig -> "cursor".equals(paginationConfig.getAfter()))))
+                .thenReturn(response);
+
+        mvc.perform(get(URL + "?after=cursor")
+                        .header("X-Sharer-User-Id", 1L)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "next-cursor"))
+                .andExpect(jsonPath("$.size()", is(1)));
+    }
+
+    @Test
+    void getAllByBookerId_whenCursorMalformed_thenReturnErrorAndBadRequestStatus() throws Exception {
+        mvc.perform(get(URL + "?after=bad.cursor")
+                        .header("X-Sharer-User-Id", 1L)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void getAllByBookerId_whenBookingStateUnsupported_thenReturnErrorAndBadRequestStatus() throws Exception {
         mvc.perform(get(URL + "?state=\"UNSUPPORTED_STATUS\"")
@@ -518,6 +600,37 @@ class BookingControllerTest {
                         "не было найдено вещей, забронированных у пользователя с id 1")));
     }
 
+    @Test
+    void getSummaryByBookerId_whenUserFound_thenReturnSummaryAndStatusOk() throws Exception {
+        ResponseEntity<Object> response = ResponseEntity
+                .ok()
+                .body(Map.of("all", 3, "current", 1, "past", 1, "future", 1, "waiting", 2, "rejected", 0));
+
+        when(bookingClient.getSummaryByBookerId(anyLong()))
+                .thenReturn(response);
+
+        mvc.perform(get(URL + "/summary")
+                        .header("X-Sharer-User-Id", 1L)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.all", is(3)))
+                .andExpect(jsonPath("$.waiting", is(2)));
+    }
+
+    @Test
+    void getSummaryByOwnerId_whenUserNotFound_thenReturnErrorAndStatusNotFound() throws Exception {
+        when(bookingClient.getSummaryByOwnerId(anyLong()))
+                .thenThrow(new NotFoundException(USER_NOT_FOUND_ERROR));
+
+        mvc.perform(get(OWNER_URL + "/summary")
+                        .header("X-Sharer-User-Id", 1L)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error", containsString(USER_NOT_FOUND_ERROR)));
+    }
+
     @Test
     void handleInternalServerError() throws Exception {
         mvc.perform(delete(URL)
@@ -527,4 +640,24 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$.error",
                         containsString("Request method 'DELETE' not supported")));
     }
-}
\ No newline at end of file
+
+    @Test
+    void stream_whenUserFound_thenStartEventStream() throws Exception {
+        when(bookingStreamClient.stream(1L)).thenReturn(new SseEmitter());
+
+        mvc.perform(get(URL + "/stream")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(request().asyncStarted());
+    }
+
+    @Test
+    void stream_whenUserNotFound_thenReturnErrorAndStatusNotFound() throws Exception {
+        when(bookingStreamClient.stream(1L)).thenThrow(new NotFoundException(USER_NOT_FOUND_ERROR));
+
+        mvc.perform(get(URL + "/stream")
+                        .header("X-Sharer-User-Id", 1L)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error", containsString(USER_NOT_FOUND_ERROR)));
+    }
+}
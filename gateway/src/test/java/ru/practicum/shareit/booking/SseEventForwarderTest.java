@@ -0,0 +1,95 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SseEventForwarderTest {
+    private final RecordingEmitter emitter = new RecordingEmitter();
+    private final SseEventForwarder forwarder = new SseEventForwarder(emitter);
+
+    @Test
+    void onNext_whenEventsComplete_thenSendEachOnce() {
+        List.of("retry:3000", "", "event:CREATED", "data:{\"bookingId\":1}", "",
+                        ": comment", "event:STATUS_CHANGED", "data: {\"bookingId\":1,", "data:\"status\":\"APPROVED\"}", "")
+                .forEach(forwarder::onNext);
+
+        assertEquals(List.of(
+                "retry:3000\n\n",
+                "event:CREATED\ndata:{\"bookingId\":1}\n\n",
+                "event:STATUS_CHANGED\ndata:{\"bookingId\":1,\ndata:\"status\":\"APPROVED\"}\n\n"
+        ), emitter.events);
+    }
+
+    @Test
+    void onNext_whenEventIncomplete_thenWaitForBlankLine() {
+        forwarder.onNext("event:CREATED");
+        forwarder.onNext("data:{}");
+
+        assertTrue(emitter.events.isEmpty());
+    }
+
+    @Test
+    void onNext_whenSendFails_thenCancelUpstream() {
+        CancellableSubscription subscription = new CancellableSubscription();
+        forwarder.onSubscribe(subscription);
+        emitter.failing = true;
+
+        forwarder.onNext("data:{}");
+        forwarder.onNext("");
+
+        assertTrue(subscription.cancelled);
+    }
+
+    @Test
+    void cancel_whenNotSubscribedYet_thenCancelOnSubscribe() {
+        CancellableSubscription subscription = new CancellableSubscription();
+
+        forwarder.cancel();
+        forwarder.onSubscribe(subscription);
+
+        assertTrue(subscription.cancelled);
+        assertEquals(0, subscription.requested);
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<String> events = new ArrayList<>();
+        private boolean failing;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (failing) {
+                throw new IOException("Broken pipe");
+            }
+
+            events.add(builder.build().stream()
+                    .map(ResponseBodyEmitter.DataWithMediaType::getData)
+                    .map(String::valueOf)
+                    .collect(Collectors.joining()));
+        }
+    }
+
+    private static class CancellableSubscription implements Flow.Subscription {
+        private boolean cancelled;
+        private long requested;
+
+        @Override
+        public void request(long n) {
+            requested += n;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+}
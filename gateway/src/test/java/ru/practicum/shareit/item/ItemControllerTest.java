@@ -22,10 +22,12 @@ import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
@@ -45,9 +47,11 @@ class ItemControllerTest {
     MockMvc mvc;
 
     static final String URL = "/items";
+    static final String BATCH_URL = "/items/batch";
     static final String PATH_VARIABLE_URL = "/items/1";
     static final String SEARCH_URL = "/items/search";
     static final String COMMENT_URL = "/items/1/comment";
+    static final String AVAILABILITY_URL = "/items/1/availability";
     static final String USER_NOT_FOUND_ERROR = "Пользователь с id 1 не найден";
     static final String REQUEST_NOT_FOUND_ERROR = "Запрос с id 1 не найден";
     static final String ITEM_NOT_FOUND_ERROR = "Предмет с id 1 не найден";
@@ -104,6 +108,7 @@ class ItemControllerTest {
                 .lastBooking(lastBooking)
                 .nextBooking(nextBooking)
                 .comments(List.of(commentDto))
+                .commentsCount(1L)
                 .build();
     }
 
@@ -330,6 +335,64 @@ class ItemControllerTest {
                                 " Статус доступности предмета не может отсутствовать")));
     }
 
+    @Test
+    void createAll_whenItemsCorrect_thenReturnItemsAndStatusOk() throws Exception {
+        ItemRequestIdDto itemRequestIdDto2 = ItemRequestIdDto.builder()
+                .id(2L)
+                .name("Test name2")
+                .description("Test description2")
+                .available(false)
+                .build();
+        List<ItemRequestIdDto> items = List.of(itemRequestIdDto, itemRequestIdDto2);
+        ResponseEntity<Object> response = ResponseEntity.ok().body(items);
+
+        when(itemClient.createAll(1L, items)).thenReturn(response);
+
+        String json = mapper.writeValueAsString(items);
+        mvc.perform(post(BATCH_URL)
+                        .header("X-Sharer-User-Id", 1L)
+                        .content(json)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].requestId", is(itemRequestIdDto.getRequestId()), Long.class))
+                .andExpect(jsonPath("$[1].name", is(itemRequestIdDto2.getName())));
+    }
+
+    @Test
+    void createAll_whenItemsEmpty_thenReturnErrorAndStatusBadRequest() throws Exception {
+        mvc.perform(post(BATCH_URL)
+                        .header("X-Sharer-User-Id", 1L)
+                        .content("[]")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", containsString("Список предметов не может быть пустым")));
+    }
+
+    @Test
+    void createAll_whenItemNameNull_thenReturnErrorAndStatusBadRequest() throws Exception {
+        ItemRequestIdDto itemRequestIdDto2 = ItemRequestIdDto.builder()
+                .description("Test description2")
+                .available(true)
+                .build();
+
+        String json = mapper.writeValueAsString(List.of(itemRequestIdDto, itemRequestIdDto2));
+        mvc.perform(post(BATCH_URL)
+                        .header("X-Sharer-User-Id", 1L)
+                        .content(json)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error",
+                        containsString("createAll.itemRequestIdDtos[1].name:" +
+                                " Название предмета не может отсутствовать")));
+    }
+
     @Test
     void update_whenItemDtoCorrectAndUserAndItemFound_thenReturnItemDtoAndStatusOk() throws Exception {
         ResponseEntity<Object> response = ResponseEntity.ok().body(itemDto);
@@ -583,7 +646,7 @@ class ItemControllerTest {
     void getById_whenItemFound_thenReturnItemAndStatusOk() throws Exception {
         ResponseEntity<Object> response = ResponseEntity.ok().body(itemBookingsAndCommentsDto);
 
-        when(itemClient.getById(1L, 1L)).thenReturn(response);
+        when(itemClient.getById(1L, 1L, 0, 10)).thenReturn(response);
 
         mvc.perform(get(PATH_VARIABLE_URL)
                         .header("X-Sharer-User-Id", 1L)
@@ -606,12 +669,36 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$.comments[0].text", is(commentDto.getText())))
                 .andExpect(jsonPath("$.comments[0].authorName", is(commentDto.getAuthorName())))
                 .andExpect(jsonPath("$.comments[0].created",
-                        containsString(String.valueOf(commentDto.getCreated().getSecond()))));
+                        containsString(String.valueOf(commentDto.getCreated().getSecond()))))
+                .andExpect(jsonPath("$.commentsCount", is(1L), Long.class));
+    }
+
+    @Test
+    void getById_whenCommentsPageGiven_thenForwardCommentsPage() throws Exception {
+        ResponseEntity<Object> response = ResponseEntity.ok().body(itemBookingsAndCommentsDto);
+
+        when(itemClient.getById(1L, 1L, 20, 5)).thenReturn(response);
+
+        mvc.perform(get(PATH_VARIABLE_URL + "?commentsFrom=20&commentsSize=5")
+                        .header("X-Sharer-User-Id", 1L)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is(itemBookingsAndCommentsDto.getId()), Long.class));
+    }
+
+    @Test
+    void getById_whenCommentsSizeNotPositive_thenReturnStatusBadRequest() throws Exception {
+        mvc.perform(get(PATH_VARIABLE_URL + "?commentsSize=0")
+                        .header("X-Sharer-User-Id", 1L)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
     }
 
     @Test
     void getById_whenItemNotFound_thenReturnErrorAndStatusBadRequest() throws Exception {
-        when(itemClient.getById(1L, 1L)).thenThrow(new NotFoundException(ITEM_NOT_FOUND_ERROR));
+        when(itemClient.getById(1L, 1L, 0, 10)).thenThrow(new NotFoundException(ITEM_NOT_FOUND_ERROR));
 
         mvc.perform(get(PATH_VARIABLE_URL)
                         .header("X-Sharer-User-Id", 1L)
@@ -699,6 +786,48 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$.error", containsString("must be greater than 0")));
     }
 
+    @Test
+    void getAvailability_whenPeriodCorrect_thenReturnAvailabilityAndStatusOk() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime to = from.plusDays(1);
+        ResponseEntity<Object> response = ResponseEntity.ok().body(Map.of("itemId", 1L));
+
+        when(itemClient.getAvailability(1L, 1L, from, to)).thenReturn(response);
+
+        mvc.perform(get(AVAILABILITY_URL)
+                        .param("from", from.toString())
+                        .param("to", to.toString())
+                        .header("X-Sharer-User-Id", 1L)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.itemId", is(1L), Long.class));
+    }
+
+    @Test
+    void getAvailability_whenEndNotAfterStart_thenThrowErrorAndStatusBadRequest() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+        mvc.perform(get(AVAILABILITY_URL)
+                        .param("from", from.toString())
+                        .param("to", from.toString())
+                        .header("X-Sharer-User-Id", 1L)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(itemClient);
+    }
+
+    @Test
+    void getAvailability_whenPeriodMissing_thenThrowErrorAndStatusBadRequest() throws Exception {
+        mvc.perform(get(AVAILABILITY_URL)
+                        .header("X-Sharer-User-Id", 1L)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(itemClient);
+    }
+
     @Test
     void getAllByTextQuery_whenUserFoundAndTextNotEmpty_thenReturnItemsAndStatusOk() throws Exception {
         ResponseEntity<Object> response = ResponseEntity.ok().body(List.of(itemDto));
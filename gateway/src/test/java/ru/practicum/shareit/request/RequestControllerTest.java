@@ -319,4 +319,28 @@ class RequestControllerTest {
                 .andExpect(status().isNotFound())
                 .andExpect(jsonPath("$.error", containsString(USER_NOT_FOUND_ERROR)));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getSuggestions_whenPageGiven_thenForwardPageAndReturnItems() throws Exception {
+        ResponseEntity<Object> response = ResponseEntity.ok().body(List.of(ItemRequestIdDto.builder().id(5L).build()));
+
+        when(requestClient.getSuggestions(1L, 1L, 20, 5)).thenReturn(response);
+
+        mvc.perform(get(PATH_VARIABLE_URL + "/suggestions?from=20&size=5")
+                        .header("X-Sharer-User-Id", 1L)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(5L), Long.class));
+    }
+
+    @Test
+    void getSuggestions_whenSizeNotPositive_thenReturnStatusBadRequest() throws Exception {
+        mvc.perform(get(PATH_VARIABLE_URL + "/suggestions?size=0")
+                        .header("X-Sharer-User-Id", 1L)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,2 @@
+-- Run once by the postgres image on an empty data directory, as the superuser from POSTGRES_USER.
+CREATE EXTENSION IF NOT EXISTS btree_gist;
@@ -0,0 +1,50 @@
+-- One-off migration before the first start of a server with the ex_booking_approved_period constraint:
+-- rejects every approved booking that overlaps an earlier created approved booking of the same item.
+-- As shipped it only lists the bookings it would reject; review them, then replace the final ROLLBACK with COMMIT:
+--   psql -v ON_ERROR_STOP=1 -f reject_overlapping_approved_bookings.sql
+BEGIN;
+
+LOCK TABLE bookings IN SHARE ROW EXCLUSIVE MODE;
+
+CREATE TEMPORARY TABLE rejected_bookings (id BIGINT PRIMARY KEY) ON COMMIT DROP;
+
+DO $$
+DECLARE
+    overlapping RECORD;
+BEGIN
+    FOR overlapping IN
+        SELECT b.id, b.item_id, b.start_time, b.end_time
+        FROM bookings b
+        WHERE b.status = 'APPROVED'
+          AND EXISTS (SELECT 1
+                      FROM bookings earlier
+                      WHERE earlier.item_id = b.item_id
+                        AND earlier.status = 'APPROVED'
+                        AND earlier.id < b.id
+                        AND earlier.start_time < b.end_time
+                        AND earlier.end_time > b.start_time)
+        ORDER BY b.id
+    LOOP
+        UPDATE bookings
+        SET status = 'REJECTED'
+        WHERE id = overlapping.id
+          AND EXISTS (SELECT 1
+                      FROM bookings earlier
+                      WHERE earlier.item_id = overlapping.item_id
+                        AND earlier.status = 'APPROVED'
+                        AND earlier.id < overlapping.id
+                        AND earlier.start_time < overlapping.end_time
+                        AND earlier.end_time > overlapping.start_time);
+        IF FOUND THEN
+            INSERT INTO rejected_bookings VALUES (overlapping.id);
+        END IF;
+    END LOOP;
+END
+$$;
+
+SELECT b.id, b.item_id, b.booker_id, b.start_time, b.end_time
+FROM bookings b
+         JOIN rejected_bookings r ON r.id = b.id
+ORDER BY b.item_id, b.start_time;
+
+ROLLBACK;
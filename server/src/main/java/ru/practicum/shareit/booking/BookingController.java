@@ -3,11 +3,18 @@ package ru.practicum.shareit.booking;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.booking.model.dto.BookingDto;
 import ru.practicum.shareit.booking.model.dto.BookingItemIdAndTimeDto;
 import ru.practicum.shareit.booking.model.dto.BookingState;
+import ru.practicum.shareit.booking.model.dto.BookingStatusResultDto;
+import ru.practicum.shareit.booking.model.dto.BookingStatusUpdateDto;
+import ru.practicum.shareit.booking.model.dto.BookingSummaryDto;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.common.model.Cursor;
 import ru.practicum.shareit.common.model.PaginationConfig;
 
 import java.util.List;
@@ -32,6 +39,12 @@ public class BookingController {
         return bookingService.updateStatus(userId, bookingId, approved);
     }
 
+    @PatchMapping("/status")
+    public List<BookingStatusResultDto> updateStatuses(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                       @RequestBody BookingStatusUpdateDto bookingStatusUpdateDto) {
+        return bookingService.updateStatuses(userId, bookingStatusUpdateDto);
+    }
+
     @GetMapping("/{bookingId}")
     public BookingDto getById(@RequestHeader("X-Sharer-User-Id") Long userId,
                               @PathVariable Long bookingId) {
@@ -39,16 +52,35 @@ public class BookingController {
     }
 
     @GetMapping
-    public List<BookingDto> getAllByBookerId(@RequestHeader("X-Sharer-User-Id") Long userId,
+    public ResponseEntity<List<BookingDto>> getAllByBookerId(@RequestHeader("X-Sharer-User-Id") Long userId,
                                              @RequestParam(defaultValue = "ALL") BookingState state,
                                              PaginationConfig paginationConfig) {
-        return bookingService.getAllByBookerId(userId, state, paginationConfig);
+        Slice<BookingDto> bookings = bookingService.getAllByBookerId(userId, state, paginationConfig);
+
+        return paginationConfig.toResponse(bookings, booking -> Cursor.of(booking.getStart(), booking.getId()));
     }
 
     @GetMapping("/owner")
-    public List<BookingDto> getAllByOwnerId(@RequestHeader("X-Sharer-User-Id") Long userId,
+    public ResponseEntity<List<BookingDto>> getAllByOwnerId(@RequestHeader("X-Sharer-User-Id") Long userId,
                                             @RequestParam(defaultValue = "ALL") BookingState state,
                                             PaginationConfig paginationConfig) {
-        return bookingService.getAllByOwnerId(userId, state, paginationConfig);
+        Slice<BookingDto> bookings = bookingService.getAllByOwnerId(userId, state, paginationConfig);
+
+        return paginationConfig.toResponse(bookings, booking -> Cursor.of(booking.getStart(), booking.getId()));
+    }
+
+    @GetMapping("/summary")
+    public BookingSummaryDto getSummaryByBookerId(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        return bookingService.getSummaryByBookerId(userId);
+    }
+
+    @GetMapping("/owner/summary")
+    public BookingSummaryDto getSummaryByOwnerId(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        return bookingService.getSummaryByOwnerId(userId);
+    }
+
+    @GetMapping("/stream")
+    public SseEmitter stream(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        return bookingService.stream(userId);
     }
-}
\ No newline at end of file
+}
@@ -1,16 +1,22 @@
 package ru.practicum.shareit.booking;
 
+import ru.practicum.shareit.booking.event.BookingEvent;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.model.dto.BookingBookerIdDto;
 import ru.practicum.shareit.booking.model.dto.BookingDto;
+import ru.practicum.shareit.booking.model.dto.BookingEventDto;
 import ru.practicum.shareit.booking.model.dto.BookingItemIdAndTimeDto;
+import ru.practicum.shareit.booking.model.dto.BookingStatusResultDto;
+import ru.practicum.shareit.booking.model.dto.BookingSummaryDto;
+import ru.practicum.shareit.booking.summary.BookingPeriodCounts;
 import ru.practicum.shareit.item.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.UserMapper;
 import ru.practicum.shareit.user.model.User;
 
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 public class BookingMapper {
@@ -43,6 +49,10 @@ public class BookingMapper {
                 .collect(Collectors.toList());
     }
 
+    public static BookingEventDto toBookingEventDto(BookingEvent event) {
+        return new BookingEventDto(event.getBookingId(), event.getItemId(), event.getBookerId(), event.getStatus());
+    }
+
     public static BookingBookerIdDto toBookingBookerIdDto(Booking booking) {
         if (booking == null) {
             return null;
@@ -51,4 +61,31 @@ public class BookingMapper {
         return new BookingBookerIdDto(booking.getId(), booking.getBooker().getId());
     }
 
+    public static BookingStatusResultDto toBookingStatusResultDto(Long bookingId, BookingStatus status) {
+        return BookingStatusResultDto.builder()
+                .id(bookingId)
+                .status(status)
+                .build();
+    }
+
+    public static BookingStatusResultDto toBookingStatusResultDto(Long bookingId, Booking booking, String error) {
+        return BookingStatusResultDto.builder()
+                .id(bookingId)
+                .status(booking == null ? null : booking.getStatus())
+                .error(error)
+                .build();
+    }
+
+    public static BookingSummaryDto toBookingSummaryDto(Map<BookingStatus, Long> statusCounts,
+                                                        BookingPeriodCounts periodCounts) {
+        return BookingSummaryDto.builder()
+                .all(statusCounts.values().stream().mapToLong(Long::longValue).sum())
+                .current(periodCounts.getCurrent())
+                .past(periodCounts.getPast())
+                .future(periodCounts.getFuture())
+                .waiting(statusCounts.get(BookingStatus.WAITING))
+                .rejected(statusCounts.get(BookingStatus.REJECTED))
+                .build();
+    }
+
 }
@@ -0,0 +1,58 @@
+package ru.practicum.shareit.booking.conflict;
+
+import ru.practicum.shareit.booking.model.Booking;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps approved bookings of the same item from overlapping, selected with the
+ * {@code shareit.booking.conflicts} property. Periods are half-open, so a booking may start
+ * exactly when the previous one ends.
+ */
+public interface BookingConflictDetector {
+    boolean hasApprovedOverlap(Long itemId, LocalDateTime start, LocalDateTime end);
+
+    /**
+     * Checks the bookings, as they are stored, against the other approved bookings of their items.
+     *
+     * @return the ids of the bookings that overlap an approved booking
+     */
+    default Set<Long> findApprovedOverlaps(List<Booking> bookings) {
+        return bookings.stream()
+                .filter(booking -> hasApprovedOverlap(booking.getItem().getId(), booking.getStart(), booking.getEnd()))
+                .map(Booking::getId)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Called when the booking becomes approved.
+     *
+     * @throws ru.practicum.shareit.common.exception.BadRequestException if it overlaps another approved booking
+     */
+    void approve(Booking booking);
+
+    /**
+     * Called when the bookings become approved with one update; they are already known not to overlap.
+     */
+    default void approveAll(List<Booking> bookings) {
+        bookings.forEach(this::approve);
+    }
+
+    /**
+     * Called when the booking stops being approved.
+     */
+    default void release(Booking booking) {
+    }
+
+    default void releaseAllByItemId(Long itemId) {
+    }
+
+    /**
+     * Called when the user is deleted together with their bookings and items.
+     */
+    default void releaseAllByUserId(Long userId) {
+    }
+}
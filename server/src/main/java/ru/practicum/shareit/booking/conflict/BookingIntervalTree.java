@@ -0,0 +1,179 @@
+package ru.practicum.shareit.booking.conflict;
+
+import java.time.LocalDateTime;
+
+/**
+ * Half-open booking periods {@code [start, end)} of one item in an AVL tree ordered by start and booking id.
+ * Every node also keeps the latest end in its subtree, which lets {@link #overlaps} skip whole subtrees:
+ * insertion, removal and the overlap check all take O(log n).
+ */
+public class BookingIntervalTree {
+    private Node root;
+    private int size;
+
+    public boolean overlaps(LocalDateTime start, LocalDateTime end) {
+        Node node = root;
+        while (node != null) {
+            if (node.start.isBefore(end) && node.end.isAfter(start)) {
+                return true;
+            }
+            // If the left subtree has a period ending after start but none of its periods overlap,
+            // that period starts at or after end, and so does everything to the right of it.
+            node = node.left != null && node.left.maxEnd.isAfter(start) ? node.left : node.right;
+        }
+
+        return false;
+    }
+
+    public void insert(Long bookingId, LocalDateTime start, LocalDateTime end) {
+        root = insert(root, new Node(bookingId, start, end));
+    }
+
+    public void remove(Long bookingId, LocalDateTime start) {
+        root = remove(root, bookingId, start);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private Node insert(Node node, Node inserted) {
+        if (node == null) {
+            size++;
+            return inserted;
+        }
+
+        int comparison = compare(inserted.bookingId, inserted.start, node);
+        if (comparison < 0) {
+            node.left = insert(node.left, inserted);
+        } else if (comparison > 0) {
+            node.right = insert(node.right, inserted);
+        } else {
+            node.end = inserted.end;
+        }
+
+        return balance(node);
+    }
+
+    private Node remove(Node node, Long bookingId, LocalDateTime start) {
+        if (node == null) {
+            return null;
+        }
+
+        int comparison = compare(bookingId, start, node);
+        if (comparison < 0) {
+            node.left = remove(node.left, bookingId, start);
+        } else if (comparison > 0) {
+            node.right = remove(node.right, bookingId, start);
+        } else {
+            size--;
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+
+            Node successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            node.right = removeMin(node.right);
+            successor.left = node.left;
+            successor.right = node.right;
+            node = successor;
+        }
+
+        return balance(node);
+    }
+
+    private Node removeMin(Node node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = removeMin(node.left);
+
+        return balance(node);
+    }
+
+    private Node balance(Node node) {
+        update(node);
+        int balance = height(node.left) - height(node.right);
+        if (balance > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+
+        return node;
+    }
+
+    private Node rotateLeft(Node node) {
+        Node right = node.right;
+        node.right = right.left;
+        right.left = node;
+        update(node);
+        update(right);
+
+        return right;
+    }
+
+    private Node rotateRight(Node node) {
+        Node left = node.left;
+        node.left = left.right;
+        left.right = node;
+        update(node);
+        update(left);
+
+        return left;
+    }
+
+    private static void update(Node node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        node.maxEnd = node.end;
+        if (node.left != null && node.left.maxEnd.isAfter(node.maxEnd)) {
+            node.maxEnd = node.left.maxEnd;
+        }
+        if (node.right != null && node.right.maxEnd.isAfter(node.maxEnd)) {
+            node.maxEnd = node.right.maxEnd;
+        }
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static int compare(Long bookingId, LocalDateTime start, Node node) {
+        int comparison = start.compareTo(node.start);
+
+        return comparison != 0 ? comparison : bookingId.compareTo(node.bookingId);
+    }
+
+    private static class Node {
+        final Long bookingId;
+        final LocalDateTime start;
+        LocalDateTime end;
+        LocalDateTime maxEnd;
+        int height = 1;
+        Node left;
+        Node right;
+
+        Node(Long bookingId, LocalDateTime start, LocalDateTime end) {
+            this.bookingId = bookingId;
+            this.start = start;
+            this.end = end;
+            this.maxEnd = end;
+        }
+    }
+}
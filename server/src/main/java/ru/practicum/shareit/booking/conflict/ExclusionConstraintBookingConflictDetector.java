@@ -0,0 +1,76 @@
+package ru.practicum.shareit.booking.conflict;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.common.exception.BadRequestException;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Checks overlaps against the {@code ex_booking_approved_period} exclusion constraint
+ * (see {@code schema-postgres.sql}): the lookup uses its GiST index, and the constraint itself
+ * rejects approvals that race past the check.
+ */
+@Component
+@ConditionalOnProperty(prefix = "shareit.booking", name = "conflicts", havingValue = "exclusion-constraint")
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ExclusionConstraintBookingConflictDetector implements BookingConflictDetector {
+    BookingRepository bookingRepository;
+
+    @Override
+    public boolean hasApprovedOverlap(Long itemId, LocalDateTime start, LocalDateTime end) {
+        return bookingRepository.existsApprovedOverlap(itemId, start, end, 0L);
+    }
+
+    /**
+     * One query for all the bookings instead of one per booking.
+     */
+    @Override
+    public Set<Long> findApprovedOverlaps(List<Booking> bookings) {
+        if (bookings.isEmpty()) {
+            return Set.of();
+        }
+
+        return new HashSet<>(bookingRepository.findAllIdsOverlappingApprovedByIdIn(bookings.stream()
+                .map(Booking::getId)
+                .collect(Collectors.toList())));
+    }
+
+    /**
+     * Expects the booking to be already marked as approved: the native query flushes it first,
+     * so a conflicting approval committed in the meantime surfaces here as a constraint violation.
+     */
+    @Override
+    public void approve(Booking booking) {
+        boolean overlaps;
+        try {
+            overlaps = bookingRepository.existsApprovedOverlap(
+                    booking.getItem().getId(), booking.getStart(), booking.getEnd(), booking.getId());
+        } catch (DataIntegrityViolationException e) {
+            overlaps = true;
+        }
+
+        if (overlaps) {
+            throw new BadRequestException("Предмет с id " + booking.getItem().getId() +
+                    " уже забронирован на это время");
+        }
+    }
+
+    /**
+     * Nothing to check: the exclusion constraint has already been applied to the update.
+     */
+    @Override
+    public void approveAll(List<Booking> bookings) {
+    }
+}
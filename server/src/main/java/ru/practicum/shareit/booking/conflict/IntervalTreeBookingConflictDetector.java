@@ -0,0 +1,226 @@
+package ru.practicum.shareit.booking.conflict;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.common.exception.BadRequestException;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Default detector for databases without exclusion constraints, e.g. H2: approved bookings are kept
+ * in memory in a {@link BookingIntervalTree} per item.
+ * <p>
+ * The check and the registration of an approval happen under one lock, so two overlapping approvals
+ * cannot both pass. If the surrounding transaction rolls back, the previous state of the touched
+ * bookings is restored.
+ */
+@Component
+@ConditionalOnProperty(prefix = "shareit.booking", name = "conflicts", havingValue = "interval-tree",
+        matchIfMissing = true)
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class IntervalTreeBookingConflictDetector implements BookingConflictDetector {
+    BookingRepository bookingRepository;
+
+    Map<Long, BookingIntervalTree> treesByItemId = new HashMap<>();
+    Map<Long, ApprovedBooking> bookingsById = new HashMap<>();
+    ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @PostConstruct
+    public void rebuild() {
+        List<Booking> bookings = bookingRepository.findAllApproved();
+
+        lock.writeLock().lock();
+        try {
+            treesByItemId.clear();
+            bookingsById.clear();
+            bookings.stream()
+                    .map(IntervalTreeBookingConflictDetector::toApprovedBooking)
+                    .forEach(this::put);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Индекс одобренных броней построен, броней: {}", bookings.size());
+    }
+
+    @Override
+    public boolean hasApprovedOverlap(Long itemId, LocalDateTime start, LocalDateTime end) {
+        lock.readLock().lock();
+        try {
+            BookingIntervalTree tree = treesByItemId.get(itemId);
+
+            return tree != null && tree.overlaps(start, end);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void approve(Booking booking) {
+        ApprovedBooking approvedBooking = toApprovedBooking(booking);
+
+        lock.writeLock().lock();
+        try {
+            ApprovedBooking previous = remove(booking.getId());
+            BookingIntervalTree tree = treesByItemId.get(approvedBooking.getItemId());
+            if (tree != null && tree.overlaps(approvedBooking.getStart(), approvedBooking.getEnd())) {
+                if (previous != null) {
+                    put(previous);
+                }
+                throw new BadRequestException("Предмет с id " + approvedBooking.getItemId() +
+                        " уже забронирован на это время");
+            }
+
+            put(approvedBooking);
+            restoreOnRollback(booking.getId(), previous);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void release(Booking booking) {
+        lock.writeLock().lock();
+        try {
+            restoreOnRollback(booking.getId(), remove(booking.getId()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void releaseAllByItemId(Long itemId) {
+        releaseAll(booking -> Objects.equals(booking.getItemId(), itemId));
+    }
+
+    @Override
+    public void releaseAllByUserId(Long userId) {
+        releaseAll(booking -> Objects.equals(booking.getOwnerId(), userId) ||
+                Objects.equals(booking.getBookerId(), userId));
+    }
+
+    private void releaseAll(Predicate<ApprovedBooking> filter) {
+        lock.writeLock().lock();
+        try {
+            List<Long> bookingIds = bookingsById.values().stream()
+                    .filter(filter)
+                    .map(ApprovedBooking::getId)
+                    .collect(Collectors.toList());
+
+            for (Long bookingId : bookingIds) {
+                restoreOnRollback(bookingId, remove(bookingId));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void put(ApprovedBooking booking) {
+        bookingsById.put(booking.getId(), booking);
+        treesByItemId.computeIfAbsent(booking.getItemId(), key -> new BookingIntervalTree())
+                .insert(booking.getId(), booking.getStart(), booking.getEnd());
+    }
+
+    private ApprovedBooking remove(Long bookingId) {
+        ApprovedBooking booking = bookingsById.remove(bookingId);
+        if (booking == null) {
+            return null;
+        }
+
+        BookingIntervalTree tree = treesByItemId.get(booking.getItemId());
+        tree.remove(bookingId, booking.getStart());
+        if (tree.isEmpty()) {
+            treesByItemId.remove(booking.getItemId());
+        }
+
+        return booking;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void restoreOnRollback(Long bookingId, ApprovedBooking previous) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        Map<Long, ApprovedBooking> snapshots =
+                (Map<Long, ApprovedBooking>) TransactionSynchronizationManager.getResource(this);
+        if (snapshots == null) {
+            Map<Long, ApprovedBooking> transactionSnapshots = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(this, transactionSnapshots);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(
+                            IntervalTreeBookingConflictDetector.this);
+                    if (status != STATUS_COMMITTED) {
+                        restore(transactionSnapshots);
+                    }
+                }
+            });
+            snapshots = transactionSnapshots;
+        }
+
+        if (!snapshots.containsKey(bookingId)) {
+            snapshots.put(bookingId, previous);
+        }
+    }
+
+    private void restore(Map<Long, ApprovedBooking> snapshots) {
+        lock.writeLock().lock();
+        try {
+            snapshots.forEach((bookingId, previous) -> {
+                remove(bookingId);
+                if (previous != null) {
+                    put(previous);
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static ApprovedBooking toApprovedBooking(Booking booking) {
+        return new ApprovedBooking(
+                booking.getId(),
+                booking.getItem().getId(),
+                booking.getItem().getOwner().getId(),
+                booking.getBooker().getId(),
+                booking.getStart(),
+                booking.getEnd()
+        );
+    }
+
+    @Value
+    static class ApprovedBooking {
+        Long id;
+
+        Long itemId;
+
+        Long ownerId;
+
+        Long bookerId;
+
+        LocalDateTime start;
+
+        LocalDateTime end;
+    }
+}
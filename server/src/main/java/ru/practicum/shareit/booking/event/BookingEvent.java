@@ -0,0 +1,23 @@
+package ru.practicum.shareit.booking.event;
+
+import lombok.Value;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+/**
+ * Published inside the transaction that changed the booking and delivered to the streams of its booker and
+ * the owner of its item after that transaction commits.
+ */
+@Value
+public class BookingEvent {
+    BookingEventType type;
+
+    Long bookingId;
+
+    Long itemId;
+
+    Long bookerId;
+
+    Long ownerId;
+
+    BookingStatus status;
+}
@@ -0,0 +1,229 @@
+package ru.practicum.shareit.booking.event;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.model.dto.BookingEventDto;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Open {@code GET /bookings/stream} connections by user, fed with the {@link BookingEvent}s published
+ * in this process.
+ * <p>
+ * A connection is an async request that holds no thread while it is idle. The thread that committed a change
+ * only puts the event into the buffer of every connection of its users, so it never waits for a client while
+ * it still holds its database connection and item lock; the events are written by a small pool of senders,
+ * one task per connection at a time. A connection whose buffer is full has fallen behind and is closed,
+ * as is one that times out, fails or fails a write; clients are expected to reconnect.
+ * <p>
+ * Metrics: {@code booking.stream.connections} and {@code booking.stream.dropped}, the connections closed
+ * for falling behind.
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class BookingEventStream {
+    private static final Duration RECONNECT_TIME = Duration.ofSeconds(3);
+    private static final int SEND_QUEUE_CAPACITY = 10_000;
+
+    ConcurrentMap<Long, Set<Connection>> connectionsByUserId = new ConcurrentHashMap<>();
+    AtomicInteger connections = new AtomicInteger();
+    Duration timeout;
+    int bufferSize;
+    ThreadPoolExecutor senders;
+    Counter dropped;
+
+    @Autowired
+    public BookingEventStream(@Value("${shareit.booking.stream.timeout}") Duration timeout,
+                              @Value("${shareit.booking.stream.senders}") int senderCount,
+                              @Value("${shareit.booking.stream.buffer-size}") int bufferSize,
+                              MeterRegistry meterRegistry) {
+        this.timeout = timeout;
+        this.bufferSize = bufferSize;
+
+        AtomicInteger senderNumber = new AtomicInteger();
+        senders = new ThreadPoolExecutor(senderCount, senderCount, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(SEND_QUEUE_CAPACITY),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "booking-stream-" + senderNumber.incrementAndGet());
+                    thread.setDaemon(true);
+
+                    return thread;
+                });
+
+        Gauge.builder("booking.stream.connections", connections, AtomicInteger::get)
+                .register(meterRegistry);
+        dropped = Counter.builder("booking.stream.dropped")
+                .register(meterRegistry);
+    }
+
+    public SseEmitter subscribe(Long userId) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Connection connection = register(userId, emitter);
+
+        try {
+            emitter.send(SseEmitter.event().reconnectTime(RECONNECT_TIME.toMillis()));
+        } catch (IOException e) {
+            remove(connection);
+        }
+
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void publish(BookingEvent event) {
+        BookingEventDto bookingEventDto = BookingMapper.toBookingEventDto(event);
+        send(event.getBookerId(), event.getType(), bookingEventDto);
+        send(event.getOwnerId(), event.getType(), bookingEventDto);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+    }
+
+    int size() {
+        return connections.get();
+    }
+
+    Connection register(Long userId, SseEmitter emitter) {
+        Connection connection = new Connection(userId, emitter, bufferSize);
+        emitter.onCompletion(() -> remove(connection));
+        emitter.onTimeout(() -> remove(connection));
+        emitter.onError(e -> remove(connection));
+
+        connectionsByUserId.compute(userId, (id, userConnections) -> {
+            Set<Connection> updated = userConnections == null ? ConcurrentHashMap.newKeySet() : userConnections;
+            updated.add(connection);
+
+            return updated;
+        });
+        connections.incrementAndGet();
+
+        return connection;
+    }
+
+    private void send(Long userId, BookingEventType type, BookingEventDto bookingEventDto) {
+        Set<Connection> userConnections = connectionsByUserId.get(userId);
+        if (userConnections == null) {
+            return;
+        }
+
+        for (Connection connection : userConnections) {
+            SseEmitter.SseEventBuilder event = SseEmitter.event()
+                    .name(type.name())
+                    .data(bookingEventDto, MediaType.APPLICATION_JSON);
+            if (!connection.events.offer(event)) {
+                log.debug("Поток событий пользователя с id {} не успевает за событиями и будет закрыт", userId);
+                dropped.increment();
+                close(connection);
+                continue;
+            }
+            schedule(connection);
+        }
+    }
+
+    /**
+     * Stops sending to the connection; the sender completes it once its current write, if any, returns.
+     */
+    private void close(Connection connection) {
+        connection.closed = true;
+        remove(connection);
+        schedule(connection);
+    }
+
+    private void schedule(Connection connection) {
+        if (!connection.scheduled.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            senders.execute(() -> drain(connection));
+        } catch (RejectedExecutionException e) {
+            connection.scheduled.set(false);
+            connection.closed = true;
+            remove(connection);
+        }
+    }
+
+    private void drain(Connection connection) {
+        while (true) {
+            SseEmitter.SseEventBuilder event;
+            while ((event = connection.events.poll()) != null && !connection.closed) {
+                try {
+                    connection.emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    log.debug("Не удалось отправить событие брони пользователю с id {}: {}",
+                            connection.userId, e.getMessage());
+                    connection.closed = true;
+                    remove(connection);
+                }
+            }
+
+            if (connection.closed) {
+                connection.events.clear();
+                connection.emitter.complete();
+                return;
+            }
+
+            connection.scheduled.set(false);
+            boolean pending = !connection.events.isEmpty() || connection.closed;
+            if (!pending || !connection.scheduled.compareAndSet(false, true)) {
+                return;
+            }
+        }
+    }
+
+    private void remove(Connection connection) {
+        connectionsByUserId.computeIfPresent(connection.userId, (id, userConnections) -> {
+            if (userConnections.remove(connection)) {
+                connections.decrementAndGet();
+            }
+
+            return userConnections.isEmpty() ? null : userConnections;
+        });
+    }
+
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    static class Connection {
+        final Long userId;
+        final SseEmitter emitter;
+        final BlockingQueue<SseEmitter.SseEventBuilder> events;
+
+        /**
+         * Whether a sender task for the connection is queued or running.
+         */
+        final AtomicBoolean scheduled = new AtomicBoolean();
+        volatile boolean closed;
+
+        Connection(Long userId, SseEmitter emitter, int bufferSize) {
+            this.userId = userId;
+            this.emitter = emitter;
+            events = new ArrayBlockingQueue<>(bufferSize);
+        }
+    }
+}
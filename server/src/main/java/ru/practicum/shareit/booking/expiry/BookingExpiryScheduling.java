@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking.expiry;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Turns on the periodic run of {@link WaitingBookingExpirer}; disabled in tests, which call it directly.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(prefix = "shareit.booking.expiry", name = "enabled", havingValue = "true")
+public class BookingExpiryScheduling {
+}
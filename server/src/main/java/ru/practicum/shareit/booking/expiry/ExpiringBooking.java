@@ -0,0 +1,18 @@
+package ru.practicum.shareit.booking.expiry;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+@Value
+public class ExpiringBooking {
+    Long id;
+
+    Long itemId;
+
+    Long bookerId;
+
+    Long ownerId;
+
+    LocalDateTime start;
+}
@@ -0,0 +1,133 @@
+package ru.practicum.shareit.booking.expiry;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.event.BookingEvent;
+import ru.practicum.shareit.booking.event.BookingEventType;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.summary.BookingStatusCounters;
+import ru.practicum.shareit.item.cache.ItemDetailsCache;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Cancels WAITING bookings whose start has passed without an answer from the owner.
+ * <p>
+ * Every run handles one time bucket: the bookings that started before the run, read in order of their start
+ * through {@code ix_bookings_waiting_start} and cancelled with one {@code UPDATE} per batch, each batch in its
+ * own transaction. Bookings that start during the run fall into the next bucket. A booking approved or rejected
+ * between the read and the update of its batch keeps its new status; the batch then ends the run early and the
+ * rest is picked up by the next one.
+ * <p>
+ * Metrics: {@code booking.expiry.expired} counts cancelled bookings, {@code booking.expiry.lag} records how long
+ * after its start each of them was cancelled.
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class WaitingBookingExpirer {
+    BookingRepository bookingRepository;
+    BookingStatusCounters bookingStatusCounters;
+    ItemDetailsCache itemDetailsCache;
+    ApplicationEventPublisher eventPublisher;
+    TransactionTemplate transactionTemplate;
+    int batchSize;
+    Counter expired;
+    Timer lag;
+
+    @Autowired
+    public WaitingBookingExpirer(BookingRepository bookingRepository,
+                                 BookingStatusCounters bookingStatusCounters,
+                                 ItemDetailsCache itemDetailsCache,
+                                 ApplicationEventPublisher eventPublisher,
+                                 TransactionTemplate transactionTemplate,
+                                 @Value("${shareit.booking.expiry.batch-size}") int batchSize,
+                                 MeterRegistry meterRegistry) {
+        this.bookingRepository = bookingRepository;
+        this.bookingStatusCounters = bookingStatusCounters;
+        this.itemDetailsCache = itemDetailsCache;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+
+        expired = Counter.builder("booking.expiry.expired")
+                .register(meterRegistry);
+        lag = Timer.builder("booking.expiry.lag")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking.expiry.interval}")
+    public void expireStarted() {
+        expire(LocalDateTime.now());
+    }
+
+    /**
+     * Cancels the WAITING bookings that started before {@code now}.
+     *
+     * @return the number of cancelled bookings
+     */
+    public int expire(LocalDateTime now) {
+        int total = 0;
+        int cancelled;
+        do {
+            Integer batchCancelled = transactionTemplate.execute(status -> expireBatch(now));
+            cancelled = batchCancelled == null ? 0 : batchCancelled;
+            total += cancelled;
+        } while (cancelled == batchSize);
+
+        if (total > 0) {
+            log.info("Отменено неподтвержденных броней с наступившим началом: {}", total);
+        }
+
+        return total;
+    }
+
+    private int expireBatch(LocalDateTime now) {
+        List<ExpiringBooking> bookings = bookingRepository.findAllExpiring(now, PageRequest.of(0, batchSize));
+        if (bookings.isEmpty()) {
+            return 0;
+        }
+
+        Set<Long> bookingIds = bookings.stream()
+                .map(ExpiringBooking::getId)
+                .collect(Collectors.toSet());
+        int updated = bookingRepository.cancelAllWaitingByIdIn(bookingIds);
+        if (updated < bookingIds.size()) {
+            bookingIds = new HashSet<>(bookingRepository.findAllIdsByIdInAndStatus(bookingIds, BookingStatus.CANCELED));
+        }
+
+        LocalDateTime cancelledAt = LocalDateTime.now();
+        Set<Long> itemIds = new HashSet<>();
+        for (ExpiringBooking booking : bookings) {
+            if (bookingIds.contains(booking.getId())) {
+                bookingStatusCounters.move(booking.getBookerId(), booking.getOwnerId(),
+                        BookingStatus.WAITING, BookingStatus.CANCELED);
+                lag.record(Duration.between(booking.getStart(), cancelledAt));
+                itemIds.add(booking.getItemId());
+                eventPublisher.publishEvent(new BookingEvent(BookingEventType.STATUS_CHANGED, booking.getId(),
+                        booking.getItemId(), booking.getBookerId(), booking.getOwnerId(), BookingStatus.CANCELED));
+            }
+        }
+        itemIds.forEach(itemDetailsCache::evictOwnerView);
+        expired.increment(bookingIds.size());
+
+        return bookingIds.size();
+    }
+}
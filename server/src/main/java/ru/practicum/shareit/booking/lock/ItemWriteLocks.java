@@ -0,0 +1,119 @@
+package ru.practicum.shareit.booking.lock;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.common.exception.BadRequestException;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-process locks that serialize the booking writes of one item until the transaction that took the lock
+ * completes.
+ * <p>
+ * Every item that is being written gets its own fair lock, created on demand and dropped when its last holder
+ * or waiter leaves, so writes for different items never wait for each other, unlike with a fixed set of
+ * stripes shared by hashing. The lock only covers one node; across nodes the writes are serialized by
+ * the row lock on the item that the caller takes next, and the in-process lock keeps the waiters of
+ * this node queued in order instead of piling up on that row lock in the database.
+ * <p>
+ * Metrics: {@code booking.item.lock.wait}, {@code booking.item.lock.timeouts}, {@code booking.item.locks}
+ * and {@code booking.item.lock.contended}, the locks requested while another transaction held or waited
+ * for the same item.
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ItemWriteLocks {
+    ConcurrentMap<Long, ItemLock> locks = new ConcurrentHashMap<>();
+    Duration timeout;
+    Timer waits;
+    Counter timeouts;
+    Counter contended;
+
+    @Autowired
+    public ItemWriteLocks(@Value("${shareit.booking.lock.timeout}") Duration timeout, MeterRegistry meterRegistry) {
+        this.timeout = timeout;
+        waits = Timer.builder("booking.item.lock.wait")
+                .register(meterRegistry);
+        timeouts = Counter.builder("booking.item.lock.timeouts")
+                .register(meterRegistry);
+        contended = Counter.builder("booking.item.lock.contended")
+                .register(meterRegistry);
+        Gauge.builder("booking.item.locks", locks, ConcurrentMap::size)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Waits for the lock of the item and holds it until the current transaction completes.
+     */
+    public void lock(Long itemId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Блокировка предмета с id " + itemId + " берется только в транзакции");
+        }
+
+        ItemLock lock = locks.compute(itemId, (id, current) -> {
+            ItemLock itemLock = current == null ? new ItemLock() : current;
+            if (++itemLock.users > 1) {
+                contended.increment();
+            }
+
+            return itemLock;
+        });
+
+        long started = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = lock.tryLock(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        waits.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+
+        if (!acquired) {
+            leave(itemId);
+            timeouts.increment();
+            throw new BadRequestException("Предмет с id " + itemId +
+                    " сейчас бронируют другие пользователи, повторите запрос позже");
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+                leave(itemId);
+            }
+        });
+    }
+
+    int size() {
+        return locks.size();
+    }
+
+    private void leave(Long itemId) {
+        locks.computeIfPresent(itemId, (id, itemLock) -> --itemLock.users == 0 ? null : itemLock);
+    }
+
+    /**
+     * {@code users} counts the holders and waiters and is only changed inside {@code compute} of the map.
+     */
+    private static class ItemLock extends ReentrantLock {
+        int users;
+
+        ItemLock() {
+            super(true);
+        }
+    }
+}
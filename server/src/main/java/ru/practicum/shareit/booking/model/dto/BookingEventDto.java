@@ -0,0 +1,18 @@
+package ru.practicum.shareit.booking.model.dto;
+
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Data
+public class BookingEventDto {
+    Long bookingId;
+
+    Long itemId;
+
+    Long bookerId;
+
+    BookingStatus status;
+}
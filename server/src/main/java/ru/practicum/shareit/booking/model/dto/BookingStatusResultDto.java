@@ -0,0 +1,22 @@
+package ru.practicum.shareit.booking.model.dto;
+
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+/**
+ * Outcome for one booking of a bulk status update: the new status, or the current one and the reason
+ * it was not changed.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Data
+@Builder
+public class BookingStatusResultDto {
+    Long id;
+
+    BookingStatus status;
+
+    String error;
+}
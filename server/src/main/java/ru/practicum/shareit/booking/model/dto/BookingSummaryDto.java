@@ -0,0 +1,23 @@
+package ru.practicum.shareit.booking.model.dto;
+
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Data
+@Builder
+public class BookingSummaryDto {
+    Long all;
+
+    Long current;
+
+    Long past;
+
+    Long future;
+
+    Long waiting;
+
+    Long rejected;
+}
@@ -0,0 +1,92 @@
+package ru.practicum.shareit.booking.repository;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+import ru.practicum.shareit.booking.model.BookingRole;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.dto.BookingState;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * JPQL of a booking listing for one role and state, newest first. The texts are built once, and everything
+ * that changes between requests ({@code :userId}, {@code :now}, {@code :status} and the cursor) is a parameter,
+ * so every request of a kind sends Hibernate the same string and hits its query plan cache.
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+class BookingListingQuery {
+    private static final Map<BookingRole, Map<BookingState, BookingListingQuery>> QUERIES = build(false);
+    private static final Map<BookingRole, Map<BookingState, BookingListingQuery>> CURSOR_QUERIES = build(true);
+
+    String jpql;
+
+    boolean bindsNow;
+
+    BookingStatus status;
+
+    static BookingListingQuery of(BookingRole role, BookingState state, boolean afterCursor) {
+        return (afterCursor ? CURSOR_QUERIES : QUERIES).get(role).get(state);
+    }
+
+    private static Map<BookingRole, Map<BookingState, BookingListingQuery>> build(boolean afterCursor) {
+        Map<BookingRole, Map<BookingState, BookingListingQuery>> queries = new EnumMap<>(BookingRole.class);
+        for (BookingRole role : BookingRole.values()) {
+            Map<BookingState, BookingListingQuery> queriesByState = new EnumMap<>(BookingState.class);
+            for (BookingState state : BookingState.values()) {
+                queriesByState.put(state, build(role, state, afterCursor));
+            }
+            queries.put(role, Collections.unmodifiableMap(queriesByState));
+        }
+
+        return Collections.unmodifiableMap(queries);
+    }
+
+    private static BookingListingQuery build(BookingRole role, BookingState state, boolean afterCursor) {
+        StringBuilder jpql = new StringBuilder("SELECT b FROM Booking AS b " +
+                "JOIN FETCH b.item AS i " +
+                "JOIN FETCH b.booker " +
+                "WHERE ");
+        jpql.append(role == BookingRole.OWNER ? "i.owner.id = :userId" : "b.booker.id = :userId");
+
+        boolean bindsNow = false;
+        BookingStatus status = null;
+        switch (state) {
+            case CURRENT:
+                jpql.append(" AND b.start <= :now AND b.end > :now");
+                bindsNow = true;
+
+                break;
+            case PAST:
+                jpql.append(" AND b.end < :now");
+                bindsNow = true;
+
+                break;
+            case FUTURE:
+                jpql.append(" AND b.start > :now");
+                bindsNow = true;
+
+                break;
+            case WAITING:
+                jpql.append(" AND b.status = :status");
+                status = BookingStatus.WAITING;
+
+                break;
+            case REJECTED:
+                jpql.append(" AND b.status = :status");
+                status = BookingStatus.REJECTED;
+
+                break;
+        }
+
+        if (afterCursor) {
+            jpql.append(" AND (b.start < :cursorStart OR b.start = :cursorStart AND b.id < :cursorId)");
+        }
+        jpql.append(" ORDER BY b.start DESC, b.id DESC");
+
+        return new BookingListingQuery(jpql.toString(), bindsNow, status);
+    }
+}
@@ -0,0 +1,28 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingRole;
+import ru.practicum.shareit.booking.model.dto.BookingState;
+import ru.practicum.shareit.common.model.Cursor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Listings that fetch the item and the booker together with every booking, so mapping
+ * a page to DTOs does not issue a select per item and booker. Pages are returned as slices: one extra row
+ * tells whether a next page exists, instead of a count over all matching bookings.
+ */
+public interface BookingListingRepository {
+    /**
+     * Bookings of the user in the given role and state, newest first, starting right after the cursor if it is
+     * given and at the offset of the page otherwise; {@code now} is the moment the time-based states refer to.
+     */
+    Slice<Booking> findAllWithItemAndBooker(BookingRole role,
+                                            BookingState state,
+                                            Long userId,
+                                            LocalDateTime now,
+                                            Cursor cursor,
+                                            Pageable pageable);
+}
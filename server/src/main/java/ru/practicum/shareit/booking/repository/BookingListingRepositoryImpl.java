@@ -0,0 +1,58 @@
+package ru.practicum.shareit.booking.repository;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingRole;
+import ru.practicum.shareit.booking.model.dto.BookingState;
+import ru.practicum.shareit.common.model.Cursor;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@RequiredArgsConstructor
+public class BookingListingRepositoryImpl implements BookingListingRepository {
+    EntityManager entityManager;
+
+    @Override
+    public Slice<Booking> findAllWithItemAndBooker(BookingRole role,
+                                                   BookingState state,
+                                                   Long userId,
+                                                   LocalDateTime now,
+                                                   Cursor cursor,
+                                                   Pageable pageable) {
+        BookingListingQuery listingQuery = BookingListingQuery.of(role, state, cursor != null);
+        TypedQuery<Booking> query = entityManager.createQuery(listingQuery.getJpql(), Booking.class)
+                .setParameter("userId", userId);
+
+        if (listingQuery.isBindsNow()) {
+            query.setParameter("now", now);
+        }
+        if (listingQuery.getStatus() != null) {
+            query.setParameter("status", listingQuery.getStatus());
+        }
+        if (cursor != null) {
+            query.setParameter("cursorStart", cursor.getRequiredTime())
+                    .setParameter("cursorId", cursor.getId());
+        }
+
+        List<Booking> bookings = query
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+
+        boolean hasNext = bookings.size() > pageable.getPageSize();
+        if (hasNext) {
+            bookings = bookings.subList(0, pageable.getPageSize());
+        }
+
+        return new SliceImpl<>(bookings, pageable, hasNext);
+    }
+}
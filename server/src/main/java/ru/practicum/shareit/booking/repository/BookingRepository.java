@@ -1,13 +1,32 @@
 package ru.practicum.shareit.booking.repository;
 
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
+import ru.practicum.shareit.booking.expiry.ExpiringBooking;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.summary.BookingPeriodCounts;
+import ru.practicum.shareit.booking.summary.BookingStatusCount;
+import ru.practicum.shareit.item.comment.ItemBookerPair;
+import ru.practicum.shareit.item.model.dto.PeriodDto;
 
+import javax.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
-public interface BookingRepository extends JpaRepository<Booking, Long>, QuerydslPredicateExecutor<Booking> {
+public interface BookingRepository extends JpaRepository<Booking, Long>, QuerydslPredicateExecutor<Booking>,
+        BookingListingRepository {
+    @EntityGraph(attributePaths = {"item", "item.owner", "booker"})
+    @Override
+    Optional<Booking> findById(Long id);
 
     @Query("SELECT b " +
             "FROM Booking AS b " +
@@ -16,6 +35,76 @@ public interface BookingRepository extends JpaRepository<Booking, Long>, Queryds
             "b.status = 'WAITING')")
     List<Booking> findAllAcceptedByItemId(Long itemId);
 
+    default Optional<Booking> findFirstByItemIdAndStatusInAndStartBeforeOrderByStartDescIdAsc(
+            Long itemId, Collection<BookingStatus> statuses, LocalDateTime now) {
+        return findAllByItemIdAndStatusInAndStartBefore(itemId, statuses, now, PageRequest.of(0, 1)).stream()
+                .findFirst();
+    }
+
+    default Optional<Booking> findFirstByItemIdAndStatusInAndStartAfterOrderByStartAscIdAsc(
+            Long itemId, Collection<BookingStatus> statuses, LocalDateTime now) {
+        return findAllByItemIdAndStatusInAndStartAfter(itemId, statuses, now, PageRequest.of(0, 1)).stream()
+                .findFirst();
+    }
+
+    /**
+     * Written out instead of derived: the derived query filters on the id of the joined item,
+     * and H2 then scans all bookings instead of using {@code ix_bookings_item_status_start_end}.
+     */
+    @Query("SELECT b " +
+            "FROM Booking AS b " +
+            "JOIN FETCH b.item " +
+            "JOIN FETCH b.booker " +
+            "WHERE b.item.id = ?1 AND " +
+            "b.status IN ?2 AND " +
+            "b.start < ?3 " +
+            "ORDER BY b.start DESC, b.id")
+    List<Booking> findAllByItemIdAndStatusInAndStartBefore(
+            Long itemId, Collection<BookingStatus> statuses, LocalDateTime now, Pageable pageable);
+
+    @Query("SELECT b " +
+            "FROM Booking AS b " +
+            "JOIN FETCH b.item " +
+            "JOIN FETCH b.booker " +
+            "WHERE b.item.id = ?1 AND " +
+            "b.status IN ?2 AND " +
+            "b.start > ?3 " +
+            "ORDER BY b.start, b.id")
+    List<Booking> findAllByItemIdAndStatusInAndStartAfter(
+            Long itemId, Collection<BookingStatus> statuses, LocalDateTime now, Pageable pageable);
+
+    @Query("SELECT b " +
+            "FROM Booking AS b " +
+            "JOIN FETCH b.item " +
+            "JOIN FETCH b.booker " +
+            "WHERE b.item.id IN ?1 AND " +
+            "(b.status = 'APPROVED' OR " +
+            "b.status = 'WAITING') AND " +
+            "b.start = (SELECT MAX(lb.start) " +
+            "FROM Booking AS lb " +
+            "WHERE lb.item.id = b.item.id AND " +
+            "lb.start < ?2 AND " +
+            "(lb.status = 'APPROVED' OR " +
+            "lb.status = 'WAITING')) " +
+            "ORDER BY b.id")
+    List<Booking> findAllLastAcceptedByItemIdIn(Collection<Long> itemIds, LocalDateTime now);
+
+    @Query("SELECT b " +
+            "FROM Booking AS b " +
+            "JOIN FETCH b.item " +
+            "JOIN FETCH b.booker " +
+            "WHERE b.item.id IN ?1 AND " +
+            "(b.status = 'APPROVED' OR " +
+            "b.status = 'WAITING') AND " +
+            "b.start = (SELECT MIN(nb.start) " +
+            "FROM Booking AS nb " +
+            "WHERE nb.item.id = b.item.id AND " +
+            "nb.start > ?2 AND " +
+            "(nb.status = 'APPROVED' OR " +
+            "nb.status = 'WAITING')) " +
+            "ORDER BY b.id")
+    List<Booking> findAllNextAcceptedByItemIdIn(Collection<Long> itemIds, LocalDateTime now);
+
     @Query("SELECT COUNT(b) " +
             "FROM Booking AS b " +
             "WHERE b.item.id = ?1 AND " +
@@ -24,4 +113,157 @@ public interface BookingRepository extends JpaRepository<Booking, Long>, Queryds
             "(b.status = 'APPROVED' OR " +
             "b.status = 'WAITING')")
     Integer countAllPrevious(Long itemId, Long bookerId);
+
+    /**
+     * Filters on the end first so that {@code ix_bookings_item_accepted_end} is read only from {@code from} on:
+     * the bookings that ended before the range are never touched, however long the history of the item is.
+     */
+    @Query("SELECT new ru.practicum.shareit.item.model.dto.PeriodDto(b.start, b.end) " +
+            "FROM Booking AS b " +
+            "WHERE b.item.id = ?1 AND " +
+            "b.end > ?2 AND " +
+            "b.start < ?3 AND " +
+            "(b.status = 'APPROVED' OR " +
+            "b.status = 'WAITING') " +
+            "ORDER BY b.start")
+    List<PeriodDto> findAllAcceptedPeriodsByItemId(Long itemId, LocalDateTime from, LocalDateTime to);
+
+    @Query("SELECT b " +
+            "FROM Booking AS b " +
+            "JOIN FETCH b.item AS i " +
+            "JOIN FETCH i.owner " +
+            "JOIN FETCH b.booker " +
+            "WHERE b.status = 'APPROVED'")
+    List<Booking> findAllApproved();
+
+    @Query("SELECT DISTINCT new ru.practicum.shareit.item.comment.ItemBookerPair(b.item.id, b.booker.id) " +
+            "FROM Booking AS b " +
+            "WHERE b.status = 'APPROVED' OR b.status = 'WAITING'")
+    List<ItemBookerPair> findAllAcceptedItemBookerPairs();
+
+    /**
+     * Moves the booking from one status to another if it is still in the first one and belongs to an item
+     * of the owner. The check and the change are one statement, so two concurrent answers cannot both pass.
+     *
+     * @return 1 if the status was changed, 0 otherwise
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Booking AS b " +
+            "SET b.status = ?4 " +
+            "WHERE b.id = ?1 AND b.status = ?3 " +
+            "AND b.item.id IN (SELECT i.id FROM Item AS i WHERE i.owner.id = ?2)")
+    int updateStatus(Long bookingId, Long ownerId, BookingStatus from, BookingStatus to);
+
+    /**
+     * Locks the bookings until the end of the transaction, so their statuses cannot change before
+     * {@link #updateStatusByIdIn} is executed. The rows are locked in id order, so two calls with
+     * overlapping ids wait for each other instead of deadlocking.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b " +
+            "FROM Booking AS b " +
+            "JOIN FETCH b.item AS i " +
+            "JOIN FETCH i.owner " +
+            "JOIN FETCH b.booker " +
+            "WHERE b.id IN ?1 " +
+            "ORDER BY b.id")
+    List<Booking> findAllForUpdateByIdIn(Collection<Long> bookingIds);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Booking AS b " +
+            "SET b.status = ?3 " +
+            "WHERE b.id IN ?1 " +
+            "AND b.item.id IN (SELECT i.id FROM Item AS i WHERE i.owner.id = ?2)")
+    int updateStatusByIdIn(Collection<Long> bookingIds, Long ownerId, BookingStatus status);
+
+    @Query("SELECT new ru.practicum.shareit.booking.expiry.ExpiringBooking(" +
+            "b.id, i.id, b.booker.id, i.owner.id, b.start) " +
+            "FROM Booking AS b " +
+            "JOIN b.item AS i " +
+            "WHERE b.status = 'WAITING' AND b.start < ?1 " +
+            "ORDER BY b.start, b.id")
+    List<ExpiringBooking> findAllExpiring(LocalDateTime now, Pageable pageable);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Booking AS b " +
+            "SET b.status = 'CANCELED' " +
+            "WHERE b.id IN ?1 AND b.status = 'WAITING'")
+    int cancelAllWaitingByIdIn(Collection<Long> bookingIds);
+
+    @Query("SELECT b.id " +
+            "FROM Booking AS b " +
+            "WHERE b.id IN ?1 AND b.status = ?2")
+    List<Long> findAllIdsByIdInAndStatus(Collection<Long> bookingIds, BookingStatus status);
+
+    @Query("SELECT new ru.practicum.shareit.booking.summary.BookingStatusCount(" +
+            "b.booker.id, i.owner.id, b.status, COUNT(b)) " +
+            "FROM Booking AS b " +
+            "JOIN b.item AS i " +
+            "GROUP BY b.booker.id, i.owner.id, b.status")
+    List<BookingStatusCount> countAllGroupByBookerIdAndOwnerIdAndStatus();
+
+    @Query("SELECT new ru.practicum.shareit.booking.summary.BookingStatusCount(" +
+            "b.booker.id, i.owner.id, b.status, COUNT(b)) " +
+            "FROM Booking AS b " +
+            "JOIN b.item AS i " +
+            "WHERE i.id = ?1 " +
+            "GROUP BY b.booker.id, i.owner.id, b.status")
+    List<BookingStatusCount> countAllByItemIdGroupByBookerIdAndOwnerIdAndStatus(Long itemId);
+
+    @Query("SELECT new ru.practicum.shareit.booking.summary.BookingStatusCount(" +
+            "b.booker.id, i.owner.id, b.status, COUNT(b)) " +
+            "FROM Booking AS b " +
+            "JOIN b.item AS i " +
+            "WHERE b.booker.id = ?1 OR i.owner.id = ?1 " +
+            "GROUP BY b.booker.id, i.owner.id, b.status")
+    List<BookingStatusCount> countAllByUserIdGroupByBookerIdAndOwnerIdAndStatus(Long userId);
+
+    /**
+     * Reads only {@code ix_bookings_booker_start_end}, which holds both ends of the period.
+     */
+    @Query("SELECT new ru.practicum.shareit.booking.summary.BookingPeriodCounts(" +
+            "COALESCE(SUM(CASE WHEN b.start <= ?2 AND b.end > ?2 THEN 1 ELSE 0 END), 0), " +
+            "COALESCE(SUM(CASE WHEN b.end < ?2 THEN 1 ELSE 0 END), 0), " +
+            "COALESCE(SUM(CASE WHEN b.start > ?2 THEN 1 ELSE 0 END), 0)) " +
+            "FROM Booking AS b " +
+            "WHERE b.booker.id = ?1")
+    BookingPeriodCounts countPeriodsByBookerId(Long bookerId, LocalDateTime now);
+
+    /**
+     * Reads only {@code ix_items_owner_id} and {@code ix_bookings_item_status_start_end}.
+     */
+    @Query("SELECT new ru.practicum.shareit.booking.summary.BookingPeriodCounts(" +
+            "COALESCE(SUM(CASE WHEN b.start <= ?2 AND b.end > ?2 THEN 1 ELSE 0 END), 0), " +
+            "COALESCE(SUM(CASE WHEN b.end < ?2 THEN 1 ELSE 0 END), 0), " +
+            "COALESCE(SUM(CASE WHEN b.start > ?2 THEN 1 ELSE 0 END), 0)) " +
+            "FROM Booking AS b " +
+            "JOIN b.item AS i " +
+            "WHERE i.owner.id = ?1")
+    BookingPeriodCounts countPeriodsByOwnerId(Long ownerId, LocalDateTime now);
+
+    /**
+     * PostgreSQL only: answered from the GiST index of the {@code ex_booking_approved_period} constraint.
+     */
+    @Query(value = "SELECT EXISTS (SELECT 1 " +
+            "FROM bookings AS b " +
+            "WHERE b.item_id = ?1 AND " +
+            "b.status = 'APPROVED' AND " +
+            "tsrange(b.start_time, b.end_time) && tsrange(?2, ?3) AND " +
+            "b.id <> ?4)",
+            nativeQuery = true)
+    boolean existsApprovedOverlap(Long itemId, LocalDateTime start, LocalDateTime end, Long excludedBookingId);
+
+    /**
+     * PostgreSQL only: the ids of the bookings whose stored period overlaps another approved booking of the same
+     * item, each probe answered from the GiST index of the {@code ex_booking_approved_period} constraint.
+     */
+    @Query(value = "SELECT DISTINCT c.id " +
+            "FROM bookings AS c " +
+            "JOIN bookings AS b ON b.item_id = c.item_id AND " +
+            "b.status = 'APPROVED' AND " +
+            "tsrange(b.start_time, b.end_time) && tsrange(c.start_time, c.end_time) AND " +
+            "b.id <> c.id " +
+            "WHERE c.id IN ?1",
+            nativeQuery = true)
+    List<Long> findAllIdsOverlappingApprovedByIdIn(Collection<Long> bookingIds);
 }
@@ -1,8 +1,13 @@
 package ru.practicum.shareit.booking.service;
 
+import org.springframework.data.domain.Slice;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.booking.model.dto.BookingDto;
 import ru.practicum.shareit.booking.model.dto.BookingItemIdAndTimeDto;
 import ru.practicum.shareit.booking.model.dto.BookingState;
+import ru.practicum.shareit.booking.model.dto.BookingStatusResultDto;
+import ru.practicum.shareit.booking.model.dto.BookingStatusUpdateDto;
+import ru.practicum.shareit.booking.model.dto.BookingSummaryDto;
 import ru.practicum.shareit.common.model.PaginationConfig;
 
 import java.util.List;
@@ -12,9 +17,17 @@ public interface BookingService {
 
     BookingDto updateStatus(Long userId, Long bookingId, Boolean approved);
 
+    List<BookingStatusResultDto> updateStatuses(Long userId, BookingStatusUpdateDto bookingStatusUpdateDto);
+
     BookingDto getById(Long userId, Long bookingId);
 
-    List<BookingDto> getAllByBookerId(Long userId, BookingState state, PaginationConfig paginationConfig);
+    Slice<BookingDto> getAllByBookerId(Long userId, BookingState state, PaginationConfig paginationConfig);
+
+    Slice<BookingDto> getAllByOwnerId(Long userId, BookingState state, PaginationConfig paginationConfig);
+
+    BookingSummaryDto getSummaryByBookerId(Long userId);
+
+    BookingSummaryDto getSummaryByOwnerId(Long userId);
 
-    List<BookingDto> getAllByOwnerId(Long userId, BookingState state, PaginationConfig paginationConfig);
+    SseEmitter stream(Long userId);
 }
@@ -1,25 +1,41 @@
 package ru.practicum.shareit.booking.service.impl;
 
-import com.querydsl.core.types.dsl.BooleanExpression;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.conflict.BookingConflictDetector;
+import ru.practicum.shareit.booking.conflict.BookingIntervalTree;
+import ru.practicum.shareit.booking.event.BookingEvent;
+import ru.practicum.shareit.booking.event.BookingEventStream;
+import ru.practicum.shareit.booking.event.BookingEventType;
+import ru.practicum.shareit.booking.lock.ItemWriteLocks;
 import ru.practicum.shareit.booking.model.Booking;
-import ru.practicum.shareit.booking.model.QBooking;
+import ru.practicum.shareit.booking.model.BookingRole;
+import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.model.dto.BookingDto;
 import ru.practicum.shareit.booking.model.dto.BookingItemIdAndTimeDto;
 import ru.practicum.shareit.booking.model.dto.BookingState;
+import ru.practicum.shareit.booking.model.dto.BookingStatusResultDto;
+import ru.practicum.shareit.booking.model.dto.BookingStatusUpdateDto;
+import ru.practicum.shareit.booking.model.dto.BookingSummaryDto;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.summary.BookingStatusCounters;
 import ru.practicum.shareit.common.exception.BadRequestException;
 import ru.practicum.shareit.common.exception.NotFoundException;
+import ru.practicum.shareit.common.model.Cursor;
 import ru.practicum.shareit.common.model.PaginationConfig;
+import ru.practicum.shareit.item.cache.ItemDetailsCache;
+import ru.practicum.shareit.item.comment.CommentEligibilityFilter;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.user.model.User;
@@ -27,8 +43,15 @@ import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static ru.practicum.shareit.booking.model.BookingStatus.*;
 
@@ -40,13 +63,20 @@ public class BookingServiceImpl implements BookingService {
     BookingRepository bookingRepository;
     ItemRepository itemRepository;
     UserRepository userRepository;
-    QBooking qBooking = QBooking.booking;
+    ItemDetailsCache itemDetailsCache;
+    BookingConflictDetector bookingConflictDetector;
+    BookingStatusCounters bookingStatusCounters;
+    CommentEligibilityFilter commentEligibilityFilter;
+    ItemWriteLocks itemWriteLocks;
+    BookingEventStream bookingEventStream;
+    ApplicationEventPublisher eventPublisher;
 
     @Transactional
     @Override
     public BookingDto create(Long userId, BookingItemIdAndTimeDto bookingItemIdAndTimeDto) {
         Long itemId = bookingItemIdAndTimeDto.getItemId();
-        Item item = itemRepository.findByIdWithOwner(itemId)
+        itemWriteLocks.lock(itemId);
+        Item item = itemRepository.findForUpdateById(itemId)
                 .orElseThrow(() -> new NotFoundException("Предмет с id " + itemId + " не найден"));
 
         if (!item.getAvailable()) {
@@ -57,6 +87,11 @@ public class BookingServiceImpl implements BookingService {
             throw new NotFoundException("Пользователь не может забронировать собственный предмет");
         }
 
+        if (bookingConflictDetector.hasApprovedOverlap(
+                itemId, bookingItemIdAndTimeDto.getStart(), bookingItemIdAndTimeDto.getEnd())) {
+            throw new BadRequestException("Предмет с id " + itemId + " уже забронирован на это время");
+        }
+
         User booker = userRepository.findById(userId)
                 .orElseThrow(() -> new NotFoundException("Пользователь с id " + userId + " не найден"));
 
@@ -65,6 +100,11 @@ public class BookingServiceImpl implements BookingService {
         booking.setBooker(booker);
 
         Booking createdBooking = bookingRepository.save(booking);
+        bookingStatusCounters.increment(userId, item.getOwner().getId(), WAITING);
+        commentEligibilityFilter.add(itemId, userId);
+        itemDetailsCache.evictOwnerView(itemId);
+        eventPublisher.publishEvent(new BookingEvent(BookingEventType.CREATED, createdBooking.getId(), itemId,
+                userId, item.getOwner().getId(), WAITING));
         log.info("Была добавлена бронь, id={}", createdBooking.getId());
 
         return BookingMapper.toBookingDto(createdBooking);
@@ -73,34 +113,169 @@ public class BookingServiceImpl implements BookingService {
     @Transactional
     @Override
     public BookingDto updateStatus(Long userId, Long bookingId, Boolean approved) {
+        BookingStatus status = approved ? APPROVED : REJECTED;
+
+        BookingStatus previousStatus;
+        try {
+            previousStatus = transition(userId, bookingId, status);
+        } catch (DataIntegrityViolationException e) {
+            throw new BadRequestException("Предмет уже забронирован на это время");
+        }
+
         Booking booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new NotFoundException("Бронь с id " + bookingId + " не найдена"));
+        if (approved) {
+            bookingConflictDetector.approve(booking);
+        } else {
+            bookingConflictDetector.release(booking);
+        }
 
-        Long itemId = booking.getItem().getId();
-        Item item = itemRepository.findById(itemId)
-                .orElseThrow(() -> new NotFoundException("Предмет с id " + itemId + " не найден"));
+        bookingStatusCounters.move(booking.getBooker().getId(), userId, previousStatus, status);
+        itemDetailsCache.evictOwnerView(booking.getItem().getId());
+        eventPublisher.publishEvent(toStatusChangedEvent(booking, userId, status));
+        log.info("Был обновлен статус брони, id={}", bookingId);
+
+        return BookingMapper.toBookingDto(booking);
+    }
+
+    /**
+     * Answers a waiting booking or reverses the previous answer, each with one conditional update.
+     *
+     * @return the status the booking had before
+     */
+    private BookingStatus transition(Long userId, Long bookingId, BookingStatus status) {
+        BookingStatus reversed = status == APPROVED ? REJECTED : APPROVED;
+        for (BookingStatus from : List.of(WAITING, reversed)) {
+            if (bookingRepository.updateStatus(bookingId, userId, from, status) > 0) {
+                return from;
+            }
+        }
 
-        if (!Objects.equals(item.getOwner().getId(), userId)) {
-            throw new NotFoundException("Пользователь с id " + userId + " не является владельцем вещи с id " + itemId);
+        RuntimeException rejection = checkTransition(userId, bookingId,
+                bookingRepository.findById(bookingId).orElse(null), status);
+        if (rejection != null) {
+            throw rejection;
         }
 
-        if (booking.getStatus().equals(APPROVED) && approved ||
-                booking.getStatus().equals(REJECTED) && !approved) {
-            String message = approved ? "одобрить" : "отклонить";
+        throw new BadRequestException("Статус брони с id " + bookingId + " был изменен другим запросом");
+    }
+
+    /**
+     * Answers all bookings with one locking read, one overlap check and one update. Bookings that cannot be answered,
+     * e.g. of other owners or overlapping an approved booking or one approved earlier in the same call,
+     * are reported in the result and left as they are.
+     */
+    @Transactional
+    @Override
+    public List<BookingStatusResultDto> updateStatuses(Long userId, BookingStatusUpdateDto bookingStatusUpdateDto) {
+        boolean approved = bookingStatusUpdateDto.getApproved();
+        BookingStatus status = approved ? APPROVED : REJECTED;
+        Set<Long> bookingIds = new LinkedHashSet<>(bookingStatusUpdateDto.getBookingIds());
+
+        List<Booking> bookings = bookingRepository.findAllForUpdateByIdIn(bookingIds);
+        Map<Long, Booking> bookingsById = bookings.stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+        Set<Long> overlappingIds = approved && !bookings.isEmpty()
+                ? bookingConflictDetector.findApprovedOverlaps(bookings)
+                : Set.of();
+
+        List<BookingStatusResultDto> results = new ArrayList<>(bookingIds.size());
+        List<Booking> updatedBookings = new ArrayList<>();
+        Map<Long, BookingIntervalTree> approvedByItemId = new HashMap<>();
+        for (Long bookingId : bookingIds) {
+            Booking booking = bookingsById.get(bookingId);
+            RuntimeException rejection = checkTransition(userId, bookingId, booking, status);
+            if (rejection == null && approved &&
+                    (overlappingIds.contains(bookingId) || overlapsApprovedInCall(booking, approvedByItemId))) {
+                rejection = new BadRequestException("Предмет с id " + booking.getItem().getId() +
+                        " уже забронирован на это время");
+            }
+
+            if (rejection != null) {
+                results.add(BookingMapper.toBookingStatusResultDto(bookingId, booking, rejection.getMessage()));
+                continue;
+            }
+
+            if (approved) {
+                approvedByItemId.computeIfAbsent(booking.getItem().getId(), key -> new BookingIntervalTree())
+                        .insert(bookingId, booking.getStart(), booking.getEnd());
+            }
+            updatedBookings.add(booking);
+            results.add(BookingMapper.toBookingStatusResultDto(bookingId, status));
+        }
 
-            throw new BadRequestException("Нельзя повторно " + message + " бронь");
+        if (!updatedBookings.isEmpty()) {
+            applyStatus(userId, updatedBookings, status);
         }
+        log.info("Был обновлен статус {} из {} броней пользователя с id {}",
+                updatedBookings.size(), bookingIds.size(), userId);
 
-        if (approved) {
-            booking.setStatus(APPROVED);
+        return results;
+    }
+
+    private void applyStatus(Long userId, List<Booking> bookings, BookingStatus status) {
+        List<Long> bookingIds = bookings.stream()
+                .map(Booking::getId)
+                .collect(Collectors.toList());
+        try {
+            bookingRepository.updateStatusByIdIn(bookingIds, userId, status);
+        } catch (DataIntegrityViolationException e) {
+            throw new BadRequestException("Предмет уже забронирован на это время");
+        }
+
+        if (status == APPROVED) {
+            bookingConflictDetector.approveAll(bookings);
         } else {
-            booking.setStatus(REJECTED);
+            bookings.forEach(bookingConflictDetector::release);
         }
 
-        Booking updatedBooking = bookingRepository.save(booking);
-        log.info("Был обновлен статус брони, id={}", bookingId);
+        Set<Long> itemIds = new HashSet<>();
+        for (Booking booking : bookings) {
+            bookingStatusCounters.move(booking.getBooker().getId(), userId, booking.getStatus(), status);
+            itemIds.add(booking.getItem().getId());
+            eventPublisher.publishEvent(toStatusChangedEvent(booking, userId, status));
+        }
+        itemIds.forEach(itemDetailsCache::evictOwnerView);
+    }
+
+    private static BookingEvent toStatusChangedEvent(Booking booking, Long ownerId, BookingStatus status) {
+        return new BookingEvent(BookingEventType.STATUS_CHANGED, booking.getId(), booking.getItem().getId(),
+                booking.getBooker().getId(), ownerId, status);
+    }
+
+    private static boolean overlapsApprovedInCall(Booking booking,
+                                                  Map<Long, BookingIntervalTree> approvedByItemId) {
+        BookingIntervalTree approvedInCall = approvedByItemId.get(booking.getItem().getId());
+
+        return approvedInCall != null && approvedInCall.overlaps(booking.getStart(), booking.getEnd());
+    }
+
+    /**
+     * @return the reason the booking cannot get the status, or {@code null} if it can
+     */
+    private static RuntimeException checkTransition(Long userId, Long bookingId, Booking booking,
+                                                    BookingStatus status) {
+        if (booking == null) {
+            return new NotFoundException("Бронь с id " + bookingId + " не найдена");
+        }
+
+        Long itemId = booking.getItem().getId();
+        if (!Objects.equals(booking.getItem().getOwner().getId(), userId)) {
+            return new NotFoundException("Пользователь с id " + userId + " не является владельцем вещи с id " + itemId);
+        }
+
+        if (booking.getStatus() == status) {
+            String message = status == APPROVED ? "одобрить" : "отклонить";
+
+            return new BadRequestException("Нельзя повторно " + message + " бронь");
+        }
 
-        return BookingMapper.toBookingDto(updatedBooking);
+        if (booking.getStatus() == CANCELED) {
+            return new BadRequestException("Бронь с id " + bookingId +
+                    " отменена, так как не была подтверждена до начала");
+        }
+
+        return null;
     }
 
     @Transactional(readOnly = true)
@@ -121,13 +296,11 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
-    public List<BookingDto> getAllByBookerId(Long userId,
-                                             BookingState state,
-                                             PaginationConfig paginationConfig) {
-        BooleanExpression byBookerId = qBooking.booker.id.eq(userId);
-
+    public Slice<BookingDto> getAllByBookerId(Long userId,
+                                              BookingState state,
+                                              PaginationConfig paginationConfig) {
         try {
-            List<BookingDto> bookings = getAll(state, byBookerId, paginationConfig);
+            Slice<BookingDto> bookings = getAll(BookingRole.BOOKER, state, userId, paginationConfig);
             log.info("Получен список броней пользователя с id {}", userId);
 
             return bookings;
@@ -138,13 +311,11 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
-    public List<BookingDto> getAllByOwnerId(Long userId,
-                                            BookingState state,
-                                            PaginationConfig paginationConfig) {
-        BooleanExpression byOwnerId = qBooking.item.owner.id.eq(userId);
-
+    public Slice<BookingDto> getAllByOwnerId(Long userId,
+                                             BookingState state,
+                                             PaginationConfig paginationConfig) {
         try {
-            List<BookingDto> bookings = getAll(state, byOwnerId, paginationConfig);
+            Slice<BookingDto> bookings = getAll(BookingRole.OWNER, state, userId, paginationConfig);
             log.info("Получен список броней пользователя с id {}", userId);
 
             return bookings;
@@ -154,59 +325,60 @@ public class BookingServiceImpl implements BookingService {
         }
     }
 
-    private List<BookingDto> getAll(BookingState state,
-                                    BooleanExpression byId,
-                                    PaginationConfig paginationConfig) {
-        LocalDateTime now = LocalDateTime.now();
+    @Transactional(readOnly = true)
+    @Override
+    public BookingSummaryDto getSummaryByBookerId(Long userId) {
+        checkUserExists(userId);
 
-        List<BooleanExpression> expressions = new ArrayList<>();
+        BookingSummaryDto summary = BookingMapper.toBookingSummaryDto(bookingStatusCounters.getByBookerId(userId),
+                bookingRepository.countPeriodsByBookerId(userId, LocalDateTime.now()));
+        log.info("Получена сводка по броням пользователя с id {}", userId);
 
-        expressions.add(byId);
+        return summary;
+    }
 
-        BooleanExpression byStatus;
+    @Transactional(readOnly = true)
+    @Override
+    public BookingSummaryDto getSummaryByOwnerId(Long userId) {
+        checkUserExists(userId);
 
-        switch (state) {
-            case CURRENT:
-                BooleanExpression byStartBeforeOrEquals = qBooking.start.before(now)
-                        .or(qBooking.start.eq(now));
-                BooleanExpression byEndAfter = qBooking.end.after(now);
+        BookingSummaryDto summary = BookingMapper.toBookingSummaryDto(bookingStatusCounters.getByOwnerId(userId),
+                bookingRepository.countPeriodsByOwnerId(userId, LocalDateTime.now()));
+        log.info("Получена сводка по броням вещей пользователя с id {}", userId);
 
-                expressions.add(byStartBeforeOrEquals);
-                expressions.add(byEndAfter);
+        return summary;
+    }
 
-                break;
-            case PAST:
-                BooleanExpression byEndBefore = qBooking.end.before(now);
-                expressions.add(byEndBefore);
-                break;
-            case FUTURE:
-                BooleanExpression byStartAfter = qBooking.start.after(now);
-                expressions.add(byStartAfter);
+    @Override
+    public SseEmitter stream(Long userId) {
+        checkUserExists(userId);
 
-                break;
-            case WAITING:
-                byStatus = qBooking.status.eq(WAITING);
-                expressions.add(byStatus);
+        SseEmitter emitter = bookingEventStream.subscribe(userId);
+        log.info("Пользователь с id {} подписался на события броней", userId);
 
-                break;
-            case REJECTED:
-                byStatus = qBooking.status.eq(REJECTED);
-                expressions.add(byStatus);
+        return emitter;
+    }
 
-                break;
+    private void checkUserExists(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new NotFoundException("Пользователь с id " + userId + " не найден");
         }
+    }
 
-        BooleanExpression finalExpression = expressions.stream().reduce(BooleanExpression::and).get();
-
-        Sort byStartDesc = Sort.by("start").descending();
-        Pageable pageable = paginationConfig.getPageable(byStartDesc);
+    private Slice<BookingDto> getAll(BookingRole role,
+                                    BookingState state,
+                                    Long userId,
+                                    PaginationConfig paginationConfig) {
+        Cursor cursor = paginationConfig.getCursor();
+        Pageable pageable = cursor != null ? paginationConfig.getCursorPageable() : paginationConfig.getPageable();
 
-        List<Booking> bookings = bookingRepository.findAll(finalExpression, pageable).getContent();
+        Slice<Booking> bookings = bookingRepository.findAllWithItemAndBooker(role, state, userId,
+                LocalDateTime.now(), cursor, pageable);
 
-        if (bookings.isEmpty()) {
+        if (!bookings.hasContent()) {
             throw new NotFoundException();
         }
 
-        return BookingMapper.toBookingDto(bookings);
+        return bookings.map(BookingMapper::toBookingDto);
     }
 }
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.booking.summary;
+
+import lombok.Value;
+
+/**
+ * Numbers of current, past and future bookings of a user.
+ */
+@Value
+public class BookingPeriodCounts {
+    Long current;
+
+    Long past;
+
+    Long future;
+}
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.booking.summary;
+
+import lombok.Value;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+/**
+ * Number of bookings with the same booker, item owner and status.
+ */
+@Value
+public class BookingStatusCount {
+    Long bookerId;
+
+    Long ownerId;
+
+    BookingStatus status;
+
+    Long count;
+}
@@ -0,0 +1,188 @@
+package ru.practicum.shareit.booking.summary;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Numbers of bookings per status for every booker and every item owner, so the booking summary
+ * does not have to count rows. Built from the database on startup and then updated by the booking
+ * service; if the surrounding transaction rolls back, the deltas it applied are subtracted again.
+ */
+@Component
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class BookingStatusCounters {
+    private static final BookingStatus[] STATUSES = BookingStatus.values();
+
+    BookingRepository bookingRepository;
+
+    Map<Long, long[]> countsByBookerId = new HashMap<>();
+    Map<Long, long[]> countsByOwnerId = new HashMap<>();
+    ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @PostConstruct
+    public void rebuild() {
+        List<BookingStatusCount> counts = bookingRepository.countAllGroupByBookerIdAndOwnerIdAndStatus();
+
+        lock.writeLock().lock();
+        try {
+            countsByBookerId.clear();
+            countsByOwnerId.clear();
+            counts.forEach(count -> add(count.getBookerId(), count.getOwnerId(), count.getStatus(), count.getCount()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Счетчики броней по статусам построены, групп: {}", counts.size());
+    }
+
+    public Map<BookingStatus, Long> getByBookerId(Long bookerId) {
+        return get(countsByBookerId, bookerId);
+    }
+
+    public Map<BookingStatus, Long> getByOwnerId(Long ownerId) {
+        return get(countsByOwnerId, ownerId);
+    }
+
+    /**
+     * Called when a booking is created.
+     */
+    public void increment(Long bookerId, Long ownerId, BookingStatus status) {
+        lock.writeLock().lock();
+        try {
+            apply(bookerId, ownerId, status, 1);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Called when the status of a booking changes.
+     */
+    public void move(Long bookerId, Long ownerId, BookingStatus from, BookingStatus to) {
+        if (from == to) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            apply(bookerId, ownerId, from, -1);
+            apply(bookerId, ownerId, to, 1);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Must be called before the item is deleted: its bookings are removed by the cascade.
+     */
+    public void decrementAllByItemId(Long itemId) {
+        subtract(bookingRepository.countAllByItemIdGroupByBookerIdAndOwnerIdAndStatus(itemId));
+    }
+
+    /**
+     * Must be called before the user is deleted, together with their bookings and the bookings of their items.
+     * Their counts are zero after that and are dropped; a rollback adds them back with the undone deltas.
+     */
+    public void decrementAllByUserId(Long userId) {
+        subtract(bookingRepository.countAllByUserIdGroupByBookerIdAndOwnerIdAndStatus(userId));
+
+        lock.writeLock().lock();
+        try {
+            countsByBookerId.remove(userId);
+            countsByOwnerId.remove(userId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void subtract(List<BookingStatusCount> counts) {
+        lock.writeLock().lock();
+        try {
+            for (BookingStatusCount count : counts) {
+                apply(count.getBookerId(), count.getOwnerId(), count.getStatus(), -count.getCount());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Map<BookingStatus, Long> get(Map<Long, long[]> countsByUserId, Long userId) {
+        Map<BookingStatus, Long> counts = new EnumMap<>(BookingStatus.class);
+
+        lock.readLock().lock();
+        try {
+            long[] userCounts = countsByUserId.get(userId);
+            for (BookingStatus status : STATUSES) {
+                counts.put(status, userCounts == null ? 0L : userCounts[status.ordinal()]);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return counts;
+    }
+
+    private void add(Long bookerId, Long ownerId, BookingStatus status, long delta) {
+        countsByBookerId.computeIfAbsent(bookerId, key -> new long[STATUSES.length])[status.ordinal()] += delta;
+        countsByOwnerId.computeIfAbsent(ownerId, key -> new long[STATUSES.length])[status.ordinal()] += delta;
+    }
+
+    /**
+     * Adds the delta at once and remembers it, so that a rollback subtracts exactly what this transaction
+     * added and keeps the changes other transactions made to the same users in the meantime.
+     */
+    private void apply(Long bookerId, Long ownerId, BookingStatus status, long delta) {
+        add(bookerId, ownerId, status, delta);
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<BookingStatusCount> deltas = (List<BookingStatusCount>) TransactionSynchronizationManager.getResource(this);
+        if (deltas == null) {
+            List<BookingStatusCount> transactionDeltas = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, transactionDeltas);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(BookingStatusCounters.this);
+                    if (status != STATUS_COMMITTED) {
+                        undo(transactionDeltas);
+                    }
+                }
+            });
+            deltas = transactionDeltas;
+        }
+
+        deltas.add(new BookingStatusCount(bookerId, ownerId, status, delta));
+    }
+
+    private void undo(List<BookingStatusCount> deltas) {
+        lock.writeLock().lock();
+        try {
+            for (BookingStatusCount delta : deltas) {
+                add(delta.getBookerId(), delta.getOwnerId(), delta.getStatus(), -delta.getCount());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package ru.practicum.shareit.common.handler;
 
 import lombok.AllArgsConstructor;
+import org.apache.catalina.connector.ClientAbortException;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
@@ -23,6 +24,14 @@ public class ErrorHandler {
         return new ErrorResponse(e.getMessage());
     }
 
+    /**
+     * The client has closed the connection, e.g. an open {@code /bookings/stream}: there is nobody to send a body to.
+     */
+    @ExceptionHandler(ClientAbortException.class)
+    @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
+    public void handleClientAbortException() {
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ErrorResponse handleServerErrorException(final Throwable e) {
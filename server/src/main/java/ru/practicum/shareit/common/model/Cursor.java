@@ -0,0 +1,66 @@
+package ru.practicum.shareit.common.model;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+import ru.practicum.shareit.common.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position of the last row of a page in the sort order of a list: the sort key (if the list is sorted by time)
+ * and the id that breaks ties. Travels as an opaque token in the {@code after} parameter
+ * and in the {@value #NEXT_CURSOR_HEADER} response header.
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class Cursor {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String SEPARATOR = "|";
+
+    LocalDateTime time;
+
+    Long id;
+
+    public static Cursor of(Long id) {
+        return new Cursor(null, id);
+    }
+
+    public static Cursor of(LocalDateTime time, Long id) {
+        return new Cursor(time, id);
+    }
+
+    public static Cursor decode(String token) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separatorIndex = value.indexOf(SEPARATOR);
+            if (separatorIndex < 0) {
+                throw new BadRequestException("Некорректный курсор: " + token);
+            }
+
+            String time = value.substring(0, separatorIndex);
+            Long id = Long.valueOf(value.substring(separatorIndex + 1));
+
+            return new Cursor(time.isEmpty() ? null : LocalDateTime.parse(time), id);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BadRequestException("Некорректный курсор: " + token);
+        }
+    }
+
+    public LocalDateTime getRequiredTime() {
+        if (time == null) {
+            throw new BadRequestException("Курсор не содержит времени");
+        }
+
+        return time;
+    }
+
+    public String encode() {
+        String value = (time == null ? "" : time.toString()) + SEPARATOR + id;
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
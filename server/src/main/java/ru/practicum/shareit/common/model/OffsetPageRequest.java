@@ -0,0 +1,66 @@
+package ru.practicum.shareit.common.model;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Page that starts at an arbitrary row rather than at a multiple of its size, for {@code from} and {@code size}
+ * parameters: {@code PageRequest.of(from / size, size)} would return rows 0–9 for {@code from=5, size=10}.
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class OffsetPageRequest implements Pageable {
+    long offset;
+
+    int pageSize;
+
+    Sort sort;
+
+    public static OffsetPageRequest of(long offset, int pageSize) {
+        return of(offset, pageSize, Sort.unsorted());
+    }
+
+    public static OffsetPageRequest of(long offset, int pageSize, Sort sort) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("Offset must not be less than zero");
+        }
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must not be less than one");
+        }
+
+        return new OffsetPageRequest(offset, pageSize, sort);
+    }
+
+    @Override
+    public int getPageNumber() {
+        return (int) (offset / pageSize);
+    }
+
+    @Override
+    public Pageable next() {
+        return new OffsetPageRequest(offset + pageSize, pageSize, sort);
+    }
+
+    @Override
+    public Pageable previousOrFirst() {
+        return new OffsetPageRequest(Math.max(0, offset - pageSize), pageSize, sort);
+    }
+
+    @Override
+    public Pageable first() {
+        return new OffsetPageRequest(0, pageSize, sort);
+    }
+
+    @Override
+    public Pageable withPage(int pageNumber) {
+        return new OffsetPageRequest((long) pageNumber * pageSize, pageSize, sort);
+    }
+
+    @Override
+    public boolean hasPrevious() {
+        return offset > 0;
+    }
+}
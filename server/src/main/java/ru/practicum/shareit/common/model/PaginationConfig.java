@@ -1,14 +1,19 @@
 package ru.practicum.shareit.common.model;
 
 import lombok.AccessLevel;
+import lombok.Getter;
 import lombok.Setter;
 import lombok.experimental.FieldDefaults;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.ResponseEntity;
 
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.util.List;
+import java.util.function.Function;
 
 @FieldDefaults(level = AccessLevel.PRIVATE)
 @Setter
@@ -17,8 +22,11 @@ public class PaginationConfig {
     Integer from = 0;
 
     @Positive
+    @Getter
     Integer size = 10;
 
+    String after;
+
     public Pageable getPageable() {
         return PageRequest.of(from / size, size);
     }
@@ -26,4 +34,51 @@ public class PaginationConfig {
     public Pageable getPageable(Sort sort) {
         return PageRequest.of(from / size, size, sort);
     }
+
+    /**
+     * Cursor from the {@code after} parameter; when present, {@code from} is ignored
+     * and the page starts right after the cursor.
+     */
+    public Cursor getCursor() {
+        return after == null ? null : Cursor.decode(after);
+    }
+
+    public Pageable getCursorPageable() {
+        return PageRequest.of(0, size);
+    }
+
+    public Pageable getCursorPageable(Sort sort) {
+        return PageRequest.of(0, size, sort);
+    }
+
+    /**
+     * Wraps a page into a response carrying the cursor of its last row,
+     * unless the page is shorter than requested and so is the last one.
+     */
+    public <T> ResponseEntity<List<T>> toResponse(List<T> page, Function<T, Cursor> cursorMapper) {
+        if (page.size() < size) {
+            return ResponseEntity.ok(page);
+        }
+
+        return withNextCursor(page, cursorMapper);
+    }
+
+    /**
+     * Same for a slice, which knows whether a next page exists: a full last page gets no cursor either.
+     */
+    public <T> ResponseEntity<List<T>> toResponse(Slice<T> slice, Function<T, Cursor> cursorMapper) {
+        if (!slice.hasNext()) {
+            return ResponseEntity.ok(slice.getContent());
+        }
+
+        return withNextCursor(slice.getContent(), cursorMapper);
+    }
+
+    private static <T> ResponseEntity<List<T>> withNextCursor(List<T> page, Function<T, Cursor> cursorMapper) {
+        Cursor next = cursorMapper.apply(page.get(page.size() - 1));
+
+        return ResponseEntity.ok()
+                .header(Cursor.NEXT_CURSOR_HEADER, next.encode())
+                .body(page);
+    }
 }
@@ -3,11 +3,16 @@ package ru.practicum.shareit.item;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.common.model.Cursor;
 import ru.practicum.shareit.common.model.PaginationConfig;
 import ru.practicum.shareit.item.model.dto.*;
 import ru.practicum.shareit.item.service.ItemService;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -23,6 +28,12 @@ public class ItemController {
         return itemService.create(userId, itemRequestIdDto);
     }
 
+    @PostMapping("/batch")
+    public List<ItemRequestIdDto> createAll(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                            @RequestBody List<ItemRequestIdDto> itemRequestIdDtos) {
+        return itemService.createAll(userId, itemRequestIdDtos);
+    }
+
     @PatchMapping("/{itemId}")
     public ItemDto update(@RequestHeader("X-Sharer-User-Id") Long userId,
                           @PathVariable Long itemId,
@@ -32,21 +43,39 @@ public class ItemController {
 
     @GetMapping("/{itemId}")
     public ItemBookingsAndCommentsDto getById(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                              @PathVariable Long itemId) {
-        return itemService.getById(userId, itemId);
+                                              @PathVariable Long itemId,
+                                              @RequestParam(defaultValue = "0") Integer commentsFrom,
+                                              @RequestParam(defaultValue = "10") Integer commentsSize) {
+        return itemService.getById(userId, itemId, commentsFrom, commentsSize);
     }
 
     @GetMapping
-    public List<ItemBookingsDto> getAllByOwnerId(@RequestHeader("X-Sharer-User-Id") Long ownerId,
-                                                 PaginationConfig paginationConfig) {
-        return itemService.getAllByOwnerId(ownerId, paginationConfig);
+    public ResponseEntity<List<ItemBookingsDto>> getAllByOwnerId(@RequestHeader("X-Sharer-User-Id") Long ownerId,
+                                                                 PaginationConfig paginationConfig) {
+        Slice<ItemBookingsDto> items = itemService.getAllByOwnerId(ownerId, paginationConfig);
+
+        return paginationConfig.toResponse(items, item -> Cursor.of(item.getId()));
     }
 
     @GetMapping("/search")
-    public List<ItemDto> getAllByTextQuery(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                           @RequestParam String text,
-                                           PaginationConfig paginationConfig) {
-        return itemService.getAllByTextQuery(userId, text, paginationConfig);
+    public ResponseEntity<List<ItemDto>> getAllByTextQuery(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                           @RequestParam String text,
+                                                           PaginationConfig paginationConfig) {
+        List<ItemDto> items = itemService.getAllByTextQuery(userId, text, paginationConfig);
+        if (!itemService.isTextQueryCursorSupported()) {
+            return ResponseEntity.ok(items);
+        }
+
+        return paginationConfig.toResponse(items, item -> Cursor.of(item.getId()));
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public ItemAvailabilityDto getAvailability(@PathVariable Long itemId,
+                                               @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                               LocalDateTime from,
+                                               @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                               LocalDateTime to) {
+        return itemService.getAvailability(itemId, from, to);
     }
 
     @DeleteMapping("/{itemId}")
@@ -2,7 +2,6 @@ package ru.practicum.shareit.item;
 
 import ru.practicum.shareit.booking.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
-import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.model.dto.*;
@@ -11,7 +10,6 @@ import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class ItemMapper {
     public static ItemDto toItemDto(Item item) {
@@ -34,12 +32,6 @@ public class ItemMapper {
                 .build();
     }
 
-    public static List<ItemRequestIdDto> toItemRequestIdDto(List<Item> items) {
-        return items.stream()
-                .map(ItemMapper::toItemRequestIdDto)
-                .collect(Collectors.toList());
-    }
-
     public static Item toItem(ItemDto itemDto) {
         return Item.builder()
                 .id(itemDto.getId())
@@ -58,34 +50,7 @@ public class ItemMapper {
                 .build();
     }
 
-    public static ItemBookingsDto toItemBookingsDto(Item item, List<Booking> bookingsOfItem) {
-        Booking lastBooking = null;
-        Booking nextBooking = null;
-
-        LocalDateTime now = LocalDateTime.now();
-
-        for (Booking currentBooking : bookingsOfItem) {
-            if (currentBooking.getStatus().equals(BookingStatus.REJECTED)) {
-                continue;
-            }
-
-            LocalDateTime curBookingStart = currentBooking.getStart();
-
-            if (lastBooking == null && curBookingStart.isBefore(now)) {
-                lastBooking = currentBooking;
-            } else if (lastBooking != null && curBookingStart.isBefore(now) &&
-                    curBookingStart.isAfter(lastBooking.getStart())) {
-                lastBooking = currentBooking;
-            }
-
-            if (nextBooking == null && curBookingStart.isAfter(now)) {
-                nextBooking = currentBooking;
-            } else if (nextBooking != null && curBookingStart.isAfter(now) &&
-                    curBookingStart.isBefore(nextBooking.getStart())) {
-                nextBooking = currentBooking;
-            }
-        }
-
+    public static ItemBookingsDto toItemBookingsDto(Item item, Booking lastBooking, Booking nextBooking) {
         return new ItemBookingsDto(
                 item.getId(),
                 item.getName(),
@@ -96,10 +61,23 @@ public class ItemMapper {
         );
     }
 
+    public static ItemBookingsDto toItemBookingsDto(ItemDto itemDto, Booking lastBooking, Booking nextBooking) {
+        return new ItemBookingsDto(
+                itemDto.getId(),
+                itemDto.getName(),
+                itemDto.getDescription(),
+                itemDto.getAvailable(),
+                BookingMapper.toBookingBookerIdDto(lastBooking),
+                BookingMapper.toBookingBookerIdDto(nextBooking)
+        );
+    }
+
     public static ItemBookingsAndCommentsDto toItemBookingsAndCommentsDto(Item item,
-                                                  List<Booking> bookingsOfItem,
-                                                  List<Comment> comments) {
-        ItemBookingsDto itemBookingsDto = toItemBookingsDto(item, bookingsOfItem);
+                                                  Booking lastBooking,
+                                                  Booking nextBooking,
+                                                  List<CommentDto> comments,
+                                                  long commentsCount) {
+        ItemBookingsDto itemBookingsDto = toItemBookingsDto(item, lastBooking, nextBooking);
 
         return new ItemBookingsAndCommentsDto(
                 itemBookingsDto.getId(),
@@ -108,11 +86,14 @@ public class ItemMapper {
                 itemBookingsDto.getAvailable(),
                 itemBookingsDto.getLastBooking(),
                 itemBookingsDto.getNextBooking(),
-                ItemMapper.toCommentDto(comments)
+                comments,
+                commentsCount
         );
     }
 
-    public static ItemBookingsAndCommentsDto toItemBookingsAndCommentsDto(Item item, List<Comment> comments) {
+    public static ItemBookingsAndCommentsDto toItemBookingsAndCommentsDto(Item item,
+                                                                          List<CommentDto> comments,
+                                                                          long commentsCount) {
         return new ItemBookingsAndCommentsDto(
                 item.getId(),
                 item.getName(),
@@ -120,10 +101,25 @@ public class ItemMapper {
                 item.getAvailable(),
                 null,
                 null,
-                ItemMapper.toCommentDto(comments)
+                comments,
+                commentsCount
         );
     }
 
+    public static ItemAvailabilityDto toItemAvailabilityDto(Long itemId,
+                                                            LocalDateTime from,
+                                                            LocalDateTime to,
+                                                            List<PeriodDto> busy,
+                                                            List<PeriodDto> free) {
+        return ItemAvailabilityDto.builder()
+                .itemId(itemId)
+                .from(from)
+                .to(to)
+                .busy(busy)
+                .free(free)
+                .build();
+    }
+
     public static CommentDto toCommentDto(Comment comment) {
         return new CommentDto(
                 comment.getId(),
@@ -133,12 +129,6 @@ public class ItemMapper {
         );
     }
 
-    public static List<CommentDto> toCommentDto(List<Comment> comments) {
-        return comments.stream()
-                .map(ItemMapper::toCommentDto)
-                .collect(Collectors.toList());
-    }
-
     public static Comment toComment(Long userId, CommentTextDto commentTextDto) {
         return Comment.builder()
                 .text(commentTextDto.getText())
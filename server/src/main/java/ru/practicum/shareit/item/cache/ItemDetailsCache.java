@@ -0,0 +1,222 @@
+package ru.practicum.shareit.item.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.model.dto.ItemBookingsAndCommentsDto;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of {@code GET /items/{itemId}}, bounded by size and TTL.
+ * <p>
+ * The owner of an item and everybody else see different views (only the owner gets the last and next bookings),
+ * so each item has up to two entries. The owner view also expires when its next booking starts,
+ * since from that moment the booking becomes the last one. Only the default first page of comments is cached;
+ * other pages are always loaded.
+ * <p>
+ * Evictions requested inside a transaction are applied after it commits. A view loaded concurrently with
+ * an eviction of its item is not cached: every eviction bumps the generation of the item, and a view is
+ * only stored if the generation did not change while it was loaded.
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ItemDetailsCache {
+    private static final String CACHE_NAME = "items";
+    private static final int GENERATION_STRIPES = 1024;
+    private static final int CACHED_COMMENTS_SIZE = 10;
+
+    Cache<Key, View> cache;
+    AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    Counter hits;
+    Counter misses;
+    Counter evictions;
+
+    @Autowired
+    public ItemDetailsCache(@Value("${shareit.cache.items.maximum-size}") long maximumSize,
+                            @Value("${shareit.cache.items.ttl}") Duration ttl,
+                            MeterRegistry meterRegistry) {
+        hits = Counter.builder("cache.gets")
+                .tag("cache", CACHE_NAME)
+                .tag("result", "hit")
+                .register(meterRegistry);
+        misses = Counter.builder("cache.gets")
+                .tag("cache", CACHE_NAME)
+                .tag("result", "miss")
+                .register(meterRegistry);
+        evictions = Counter.builder("cache.evictions")
+                .tag("cache", CACHE_NAME)
+                .register(meterRegistry);
+
+        cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new ViewExpiry(ttl))
+                .removalListener((Key key, View view, RemovalCause cause) -> {
+                    if (cause.wasEvicted()) {
+                        evictions.increment();
+                    }
+                })
+                .build();
+
+        Gauge.builder("cache.size", cache, Cache::estimatedSize)
+                .tag("cache", CACHE_NAME)
+                .register(meterRegistry);
+    }
+
+    public ItemBookingsAndCommentsDto get(Long userId, Long itemId, int commentsFrom, int commentsSize,
+                                          Supplier<View> loader) {
+        if (commentsFrom != 0 || commentsSize != CACHED_COMMENTS_SIZE) {
+            return loader.get().getItem();
+        }
+
+        View cached = find(userId, itemId);
+        if (cached != null) {
+            hits.increment();
+            return cached.getItem();
+        }
+
+        misses.increment();
+        int stripe = stripe(itemId);
+        long generation = generations.get(stripe);
+
+        View loaded = loader.get();
+        Key key = new Key(itemId, Objects.equals(loaded.getOwnerId(), userId));
+        if (generations.get(stripe) == generation) {
+            cache.put(key, loaded);
+            if (generations.get(stripe) != generation) {
+                cache.invalidate(key);
+            }
+        }
+
+        return loaded.getItem();
+    }
+
+    /**
+     * Evicts both views of the item: its fields or comments have changed.
+     */
+    public void evict(Long itemId) {
+        afterCommit(() -> {
+            generations.incrementAndGet(stripe(itemId));
+            cache.invalidate(new Key(itemId, true));
+            cache.invalidate(new Key(itemId, false));
+        });
+    }
+
+    /**
+     * Evicts the owner view of the item: its bookings have changed.
+     */
+    public void evictOwnerView(Long itemId) {
+        afterCommit(() -> {
+            generations.incrementAndGet(stripe(itemId));
+            cache.invalidate(new Key(itemId, true));
+        });
+    }
+
+    /**
+     * Evicts all views, e.g. when a user is renamed and their name is shown in comments.
+     */
+    public void evictAll() {
+        afterCommit(() -> {
+            for (int i = 0; i < GENERATION_STRIPES; i++) {
+                generations.incrementAndGet(i);
+            }
+            cache.invalidateAll();
+        });
+    }
+
+    private View find(Long userId, Long itemId) {
+        View shared = cache.getIfPresent(new Key(itemId, false));
+        if (shared != null && !Objects.equals(shared.getOwnerId(), userId)) {
+            return shared;
+        }
+
+        View owner = cache.getIfPresent(new Key(itemId, true));
+        if (owner != null && Objects.equals(owner.getOwnerId(), userId)) {
+            return owner;
+        }
+
+        return null;
+    }
+
+    private static void afterCommit(Runnable eviction) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            eviction.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                eviction.run();
+            }
+        });
+    }
+
+    private static int stripe(Long itemId) {
+        return (int) Math.floorMod(itemId, (long) GENERATION_STRIPES);
+    }
+
+    @lombok.Value
+    public static class View {
+        Long ownerId;
+
+        ItemBookingsAndCommentsDto item;
+
+        /**
+         * Moment after which the view is outdated regardless of changes, or {@code null}.
+         */
+        LocalDateTime validUntil;
+    }
+
+    @lombok.Value
+    static class Key {
+        Long itemId;
+
+        boolean ownerView;
+    }
+
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    private static class ViewExpiry implements Expiry<Key, View> {
+        Duration ttl;
+
+        ViewExpiry(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        @Override
+        public long expireAfterCreate(Key key, View view, long currentTime) {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime validUntil = view.getValidUntil();
+            if (validUntil == null || validUntil.isAfter(now.plus(ttl))) {
+                return ttl.toNanos();
+            }
+
+            return Math.max(0, Duration.between(now, validUntil).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(Key key, View view, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, view, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Key key, View view, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package ru.practicum.shareit.item.comment;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import javax.annotation.PostConstruct;
+import java.util.List;
+
+/**
+ * Rules out comments from users who have never booked the item without asking the database.
+ * <p>
+ * Holds a {@link PairBloomFilter} of the (item, booker) pairs of all approved and waiting bookings, built
+ * on startup and extended whenever a booking is created. Pairs are added when the booking is created
+ * rather than when it ends, and are never removed, so the filter may answer "maybe" for a booking that
+ * has not ended yet or was rejected later; such answers are settled by the database. It never answers
+ * "no" for a user who may comment.
+ * <p>
+ * The filter assumes a single server node: it only learns about bookings created in this process, so with several
+ * nodes a user who booked through another one would be ruled out. Such deployments must turn it off with
+ * {@code shareit.comments.eligibility.enabled=false}, and every comment is then checked by the database.
+ * <p>
+ * Metrics: {@code comments.eligibility.filter.size} (bytes), {@code comments.eligibility.filter.fpp}
+ * (estimated false-positive rate) and {@code comments.eligibility.checks} tagged with the outcome:
+ * rejected by the filter, confirmed or rejected by the database.
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Slf4j
+public class CommentEligibilityFilter {
+    final BookingRepository bookingRepository;
+    final boolean enabled;
+    final long expectedPairs;
+    final double falsePositiveRate;
+    final Counter filtered;
+    final Counter confirmed;
+    final Counter falsePositives;
+
+    volatile PairBloomFilter filter;
+
+    @Autowired
+    public CommentEligibilityFilter(BookingRepository bookingRepository,
+                                    @Value("${shareit.comments.eligibility.enabled}") boolean enabled,
+                                    @Value("${shareit.comments.eligibility.expected-pairs}") long expectedPairs,
+                                    @Value("${shareit.comments.eligibility.false-positive-rate}")
+                                    double falsePositiveRate,
+                                    MeterRegistry meterRegistry) {
+        this.bookingRepository = bookingRepository;
+        this.enabled = enabled;
+        this.expectedPairs = expectedPairs;
+        this.falsePositiveRate = falsePositiveRate;
+        filter = new PairBloomFilter(expectedPairs, falsePositiveRate);
+
+        filtered = checks(meterRegistry, "filtered");
+        confirmed = checks(meterRegistry, "confirmed");
+        falsePositives = checks(meterRegistry, "false-positive");
+        Gauge.builder("comments.eligibility.filter.size", this, eligibility -> eligibility.filter.sizeInBytes())
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("comments.eligibility.filter.fpp", this, eligibility -> eligibility.filter.falsePositiveRate())
+                .register(meterRegistry);
+    }
+
+    /**
+     * Sized for at least twice the pairs found, so the filter keeps its rate while new bookings arrive.
+     */
+    @PostConstruct
+    public void rebuild() {
+        if (!enabled) {
+            log.info("Фильтр авторов отзывов отключен");
+            return;
+        }
+
+        List<ItemBookerPair> pairs = bookingRepository.findAllAcceptedItemBookerPairs();
+
+        PairBloomFilter rebuilt = new PairBloomFilter(Math.max(expectedPairs, 2L * pairs.size()), falsePositiveRate);
+        pairs.forEach(pair -> rebuilt.add(pair.getItemId(), pair.getBookerId()));
+        filter = rebuilt;
+        log.info("Фильтр авторов отзывов построен, пар: {}, размер: {} байт", pairs.size(), rebuilt.sizeInBytes());
+    }
+
+    public void add(Long itemId, Long bookerId) {
+        if (enabled) {
+            filter.add(itemId, bookerId);
+        }
+    }
+
+    /**
+     * @return {@code false} if the user has certainly never booked the item
+     */
+    public boolean mightHaveBooked(Long itemId, Long bookerId) {
+        boolean mightHaveBooked = !enabled || filter.mightContain(itemId, bookerId);
+        if (!mightHaveBooked) {
+            filtered.increment();
+        }
+
+        return mightHaveBooked;
+    }
+
+    /**
+     * Records the answer of the database for a pair the filter let through.
+     */
+    public void recordChecked(boolean hasBooked) {
+        (hasBooked ? confirmed : falsePositives).increment();
+    }
+
+    private static Counter checks(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("comments.eligibility.checks")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,10 @@
+package ru.practicum.shareit.item.comment;
+
+import lombok.Value;
+
+@Value
+public class ItemBookerPair {
+    Long itemId;
+
+    Long bookerId;
+}
@@ -0,0 +1,81 @@
+package ru.practicum.shareit.item.comment;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter of pairs of ids over a fixed bit array, sized for the expected number of pairs and
+ * false-positive rate. Pairs can only be added; {@link #mightContain} never returns {@code false}
+ * for an added pair. Safe for concurrent use.
+ */
+class PairBloomFilter {
+    private final AtomicLongArray words;
+    private final long bits;
+    private final int hashes;
+    private final AtomicLong pairs = new AtomicLong();
+
+    PairBloomFilter(long expectedPairs, double falsePositiveRate) {
+        long optimalBits = (long) Math.ceil(-expectedPairs * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        words = new AtomicLongArray((int) Math.max(1, (optimalBits + 63) / 64));
+        bits = words.length() * 64L;
+        hashes = (int) Math.max(1, Math.round((double) bits / expectedPairs * Math.log(2)));
+    }
+
+    void add(long first, long second) {
+        long hash = hash(first, second);
+        boolean changed = false;
+        for (int i = 0; i < hashes; i++) {
+            long bit = bit(hash, i);
+            long mask = 1L << bit;
+            long previous = words.getAndAccumulate((int) (bit >>> 6), mask, (word, value) -> word | value);
+            changed |= (previous & mask) == 0;
+        }
+
+        if (changed) {
+            pairs.incrementAndGet();
+        }
+    }
+
+    boolean mightContain(long first, long second) {
+        long hash = hash(first, second);
+        for (int i = 0; i < hashes; i++) {
+            long bit = bit(hash, i);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Estimated from the number of distinct pairs added so far; grows above the configured rate
+     * once more pairs than expected are added.
+     */
+    double falsePositiveRate() {
+        return Math.pow(1 - Math.exp(-hashes * (double) pairs.get() / bits), hashes);
+    }
+
+    long sizeInBytes() {
+        return words.length() * 8L;
+    }
+
+    long pairs() {
+        return pairs.get();
+    }
+
+    private long bit(long hash, int i) {
+        int low = (int) hash;
+        int high = (int) (hash >>> 32);
+
+        return Math.floorMod(low + (long) i * high, bits);
+    }
+
+    private static long hash(long first, long second) {
+        long hash = first * 0x9E3779B97F4A7C15L ^ second;
+        hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+
+        return hash ^ (hash >>> 31);
+    }
+}
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.item.model.dto;
+
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Data
+@Builder
+public class ItemAvailabilityDto {
+    Long itemId;
+
+    LocalDateTime from;
+
+    LocalDateTime to;
+
+    List<PeriodDto> busy;
+
+    List<PeriodDto> free;
+}
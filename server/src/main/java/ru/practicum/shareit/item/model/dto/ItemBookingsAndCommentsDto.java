@@ -27,4 +27,6 @@ public class ItemBookingsAndCommentsDto {
     BookingBookerIdDto nextBooking;
 
     List<CommentDto> comments;
+
+    Long commentsCount;
 }
\ No newline at end of file
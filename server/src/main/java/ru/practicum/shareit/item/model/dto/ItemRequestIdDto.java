@@ -1,6 +1,7 @@
 package ru.practicum.shareit.item.model.dto;
 
 import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.experimental.FieldDefaults;
@@ -8,6 +9,7 @@ import lombok.experimental.FieldDefaults;
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 @Data
 @Builder
+@AllArgsConstructor
 public class ItemRequestIdDto {
     Long id;
 
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.item.model.dto;
+
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Data
+public class PeriodDto {
+    LocalDateTime start;
+
+    LocalDateTime end;
+}
@@ -1,11 +1,21 @@
 package ru.practicum.shareit.item.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
 import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.dto.CommentDto;
 
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long>, QuerydslPredicateExecutor<Comment> {
-    List<Comment> findAllByItemId(Long itemId);
+    @Query("SELECT new ru.practicum.shareit.item.model.dto.CommentDto(c.id, c.text, a.name, c.created) " +
+            "FROM Comment AS c " +
+            "JOIN c.author AS a " +
+            "WHERE c.item.id = ?1 " +
+            "ORDER BY c.id")
+    List<CommentDto> findAllDtoByItemId(Long itemId, Pageable pageable);
+
+    long countByItemId(Long itemId);
 }
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.item.repository;
+
+import com.querydsl.core.types.Predicate;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.model.dto.ItemDto;
+
+import java.util.List;
+
+/**
+ * QueryDSL queries that select straight into DTOs, so read-only listings do not load
+ * managed entities into the persistence context.
+ */
+public interface ItemProjectionRepository {
+    List<ItemDto> findAllDto(Predicate predicate, Pageable pageable);
+}
@@ -0,0 +1,38 @@
+package ru.practicum.shareit.item.repository;
+
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.Projections;
+import com.querydsl.core.types.dsl.PathBuilder;
+import com.querydsl.jpa.impl.JPAQuery;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.support.Querydsl;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.QItem;
+import ru.practicum.shareit.item.model.dto.ItemDto;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ItemProjectionRepositoryImpl implements ItemProjectionRepository {
+    EntityManager entityManager;
+    Querydsl querydsl;
+
+    public ItemProjectionRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+        this.querydsl = new Querydsl(entityManager, new PathBuilder<>(Item.class, QItem.item.getMetadata()));
+    }
+
+    @Override
+    public List<ItemDto> findAllDto(Predicate predicate, Pageable pageable) {
+        QItem item = QItem.item;
+        JPAQuery<ItemDto> query = new JPAQuery<Item>(entityManager)
+                .select(Projections.constructor(ItemDto.class, item.id, item.name, item.description, item.available))
+                .from(item)
+                .where(predicate);
+
+        return querydsl.applyPagination(pageable, query).fetch();
+    }
+}
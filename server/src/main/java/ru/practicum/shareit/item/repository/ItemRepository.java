@@ -1,24 +1,68 @@
 package ru.practicum.shareit.item.repository;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.dto.ItemDto;
+import ru.practicum.shareit.item.model.dto.ItemRequestIdDto;
 
+import javax.persistence.LockModeType;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface ItemRepository extends JpaRepository<Item, Long>, QuerydslPredicateExecutor<Item> {
+public interface ItemRepository extends JpaRepository<Item, Long>, QuerydslPredicateExecutor<Item>,
+        ItemProjectionRepository {
     @Query("SELECT i " +
             "FROM Item AS i " +
             "JOIN FETCH i.owner " +
             "WHERE i.id = ?1 ")
     Optional<Item> findByIdWithOwner(Long id);
 
-    Page<Item> findAllByOwnerIdOrderByIdAsc(Long ownerId, Pageable pageable);
+    /**
+     * Locks the row of the item, without its owner, so that booking writes for the item are serialized
+     * across nodes until the transaction ends.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Item> findForUpdateById(Long id);
 
-    List<Item> findAllByRequestId(Long requestId);
-}
+    @Query("SELECT new ru.practicum.shareit.item.model.dto.ItemDto(i.id, i.name, i.description, i.available) " +
+            "FROM Item AS i " +
+            "WHERE i.owner.id = ?1 " +
+            "ORDER BY i.id")
+    Slice<ItemDto> findAllDtoByOwnerId(Long ownerId, Pageable pageable);
+
+    @Query("SELECT new ru.practicum.shareit.item.model.dto.ItemDto(i.id, i.name, i.description, i.available) " +
+            "FROM Item AS i " +
+            "WHERE i.owner.id = ?1 AND " +
+            "i.id > ?2 " +
+            "ORDER BY i.id")
+    Slice<ItemDto> findAllDtoByOwnerIdAfter(Long ownerId, Long id, Pageable pageable);
+
+    @Query("SELECT new ru.practicum.shareit.item.model.dto.ItemRequestIdDto(" +
+            "i.id, i.name, i.description, i.available, i.request.id) " +
+            "FROM Item AS i " +
+            "WHERE i.request.id = ?1 " +
+            "ORDER BY i.id")
+    List<ItemRequestIdDto> findAllDtoByRequestId(Long requestId);
+
+    @Query("SELECT new ru.practicum.shareit.item.model.dto.ItemRequestIdDto(" +
+            "i.id, i.name, i.description, i.available, i.request.id) " +
+            "FROM Item AS i " +
+            "WHERE i.request.id IN ?1 " +
+            "ORDER BY i.id")
+    List<ItemRequestIdDto> findAllDtoByRequestIdIn(Collection<Long> requestIds);
 
+    List<Item> findAllByAvailableTrue();
+
+    /**
+     * Declared as a named native query on {@link Item}: native results can only be mapped to a DTO
+     * through {@link javax.persistence.ConstructorResult}. The page is passed as offset and limit: a named
+     * query would ignore the sort of a {@link Pageable} and warn about it on every start.
+     */
+    List<ItemDto> findAllAvailableDtoByFullTextQuery(String text, long offset, int limit);
+}
@@ -0,0 +1,30 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.dto.ItemDto;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.List;
+
+/**
+ * PostgreSQL full-text search over the {@code items.search_vector} column (see {@code schema-postgres.sql}).
+ * Matches whole words after stemming rather than substrings and orders results by {@code ts_rank}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "shareit.search", name = "backend", havingValue = "full-text")
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class FullTextItemSearchBackend implements ItemSearchBackend {
+    ItemRepository itemRepository;
+
+    @Override
+    public List<ItemDto> search(String text, Pageable pageable) {
+        return itemRepository.findAllAvailableDtoByFullTextQuery(text, pageable.getOffset(),
+                pageable.getPageSize());
+    }
+}
@@ -0,0 +1,42 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.common.exception.BadRequestException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.dto.ItemDto;
+
+import java.util.List;
+
+/**
+ * Backend of {@code /items/search}, selected with the {@code shareit.search.backend} property.
+ * <p>
+ * Backends that keep their own copy of the catalog are notified about item changes;
+ * database-backed ones ignore the notifications.
+ */
+public interface ItemSearchBackend {
+    List<ItemDto> search(String text, Pageable pageable);
+
+    /**
+     * Returns up to {@code limit} matches with ids greater than {@code afterId}, in id order.
+     * Backends that order results by anything else do not support cursors.
+     */
+    default List<ItemDto> searchAfter(String text, Long afterId, int limit) {
+        throw new BadRequestException("Поиск предметов не поддерживает курсор, используйте from и size");
+    }
+
+    /**
+     * Whether {@link #searchAfter} is supported, i.e. a page can be continued from the id of its last item.
+     */
+    default boolean supportsCursor() {
+        return false;
+    }
+
+    default void index(Item item) {
+    }
+
+    default void delete(Long itemId) {
+    }
+
+    default void deleteAllByOwnerId(Long ownerId) {
+    }
+}
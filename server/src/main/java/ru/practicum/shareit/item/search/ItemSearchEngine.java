@@ -0,0 +1,298 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.dto.ItemDto;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import javax.annotation.PostConstruct;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Default backend of {@code /items/search}: a trigram inverted index over available items.
+ * <p>
+ * Matches the same items as a case-insensitive {@code LIKE '%text%'} over name and description:
+ * the rarest trigram of the query picks the candidates, which are then checked with
+ * {@link String#contains}. Queries shorter than a trigram scan the available items in memory.
+ * Results are ordered by item id, so a cursor seeks straight into the postings.
+ * <p>
+ * Changes are applied as soon as the service makes them; if the surrounding transaction
+ * rolls back, the previous state of the touched items is restored.
+ */
+@Component
+@ConditionalOnProperty(prefix = "shareit.search", name = "backend", havingValue = "index", matchIfMissing = true)
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class ItemSearchEngine implements ItemSearchBackend {
+    private static final int GRAM_LENGTH = 3;
+
+    ItemRepository itemRepository;
+
+    Map<Long, IndexedItem> itemsById = new HashMap<>();
+    Map<String, NavigableSet<Long>> itemIdsByGram = new HashMap<>();
+    NavigableSet<Long> itemIds = new TreeSet<>();
+    ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @PostConstruct
+    public void rebuild() {
+        List<Item> items = itemRepository.findAllByAvailableTrue();
+
+        lock.writeLock().lock();
+        try {
+            itemsById.clear();
+            itemIdsByGram.clear();
+            itemIds.clear();
+            items.stream()
+                    .map(ItemSearchEngine::toIndexedItem)
+                    .forEach(this::put);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Поисковый индекс предметов построен, предметов: {}", items.size());
+    }
+
+    @Override
+    public void index(Item item) {
+        lock.writeLock().lock();
+        try {
+            IndexedItem previous = remove(item.getId());
+            if (Boolean.TRUE.equals(item.getAvailable())) {
+                put(toIndexedItem(item));
+            }
+            restoreOnRollback(item.getId(), previous);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void delete(Long itemId) {
+        lock.writeLock().lock();
+        try {
+            restoreOnRollback(itemId, remove(itemId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void deleteAllByOwnerId(Long ownerId) {
+        lock.writeLock().lock();
+        try {
+            List<Long> ownerItemIds = itemsById.values().stream()
+                    .filter(item -> Objects.equals(item.getOwnerId(), ownerId))
+                    .map(IndexedItem::getId)
+                    .collect(Collectors.toList());
+
+            for (Long itemId : ownerItemIds) {
+                restoreOnRollback(itemId, remove(itemId));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<ItemDto> search(String text, Pageable pageable) {
+        String query = text.toLowerCase(Locale.ROOT);
+
+        lock.readLock().lock();
+        try {
+            return collect(getCandidates(query), query, pageable.getOffset(), pageable.getPageSize());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<ItemDto> searchAfter(String text, Long afterId, int limit) {
+        String query = text.toLowerCase(Locale.ROOT);
+
+        lock.readLock().lock();
+        try {
+            return collect(getCandidates(query).tailSet(afterId, false), query, 0, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean supportsCursor() {
+        return true;
+    }
+
+    private List<ItemDto> collect(Iterable<Long> candidates, String query, long offset, int limit) {
+        List<ItemDto> found = new ArrayList<>();
+        long skipped = 0;
+        for (Long itemId : candidates) {
+            IndexedItem item = itemsById.get(itemId);
+            if (!item.matches(query)) {
+                continue;
+            }
+            if (skipped++ < offset) {
+                continue;
+            }
+
+            found.add(item.toItemDto());
+            if (found.size() == limit) {
+                break;
+            }
+        }
+
+        return found;
+    }
+
+    private NavigableSet<Long> getCandidates(String query) {
+        if (query.length() < GRAM_LENGTH) {
+            return itemIds;
+        }
+
+        NavigableSet<Long> candidates = null;
+        for (String gram : toGrams(query)) {
+            NavigableSet<Long> postings = itemIdsByGram.get(gram);
+            if (postings == null) {
+                return Collections.emptyNavigableSet();
+            }
+            if (candidates == null || postings.size() < candidates.size()) {
+                candidates = postings;
+            }
+        }
+
+        return candidates;
+    }
+
+    private void put(IndexedItem indexedItem) {
+        itemsById.put(indexedItem.getId(), indexedItem);
+        itemIds.add(indexedItem.getId());
+        for (String gram : indexedItem.toGrams()) {
+            itemIdsByGram.computeIfAbsent(gram, key -> new TreeSet<>()).add(indexedItem.getId());
+        }
+    }
+
+    private IndexedItem remove(Long itemId) {
+        IndexedItem indexedItem = itemsById.remove(itemId);
+        if (indexedItem == null) {
+            return null;
+        }
+
+        itemIds.remove(itemId);
+        for (String gram : indexedItem.toGrams()) {
+            NavigableSet<Long> postings = itemIdsByGram.get(gram);
+            postings.remove(itemId);
+            if (postings.isEmpty()) {
+                itemIdsByGram.remove(gram);
+            }
+        }
+
+        return indexedItem;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void restoreOnRollback(Long itemId, IndexedItem previous) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        Map<Long, IndexedItem> snapshots = (Map<Long, IndexedItem>) TransactionSynchronizationManager.getResource(this);
+        if (snapshots == null) {
+            Map<Long, IndexedItem> transactionSnapshots = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(this, transactionSnapshots);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ItemSearchEngine.this);
+                    if (status != STATUS_COMMITTED) {
+                        restore(transactionSnapshots);
+                    }
+                }
+            });
+            snapshots = transactionSnapshots;
+        }
+
+        if (!snapshots.containsKey(itemId)) {
+            snapshots.put(itemId, previous);
+        }
+    }
+
+    private void restore(Map<Long, IndexedItem> snapshots) {
+        lock.writeLock().lock();
+        try {
+            snapshots.forEach((itemId, previous) -> {
+                remove(itemId);
+                if (previous != null) {
+                    put(previous);
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static IndexedItem toIndexedItem(Item item) {
+        return new IndexedItem(
+                item.getId(),
+                item.getName(),
+                item.getDescription(),
+                item.getName().toLowerCase(Locale.ROOT),
+                item.getDescription().toLowerCase(Locale.ROOT),
+                item.getOwner() == null ? null : item.getOwner().getId()
+        );
+    }
+
+    private static Set<String> toGrams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM_LENGTH));
+        }
+
+        return grams;
+    }
+
+    @Value
+    static class IndexedItem {
+        Long id;
+
+        String name;
+
+        String description;
+
+        String lowerCaseName;
+
+        String lowerCaseDescription;
+
+        Long ownerId;
+
+        boolean matches(String query) {
+            return lowerCaseName.contains(query) || lowerCaseDescription.contains(query);
+        }
+
+        Set<String> toGrams() {
+            Set<String> grams = ItemSearchEngine.toGrams(lowerCaseName);
+            grams.addAll(ItemSearchEngine.toGrams(lowerCaseDescription));
+
+            return grams;
+        }
+
+        ItemDto toItemDto() {
+            return ItemDto.builder()
+                    .id(id)
+                    .name(name)
+                    .description(description)
+                    .available(true)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package ru.practicum.shareit.item.search;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.QItem;
+import ru.practicum.shareit.item.model.dto.ItemDto;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.List;
+
+/**
+ * Case-insensitive {@code LIKE '%text%'} over name and description, in id order. Works on any database.
+ */
+@Component
+@ConditionalOnProperty(prefix = "shareit.search", name = "backend", havingValue = "query-dsl")
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class QueryDslItemSearchBackend implements ItemSearchBackend {
+    private static final Sort BY_ID = Sort.by("id");
+
+    ItemRepository itemRepository;
+
+    @Override
+    public List<ItemDto> search(String text, Pageable pageable) {
+        Pageable pageableById = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), BY_ID);
+
+        return search(byAvailableAndContainingText(text), pageableById);
+    }
+
+    @Override
+    public List<ItemDto> searchAfter(String text, Long afterId, int limit) {
+        BooleanExpression byIdAfter = QItem.item.id.gt(afterId);
+        Pageable pageable = PageRequest.of(0, limit, BY_ID);
+
+        return search(byAvailableAndContainingText(text).and(byIdAfter), pageable);
+    }
+
+    @Override
+    public boolean supportsCursor() {
+        return true;
+    }
+
+    private List<ItemDto> search(BooleanExpression predicate, Pageable pageable) {
+        return itemRepository.findAllDto(predicate, pageable);
+    }
+
+    private static BooleanExpression byAvailableAndContainingText(String text) {
+        BooleanExpression byAvailableTrue = QItem.item.available.isTrue();
+        BooleanExpression byNameOrDescriptionContainingText = QItem.item.name.containsIgnoreCase(text)
+                .or(QItem.item.description.containsIgnoreCase(text));
+
+        return byAvailableTrue.and(byNameOrDescriptionContainingText);
+    }
+}
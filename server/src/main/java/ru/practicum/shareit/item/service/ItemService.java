@@ -1,21 +1,29 @@
 package ru.practicum.shareit.item.service;
 
+import org.springframework.data.domain.Slice;
 import ru.practicum.shareit.common.model.PaginationConfig;
 import ru.practicum.shareit.item.model.dto.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemService {
     ItemRequestIdDto create(Long userId, ItemRequestIdDto itemRequestIdDto);
 
+    List<ItemRequestIdDto> createAll(Long userId, List<ItemRequestIdDto> itemRequestIdDtos);
+
     ItemDto update(Long userId, Long itemId, ItemDto itemDto);
 
-    ItemBookingsAndCommentsDto getById(Long userId, Long itemId);
+    ItemBookingsAndCommentsDto getById(Long userId, Long itemId, Integer commentsFrom, Integer commentsSize);
 
-    List<ItemBookingsDto> getAllByOwnerId(Long ownerId, PaginationConfig paginationConfig);
+    Slice<ItemBookingsDto> getAllByOwnerId(Long ownerId, PaginationConfig paginationConfig);
 
     List<ItemDto> getAllByTextQuery(Long userId, String text, PaginationConfig paginationConfig);
 
+    boolean isTextQueryCursorSupported();
+
+    ItemAvailabilityDto getAvailability(Long itemId, LocalDateTime from, LocalDateTime to);
+
     void delete(Long userId, Long itemId);
 
     CommentDto createComment(Long userId, Long itemId, CommentTextDto commentTextDto);
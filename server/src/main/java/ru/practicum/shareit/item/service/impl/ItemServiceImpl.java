@@ -1,35 +1,53 @@
 package ru.practicum.shareit.item.service.impl;
 
-import com.querydsl.core.types.dsl.BooleanExpression;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.conflict.BookingConflictDetector;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.summary.BookingStatusCounters;
 import ru.practicum.shareit.common.exception.BadRequestException;
 import ru.practicum.shareit.common.exception.NotFoundException;
+import ru.practicum.shareit.common.model.Cursor;
+import ru.practicum.shareit.common.model.OffsetPageRequest;
 import ru.practicum.shareit.common.model.PaginationConfig;
 import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.cache.ItemDetailsCache;
+import ru.practicum.shareit.item.comment.CommentEligibilityFilter;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.item.model.QItem;
 import ru.practicum.shareit.item.model.dto.*;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchBackend;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.request.feed.RequestFeed;
+import ru.practicum.shareit.request.match.RequestMatch;
+import ru.practicum.shareit.request.match.RequestMatchEngine;
 import ru.practicum.shareit.request.model.Request;
+import ru.practicum.shareit.request.model.Suggestion;
 import ru.practicum.shareit.request.repository.RequestRepository;
+import ru.practicum.shareit.request.repository.SuggestionRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @RequiredArgsConstructor
@@ -37,11 +55,21 @@ import java.util.stream.Collectors;
 @Slf4j
 @Service
 public class ItemServiceImpl implements ItemService {
+    private static final List<BookingStatus> ACCEPTED_STATUSES = List.of(BookingStatus.APPROVED, BookingStatus.WAITING);
+
     ItemRepository itemRepository;
     UserRepository userRepository;
     BookingRepository bookingRepository;
     CommentRepository commentRepository;
     RequestRepository requestRepository;
+    ItemSearchBackend itemSearchBackend;
+    ItemDetailsCache itemDetailsCache;
+    BookingConflictDetector bookingConflictDetector;
+    BookingStatusCounters bookingStatusCounters;
+    CommentEligibilityFilter commentEligibilityFilter;
+    RequestFeed requestFeed;
+    RequestMatchEngine requestMatchEngine;
+    SuggestionRepository suggestionRepository;
 
     @Transactional
     @Override
@@ -61,11 +89,62 @@ public class ItemServiceImpl implements ItemService {
         item.setRequest(request);
 
         Item createdItem = itemRepository.save(item);
+        itemSearchBackend.index(createdItem);
+        requestFeed.put(createdItem);
+        matchRequests(createdItem);
         log.info("Был добавлен новый предмет, id={}", createdItem.getId());
 
         return ItemMapper.toItemRequestIdDto(createdItem);
     }
 
+    /**
+     * Checks the owner and resolves all referenced requests with one query each; the items get their ids
+     * from the sequence pool and are inserted in JDBC batches when the transaction is flushed.
+     */
+    @Transactional
+    @Override
+    public List<ItemRequestIdDto> createAll(Long userId, List<ItemRequestIdDto> itemRequestIdDtos) {
+        if (!userRepository.existsById(userId)) {
+            throw new NotFoundException("Пользователь с id " + userId + " не найден");
+        }
+        User owner = userRepository.getReferenceById(userId);
+
+        Set<Long> requestIds = itemRequestIdDtos.stream()
+                .map(ItemRequestIdDto::getRequestId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, Request> requestsById = requestIds.isEmpty()
+                ? Collections.emptyMap()
+                : requestRepository.findAllById(requestIds).stream()
+                        .collect(Collectors.toMap(Request::getId, Function.identity()));
+        for (Long requestId : requestIds) {
+            if (!requestsById.containsKey(requestId)) {
+                throw new NotFoundException("Запрос на предмет с id " + requestId + " не найден");
+            }
+        }
+
+        List<Item> items = new ArrayList<>();
+        for (ItemRequestIdDto itemRequestIdDto : itemRequestIdDtos) {
+            Item item = ItemMapper.toItem(itemRequestIdDto);
+            item.setId(null);
+            item.setOwner(owner);
+            item.setRequest(itemRequestIdDto.getRequestId() == null
+                    ? null
+                    : requestsById.get(itemRequestIdDto.getRequestId()));
+            items.add(item);
+        }
+
+        List<Item> createdItems = itemRepository.saveAll(items);
+        createdItems.forEach(itemSearchBackend::index);
+        createdItems.forEach(requestFeed::put);
+        createdItems.forEach(this::matchRequests);
+        log.info("Пользователь с id {} добавил {} новых предметов", userId, createdItems.size());
+
+        return createdItems.stream()
+                .map(ItemMapper::toItemRequestIdDto)
+                .collect(Collectors.toList());
+    }
+
     @Transactional
     @Override
     public ItemDto update(Long userId, Long itemId, ItemDto itemDto) {
@@ -96,6 +175,11 @@ public class ItemServiceImpl implements ItemService {
         }
 
         Item updatedItem = itemRepository.save(item);
+        itemSearchBackend.index(updatedItem);
+        requestFeed.put(updatedItem);
+        suggestionRepository.deleteAllByItemId(itemId);
+        matchRequests(updatedItem);
+        itemDetailsCache.evict(itemId);
         log.info("Предмет с id {} был обновлен", itemId);
 
         return ItemMapper.toItemDto(updatedItem);
@@ -103,24 +187,10 @@ public class ItemServiceImpl implements ItemService {
 
     @Transactional(readOnly = true)
     @Override
-    public ItemBookingsAndCommentsDto getById(Long userId, Long itemId) {
-        Item item = itemRepository.findByIdWithOwner(itemId)
-                .orElseThrow(() -> new NotFoundException("Предмет с id " + itemId + " не найден"));
-
-        List<Comment> comments = commentRepository.findAllByItemId(itemId);
-
-        if (!Objects.equals(item.getOwner().getId(), userId)) {
-            ItemBookingsAndCommentsDto itemBookingsAndCommentsDto =
-                    ItemMapper.toItemBookingsAndCommentsDto(item, comments);
-            log.info("Получен предмет с id {}: {}", itemId, itemBookingsAndCommentsDto);
-
-            return itemBookingsAndCommentsDto;
-        }
-
-        List<Booking> bookings = bookingRepository.findAllAcceptedByItemId(itemId);
-
-        ItemBookingsAndCommentsDto itemBookingsAndCommentsDto =
-                ItemMapper.toItemBookingsAndCommentsDto(item, bookings, comments);
+    public ItemBookingsAndCommentsDto getById(Long userId, Long itemId, Integer commentsFrom, Integer commentsSize) {
+        Pageable commentsPageable = OffsetPageRequest.of(commentsFrom, commentsSize);
+        ItemBookingsAndCommentsDto itemBookingsAndCommentsDto = itemDetailsCache.get(userId, itemId,
+                commentsFrom, commentsSize, () -> loadById(userId, itemId, commentsPageable));
         log.info("Получен предмет с id {}: {}", itemId, itemBookingsAndCommentsDto);
 
         return itemBookingsAndCommentsDto;
@@ -128,23 +198,40 @@ public class ItemServiceImpl implements ItemService {
 
     @Transactional(readOnly = true)
     @Override
-    public List<ItemBookingsDto> getAllByOwnerId(Long userId, PaginationConfig paginationConfig) {
+    public Slice<ItemBookingsDto> getAllByOwnerId(Long userId, PaginationConfig paginationConfig) {
         if (!userRepository.existsById(userId)) {
             throw new NotFoundException("Пользователь с id " + userId + " не найден");
         }
 
-        List<Item> items =
-                itemRepository.findAllByOwnerIdOrderByIdAsc(userId, paginationConfig.getPageable()).getContent();
+        Cursor cursor = paginationConfig.getCursor();
+        Slice<ItemDto> items = cursor == null
+                ? itemRepository.findAllDtoByOwnerId(userId, paginationConfig.getPageable())
+                : itemRepository.findAllDtoByOwnerIdAfter(userId, cursor.getId(), paginationConfig.getCursorPageable());
+
+        if (!items.hasContent()) {
+            return new SliceImpl<>(Collections.emptyList(), items.getPageable(), false);
+        }
+
+        List<Long> itemIds = items.stream()
+                .map(ItemDto::getId)
+                .collect(Collectors.toList());
+
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, Booking> lastBookingsByItemId =
+                groupByItemId(bookingRepository.findAllLastAcceptedByItemIdIn(itemIds, now));
+        Map<Long, Booking> nextBookingsByItemId =
+                groupByItemId(bookingRepository.findAllNextAcceptedByItemIdIn(itemIds, now));
 
         List<ItemBookingsDto> itemBookingsDtos = new ArrayList<>();
-        for (Item item : items) {
-            List<Booking> bookings = bookingRepository.findAllAcceptedByItemId(item.getId());
-            ItemBookingsDto itemBookingsDto = ItemMapper.toItemBookingsDto(item, bookings);
+        for (ItemDto item : items) {
+            ItemBookingsDto itemBookingsDto = ItemMapper.toItemBookingsDto(item,
+                    lastBookingsByItemId.get(item.getId()),
+                    nextBookingsByItemId.get(item.getId()));
             itemBookingsDtos.add(itemBookingsDto);
         }
         log.info("Получен список всех предметов пользователя");
 
-        return itemBookingsDtos;
+        return new SliceImpl<>(itemBookingsDtos, items.getPageable(), items.hasNext());
     }
 
     @Transactional(readOnly = true)
@@ -158,23 +245,70 @@ public class ItemServiceImpl implements ItemService {
             return Collections.emptyList();
         }
 
-        BooleanExpression byAvailableTrue = QItem.item.available.isTrue();
-        BooleanExpression byNameOrDescriptionContainingText = QItem.item.name.containsIgnoreCase(text)
-                .or(QItem.item.description.containsIgnoreCase(text));
-
-        List<Item> items = itemRepository.findAll(
-                        byAvailableTrue.and(byNameOrDescriptionContainingText),
-                        paginationConfig.getPageable())
-                .getContent();
-
-        List<ItemDto> itemDtos = items.stream()
-                .map(ItemMapper::toItemDto)
-                .collect(Collectors.toList());
+        Cursor cursor = paginationConfig.getCursor();
+        List<ItemDto> itemDtos = cursor == null
+                ? itemSearchBackend.search(text, paginationConfig.getPageable())
+                : itemSearchBackend.searchAfter(text, cursor.getId(), paginationConfig.getSize());
         log.info("Получен список всех предметов по запросу \"" + text + "\"");
 
         return itemDtos;
     }
 
+    @Override
+    public boolean isTextQueryCursorSupported() {
+        return itemSearchBackend.supportsCursor();
+    }
+
+    /**
+     * Merges the approved and waiting bookings that overlap the range into busy periods clipped to it;
+     * the gaps between them are the free periods.
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public ItemAvailabilityDto getAvailability(Long itemId, LocalDateTime from, LocalDateTime to) {
+        if (!itemRepository.existsById(itemId)) {
+            throw new NotFoundException("Предмет с id " + itemId + " не найден");
+        }
+
+        List<PeriodDto> busy = new ArrayList<>();
+        LocalDateTime busyStart = null;
+        LocalDateTime busyEnd = null;
+        for (PeriodDto period : bookingRepository.findAllAcceptedPeriodsByItemId(itemId, from, to)) {
+            LocalDateTime start = period.getStart().isBefore(from) ? from : period.getStart();
+            LocalDateTime end = period.getEnd().isAfter(to) ? to : period.getEnd();
+
+            if (busyEnd != null && !start.isAfter(busyEnd)) {
+                if (end.isAfter(busyEnd)) {
+                    busyEnd = end;
+                }
+                continue;
+            }
+            if (busyEnd != null) {
+                busy.add(new PeriodDto(busyStart, busyEnd));
+            }
+            busyStart = start;
+            busyEnd = end;
+        }
+        if (busyEnd != null) {
+            busy.add(new PeriodDto(busyStart, busyEnd));
+        }
+
+        List<PeriodDto> free = new ArrayList<>();
+        LocalDateTime freeStart = from;
+        for (PeriodDto period : busy) {
+            if (period.getStart().isAfter(freeStart)) {
+                free.add(new PeriodDto(freeStart, period.getStart()));
+            }
+            freeStart = period.getEnd();
+        }
+        if (to.isAfter(freeStart)) {
+            free.add(new PeriodDto(freeStart, to));
+        }
+        log.info("Получена занятость предмета с id {} с {} по {}", itemId, from, to);
+
+        return ItemMapper.toItemAvailabilityDto(itemId, from, to, busy, free);
+    }
+
     @Transactional
     @Override
     public void delete(Long userId, Long itemId) {
@@ -189,7 +323,12 @@ public class ItemServiceImpl implements ItemService {
                     "владельцем предмета с id " + itemId);
         }
 
+        bookingStatusCounters.decrementAllByItemId(itemId);
         itemRepository.deleteById(itemId);
+        itemSearchBackend.delete(itemId);
+        requestFeed.remove(itemId);
+        bookingConflictDetector.releaseAllByItemId(itemId);
+        itemDetailsCache.evict(itemId);
         log.info("Предмет с id {} был удален", itemId);
     }
 
@@ -202,9 +341,14 @@ public class ItemServiceImpl implements ItemService {
         Item item = itemRepository.findById(itemId)
                 .orElseThrow(() -> new NotFoundException("Предмет с id " + userId + " не найден"));
 
-        if (bookingRepository.countAllPrevious(itemId, userId) < 1) {
-            throw new BadRequestException("Пользователь с id " + userId +
-                    " раньше не бронировал предмет с id " + itemId);
+        if (!commentEligibilityFilter.mightHaveBooked(itemId, userId)) {
+            throw notBookedBefore(userId, itemId);
+        }
+
+        boolean hasBookedBefore = bookingRepository.countAllPrevious(itemId, userId) > 0;
+        commentEligibilityFilter.recordChecked(hasBookedBefore);
+        if (!hasBookedBefore) {
+            throw notBookedBefore(userId, itemId);
         }
 
         Comment comment = ItemMapper.toComment(userId, commentTextDto);
@@ -213,11 +357,97 @@ public class ItemServiceImpl implements ItemService {
         comment.setItem(item);
 
         CommentDto commentDto = ItemMapper.toCommentDto(commentRepository.save(comment));
+        itemDetailsCache.evict(itemId);
         log.info("Был добавлен новый комментарий, id {}", commentDto.getId());
 
         return commentDto;
     }
 
+    /**
+     * Closes the request the item was created for, or records the open requests the item would satisfy.
+     */
+    private void matchRequests(Item item) {
+        if (item.getRequest() != null) {
+            requestMatchEngine.close(item.getRequest().getId());
+            return;
+        }
+        if (!Boolean.TRUE.equals(item.getAvailable())) {
+            return;
+        }
+
+        List<RequestMatch> matches = requestMatchEngine.match(item);
+        if (matches.isEmpty()) {
+            return;
+        }
+
+        List<Suggestion> suggestions = new ArrayList<>(matches.size());
+        for (RequestMatch match : matches) {
+            suggestions.add(Suggestion.builder()
+                    .request(requestRepository.getReferenceById(match.getRequestId()))
+                    .item(item)
+                    .score(match.getScore())
+                    .build());
+        }
+        suggestionRepository.saveAll(suggestions);
+        log.info("Предмет с id {} предложен для запросов: {}", item.getId(), suggestions.size());
+    }
+
+    private static BadRequestException notBookedBefore(Long userId, Long itemId) {
+        return new BadRequestException("Пользователь с id " + userId +
+                " раньше не бронировал предмет с id " + itemId);
+    }
+
+    private ItemDetailsCache.View loadById(Long userId, Long itemId, Pageable commentsPageable) {
+        Item item = itemRepository.findByIdWithOwner(itemId)
+                .orElseThrow(() -> new NotFoundException("Предмет с id " + itemId + " не найден"));
+        Long ownerId = item.getOwner().getId();
+
+        List<CommentDto> comments = commentRepository.findAllDtoByItemId(itemId, commentsPageable);
+        long commentsCount = countComments(itemId, comments, commentsPageable);
+
+        if (!Objects.equals(ownerId, userId)) {
+            ItemBookingsAndCommentsDto itemBookingsAndCommentsDto =
+                    ItemMapper.toItemBookingsAndCommentsDto(item, comments, commentsCount);
+
+            return new ItemDetailsCache.View(ownerId, itemBookingsAndCommentsDto, null);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Booking lastBooking = bookingRepository
+                .findFirstByItemIdAndStatusInAndStartBeforeOrderByStartDescIdAsc(itemId, ACCEPTED_STATUSES, now)
+                .orElse(null);
+        Booking nextBooking = bookingRepository
+                .findFirstByItemIdAndStatusInAndStartAfterOrderByStartAscIdAsc(itemId, ACCEPTED_STATUSES, now)
+                .orElse(null);
+
+        return new ItemDetailsCache.View(
+                ownerId,
+                ItemMapper.toItemBookingsAndCommentsDto(item, lastBooking, nextBooking, comments, commentsCount),
+                nextBooking == null ? null : nextBooking.getStart()
+        );
+    }
+
+    /**
+     * A page shorter than requested is the last one, so the count is known without a query.
+     */
+    private long countComments(Long itemId, List<CommentDto> comments, Pageable commentsPageable) {
+        boolean lastPage = comments.size() < commentsPageable.getPageSize();
+        if (lastPage && (!comments.isEmpty() || commentsPageable.getOffset() == 0)) {
+            return commentsPageable.getOffset() + comments.size();
+        }
+
+        return commentRepository.countByItemId(itemId);
+    }
+
+    private Map<Long, Booking> groupByItemId(List<Booking> bookings) {
+        Map<Long, Booking> bookingsByItemId = new HashMap<>();
+        for (Booking booking : bookings) {
+            bookingsByItemId.putIfAbsent(booking.getItem().getId(), booking);
+        }
+
+        return bookingsByItemId;
+    }
+
     private boolean notOwns(Long userId, Long itemId) {
         return itemRepository.findById(itemId)
                 .map(item -> !Objects.equals(item.getOwner().getId(), userId))
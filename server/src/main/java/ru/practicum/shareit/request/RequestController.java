@@ -3,8 +3,12 @@ package ru.practicum.shareit.request;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.common.model.Cursor;
 import ru.practicum.shareit.common.model.PaginationConfig;
+import ru.practicum.shareit.item.model.dto.ItemDto;
 import ru.practicum.shareit.request.model.dto.RequestDescriptionDto;
 import ru.practicum.shareit.request.model.dto.RequestDto;
 import ru.practicum.shareit.request.model.dto.RequestItemsDto;
@@ -31,9 +35,11 @@ public class RequestController {
     }
 
     @GetMapping("/all")
-    public List<RequestItemsDto> getAll(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                        PaginationConfig paginationConfig) {
-        return requestService.getAll(userId, paginationConfig);
+    public ResponseEntity<List<RequestItemsDto>> getAll(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                        PaginationConfig paginationConfig) {
+        Slice<RequestItemsDto> requests = requestService.getAll(userId, paginationConfig);
+
+        return paginationConfig.toResponse(requests, request -> Cursor.of(request.getCreated(), request.getId()));
     }
 
     @GetMapping("/{requestId}")
@@ -41,4 +47,12 @@ public class RequestController {
                                    @PathVariable Long requestId) {
         return requestService.getById(userId, requestId);
     }
+
+    @GetMapping("/{requestId}/suggestions")
+    public List<ItemDto> getSuggestions(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                        @PathVariable Long requestId,
+                                        @RequestParam(defaultValue = "0") Integer from,
+                                        @RequestParam(defaultValue = "10") Integer size) {
+        return requestService.getSuggestions(userId, requestId, from, size);
+    }
 }
@@ -0,0 +1,381 @@
+package ru.practicum.shareit.request.feed;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.common.model.Cursor;
+import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.dto.ItemRequestIdDto;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.model.Request;
+import ru.practicum.shareit.request.model.dto.RequestItemsDto;
+import ru.practicum.shareit.request.repository.RequestRepository;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The newest requests of all users with their items, newest first, for the first pages of {@code GET /requests/all}.
+ * <p>
+ * A ring buffer of a fixed capacity, built on startup and then updated by new requests and by created,
+ * updated and deleted items. A new request is normally the newest one and takes the slot of the oldest;
+ * a request that comes out of order is shifted into its place. A page is served from the buffer if it holds
+ * enough requests of other users for it, or if it holds all requests there are; otherwise the caller goes
+ * to the database. Deleting a user reloads the buffer.
+ * <p>
+ * Changes are applied after their transaction commits, as the item cache evictions are, so a rolled-back
+ * transaction leaves no trace and readers never see uncommitted requests. A transaction that has made
+ * changes of its own reads the database instead, so that it sees them.
+ * <p>
+ * Metrics: {@code requests.feed.gets} tagged with the result (hit or miss) and {@code requests.feed.size}.
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Slf4j
+public class RequestFeed {
+    final RequestRepository requestRepository;
+    final ItemRepository itemRepository;
+    final int capacity;
+    final Counter hits;
+    final Counter misses;
+    final ReadWriteLock lock = new ReentrantReadWriteLock();
+    final Entry[] ring;
+    final Map<Long, Entry> entriesByRequestId = new HashMap<>();
+    final Map<Long, Long> requestIdsByItemId = new HashMap<>();
+
+    /**
+     * Slot of the newest request.
+     */
+    int head;
+    int size;
+
+    /**
+     * Whether the buffer holds every request in the database, i.e. none has been left out or pushed out.
+     */
+    boolean complete;
+
+    @Autowired
+    public RequestFeed(RequestRepository requestRepository,
+                       ItemRepository itemRepository,
+                       @Value("${shareit.requests.feed.capacity}") int capacity,
+                       MeterRegistry meterRegistry) {
+        this.requestRepository = requestRepository;
+        this.itemRepository = itemRepository;
+        this.capacity = capacity;
+        ring = new Entry[capacity];
+
+        hits = Counter.builder("requests.feed.gets")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        misses = Counter.builder("requests.feed.gets")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("requests.feed.size", this, RequestFeed::size)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        List<Request> requests = requestRepository.findAllByOrderByCreatedDescIdDesc(PageRequest.of(0, capacity + 1));
+        List<Request> newest = requests.subList(0, Math.min(requests.size(), capacity));
+
+        Map<Long, List<ItemRequestIdDto>> itemsByRequestId = new HashMap<>();
+        if (!newest.isEmpty()) {
+            List<Long> requestIds = new ArrayList<>(newest.size());
+            newest.forEach(request -> requestIds.add(request.getId()));
+            for (ItemRequestIdDto item : itemRepository.findAllDtoByRequestIdIn(requestIds)) {
+                itemsByRequestId.computeIfAbsent(item.getRequestId(), requestId -> new ArrayList<>()).add(item);
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            clear();
+            for (int i = newest.size() - 1; i >= 0; i--) {
+                Request request = newest.get(i);
+                Entry entry = new Entry(request, itemsByRequestId.getOrDefault(request.getId(), List.of()));
+                append(entry);
+                entry.items.forEach(item -> requestIdsByItemId.put(item.getId(), request.getId()));
+            }
+            complete = requests.size() <= capacity;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Лента запросов построена, запросов: {}", newest.size());
+    }
+
+    /**
+     * Page of the requests of all users except the given one: at the offset of the page, or right after
+     * the cursor if it is given. Empty if the buffer cannot tell the page.
+     */
+    public Optional<Slice<RequestItemsDto>> findPage(Long userId, Cursor cursor, Pageable pageable) {
+        if (TransactionSynchronizationManager.hasResource(this)) {
+            misses.increment();
+            return Optional.empty();
+        }
+
+        long skip = cursor == null ? pageable.getOffset() : 0;
+        int wanted = pageable.getPageSize() + 1;
+        List<RequestItemsDto> found = new ArrayList<>(pageable.getPageSize() + 1);
+
+        lock.readLock().lock();
+        try {
+            for (int i = 0; i < size && found.size() < wanted; i++) {
+                Entry entry = ring[slot(i)];
+                if (entry.requesterId.equals(userId)) {
+                    continue;
+                }
+                if (cursor != null && !entry.isBefore(cursor.getRequiredTime(), cursor.getId())) {
+                    continue;
+                }
+                if (skip > 0) {
+                    skip--;
+                    continue;
+                }
+                found.add(entry.toDto());
+            }
+
+            if (found.size() < wanted && !complete) {
+                misses.increment();
+                return Optional.empty();
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        hits.increment();
+
+        boolean hasNext = found.size() > pageable.getPageSize();
+        if (hasNext) {
+            found = found.subList(0, pageable.getPageSize());
+        }
+
+        return Optional.of(new SliceImpl<>(found, pageable, hasNext));
+    }
+
+    public void add(Request request) {
+        Entry entry = new Entry(request, List.of());
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                insert(entry);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Called when an item is created or updated: moves it to the request it now answers, if any.
+     */
+    public void put(Item item) {
+        ItemRequestIdDto itemRequestIdDto = ItemMapper.toItemRequestIdDto(item);
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                removeItem(itemRequestIdDto.getId());
+                Entry entry = itemRequestIdDto.getRequestId() == null
+                        ? null
+                        : entriesByRequestId.get(itemRequestIdDto.getRequestId());
+                if (entry != null) {
+                    List<ItemRequestIdDto> items = new ArrayList<>(entry.items);
+                    items.add(itemRequestIdDto);
+                    items.sort(Comparator.comparing(ItemRequestIdDto::getId));
+                    entry.items = Collections.unmodifiableList(items);
+                    requestIdsByItemId.put(itemRequestIdDto.getId(), entry.id);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void remove(Long itemId) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                removeItem(itemId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Called when a user is deleted together with their requests and items; the requests of other users
+     * are loaded in place of them after the commit.
+     */
+    public void rebuildAfterCommit() {
+        afterCommit(this::rebuild);
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void insert(Entry entry) {
+        if (entriesByRequestId.containsKey(entry.id)) {
+            return;
+        }
+        if (size == 0 || ring[head].isBefore(entry.created, entry.id)) {
+            append(entry);
+            return;
+        }
+        if (size == capacity && !ring[slot(size - 1)].isBefore(entry.created, entry.id)) {
+            complete = false;
+            return;
+        }
+
+        if (size == capacity) {
+            evictOldest();
+        }
+        int position = 0;
+        while (position < size && !ring[slot(position)].isBefore(entry.created, entry.id)) {
+            position++;
+        }
+        head = (head + 1) % capacity;
+        size++;
+        for (int i = 0; i < position; i++) {
+            ring[slot(i)] = ring[slot(i + 1)];
+        }
+        ring[slot(position)] = entry;
+        entriesByRequestId.put(entry.id, entry);
+    }
+
+    private void append(Entry entry) {
+        if (size == capacity) {
+            evictOldest();
+        }
+        head = (head + 1) % capacity;
+        ring[head] = entry;
+        size++;
+        entriesByRequestId.put(entry.id, entry);
+    }
+
+    private void evictOldest() {
+        int oldestSlot = slot(size - 1);
+        Entry oldest = ring[oldestSlot];
+        ring[oldestSlot] = null;
+        size--;
+        entriesByRequestId.remove(oldest.id);
+        oldest.items.forEach(item -> requestIdsByItemId.remove(item.getId()));
+        complete = false;
+    }
+
+    private void removeItem(Long itemId) {
+        Long requestId = requestIdsByItemId.remove(itemId);
+        Entry entry = requestId == null ? null : entriesByRequestId.get(requestId);
+        if (entry == null) {
+            return;
+        }
+
+        List<ItemRequestIdDto> items = new ArrayList<>(entry.items);
+        items.removeIf(item -> item.getId().equals(itemId));
+        entry.items = Collections.unmodifiableList(items);
+    }
+
+    private void clear() {
+        for (int i = 0; i < size; i++) {
+            ring[slot(i)] = null;
+        }
+        head = 0;
+        size = 0;
+        entriesByRequestId.clear();
+        requestIdsByItemId.clear();
+    }
+
+    /**
+     * Slot of the request at the given position, 0 being the newest.
+     */
+    private int slot(int position) {
+        return Math.floorMod(head - position, capacity);
+    }
+
+    /**
+     * Runs the change after the current transaction commits, or at once outside of a transaction.
+     * Until the transaction completes, it is marked as having changes of its own.
+     */
+    private void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+
+        if (!TransactionSynchronizationManager.hasResource(this)) {
+            TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(RequestFeed.this);
+                }
+            });
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    private static class Entry {
+        final Long id;
+        final String description;
+        final LocalDateTime created;
+        final Long requesterId;
+        List<ItemRequestIdDto> items;
+
+        Entry(Request request, List<ItemRequestIdDto> items) {
+            id = request.getId();
+            description = request.getDescription();
+            created = request.getCreated();
+            requesterId = request.getRequester().getId();
+            this.items = Collections.unmodifiableList(items);
+        }
+
+        /**
+         * Whether this request goes after the given position in the newest-first order.
+         */
+        boolean isBefore(LocalDateTime otherCreated, Long otherId) {
+            int byCreated = created.compareTo(otherCreated);
+
+            return byCreated < 0 || byCreated == 0 && id < otherId;
+        }
+
+        RequestItemsDto toDto() {
+            return RequestItemsDto.builder()
+                    .id(id)
+                    .description(description)
+                    .created(created)
+                    .items(items)
+                    .build();
+        }
+    }
+}
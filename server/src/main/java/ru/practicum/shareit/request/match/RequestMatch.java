@@ -0,0 +1,18 @@
+package ru.practicum.shareit.request.match;
+
+import lombok.Value;
+
+import java.util.Comparator;
+
+@Value
+public class RequestMatch {
+    /**
+     * Lower score first, then the older request, so that the head of a bounded heap is the one to drop.
+     */
+    static final Comparator<RequestMatch> WORST_FIRST = Comparator.comparingDouble(RequestMatch::getScore)
+            .thenComparing(RequestMatch::getRequestId);
+
+    Long requestId;
+
+    double score;
+}
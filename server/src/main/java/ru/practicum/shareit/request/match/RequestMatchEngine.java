@@ -0,0 +1,342 @@
+package ru.practicum.shareit.request.match;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.Request;
+import ru.practicum.shareit.request.model.dto.OpenRequestDto;
+import ru.practicum.shareit.request.repository.RequestRepository;
+
+import javax.annotation.PostConstruct;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Matches new items to open requests: an inverted index from word stems to the ids of the open requests
+ * whose descriptions contain them. A request is open until an item is created for it.
+ * <p>
+ * Words are lower-cased, words shorter than three letters are dropped, trailing vowels are cut off and
+ * the rest is cut to five letters, so that "дрель", "дрели" and "дрелью" share a stem. An item is scored
+ * against a request by the sum of the inverse document frequencies of their common stems. Postings are
+ * scanned from the rarest stem up to a budget of {@code shareit.requests.suggestions.max-postings} ids:
+ * stems too common to fit it say little about the match and are left out, and the rarest stem alone
+ * is cut to its newest requests. This keeps a match well under a millisecond on a million requests.
+ * <p>
+ * Changes are applied as soon as the service makes them; if the surrounding transaction
+ * rolls back, the previous state of the touched requests is restored.
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class RequestMatchEngine {
+    private static final int MIN_WORD_LENGTH = 3;
+    private static final int STEM_LENGTH = 5;
+    private static final String VOWELS = "аеёиоуыэюяьйaeiouy";
+
+    RequestRepository requestRepository;
+    int topK;
+    int maxPostings;
+
+    Map<Long, IndexedRequest> requestsById = new HashMap<>();
+    Map<String, Postings> postingsByStem = new HashMap<>();
+    ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Autowired
+    public RequestMatchEngine(RequestRepository requestRepository,
+                              @Value("${shareit.requests.suggestions.top-k}") int topK,
+                              @Value("${shareit.requests.suggestions.max-postings}") int maxPostings) {
+        this.requestRepository = requestRepository;
+        this.topK = topK;
+        this.maxPostings = maxPostings;
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        List<OpenRequestDto> requests = requestRepository.findAllOpen();
+
+        lock.writeLock().lock();
+        try {
+            requestsById.clear();
+            postingsByStem.clear();
+            requests.forEach(request -> put(request.getId(), request.getRequesterId(), request.getDescription()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Индекс открытых запросов построен, запросов: {}", requests.size());
+    }
+
+    public void open(Request request) {
+        lock.writeLock().lock();
+        try {
+            IndexedRequest previous = remove(request.getId());
+            put(request.getId(), request.getRequester().getId(), request.getDescription());
+            restoreOnRollback(request.getId(), previous);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void close(Long requestId) {
+        lock.writeLock().lock();
+        try {
+            IndexedRequest previous = remove(requestId);
+            if (previous != null) {
+                restoreOnRollback(requestId, previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void closeAllByRequesterId(Long requesterId) {
+        lock.writeLock().lock();
+        try {
+            List<Long> requestIds = requestsById.values().stream()
+                    .filter(request -> request.requesterId == requesterId)
+                    .map(request -> request.id)
+                    .collect(Collectors.toList());
+
+            for (Long requestId : requestIds) {
+                restoreOnRollback(requestId, remove(requestId));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Open requests of other users that the item would satisfy, best first.
+     */
+    public List<RequestMatch> match(Item item) {
+        Set<String> stems = toStems(item.getName());
+        stems.addAll(toStems(item.getDescription()));
+        long ownerId = item.getOwner().getId();
+
+        lock.readLock().lock();
+        try {
+            return match(stems, ownerId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return requestsById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Indexes a request without a transaction, for loading the index in bulk.
+     */
+    void put(long id, long requesterId, String description) {
+        Set<String> stems = toStems(description);
+        String[] indexedStems = new String[stems.size()];
+        int i = 0;
+        for (String stem : stems) {
+            Postings postings = postingsByStem.computeIfAbsent(stem, Postings::new);
+            postings.add(id);
+            indexedStems[i++] = postings.stem;
+        }
+        requestsById.put(id, new IndexedRequest(id, requesterId, indexedStems));
+    }
+
+    private List<RequestMatch> match(Set<String> stems, long ownerId) {
+        List<Postings> postingsList = new ArrayList<>(stems.size());
+        for (String stem : stems) {
+            Postings postings = postingsByStem.get(stem);
+            if (postings != null) {
+                postingsList.add(postings);
+            }
+        }
+        if (postingsList.isEmpty()) {
+            return List.of();
+        }
+        postingsList.sort(Comparator.comparingInt(postings -> postings.size));
+
+        double requestCount = requestsById.size();
+        Map<Long, Double> scores = new HashMap<>();
+        int budget = maxPostings;
+        for (Postings postings : postingsList) {
+            if (postings.size > budget && !scores.isEmpty()) {
+                break;
+            }
+
+            double idf = Math.log(1 + requestCount / postings.size);
+            int from = Math.max(0, postings.size - budget);
+            for (int i = postings.size - 1; i >= from; i--) {
+                scores.merge(postings.ids[i], idf, Double::sum);
+            }
+            budget -= postings.size - from;
+        }
+
+        PriorityQueue<RequestMatch> best = new PriorityQueue<>(topK + 1, RequestMatch.WORST_FIRST);
+        for (Map.Entry<Long, Double> score : scores.entrySet()) {
+            RequestMatch candidate = new RequestMatch(score.getKey(), score.getValue());
+            if (best.size() == topK && RequestMatch.WORST_FIRST.compare(candidate, best.peek()) <= 0) {
+                continue;
+            }
+            if (requestsById.get(score.getKey()).requesterId == ownerId) {
+                continue;
+            }
+
+            best.add(candidate);
+            if (best.size() > topK) {
+                best.poll();
+            }
+        }
+
+        List<RequestMatch> matches = new ArrayList<>(best);
+        matches.sort(RequestMatch.WORST_FIRST.reversed());
+
+        return matches;
+    }
+
+    private IndexedRequest remove(Long requestId) {
+        IndexedRequest indexedRequest = requestsById.remove(requestId);
+        if (indexedRequest == null) {
+            return null;
+        }
+
+        for (String stem : indexedRequest.stems) {
+            Postings postings = postingsByStem.get(stem);
+            postings.remove(requestId);
+            if (postings.size == 0) {
+                postingsByStem.remove(stem);
+            }
+        }
+
+        return indexedRequest;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void restoreOnRollback(Long requestId, IndexedRequest previous) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        Map<Long, IndexedRequest> snapshots =
+                (Map<Long, IndexedRequest>) TransactionSynchronizationManager.getResource(this);
+        if (snapshots == null) {
+            Map<Long, IndexedRequest> transactionSnapshots = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(this, transactionSnapshots);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(RequestMatchEngine.this);
+                    if (status != STATUS_COMMITTED) {
+                        restore(transactionSnapshots);
+                    }
+                }
+            });
+            snapshots = transactionSnapshots;
+        }
+
+        if (!snapshots.containsKey(requestId)) {
+            snapshots.put(requestId, previous);
+        }
+    }
+
+    private void restore(Map<Long, IndexedRequest> snapshots) {
+        lock.writeLock().lock();
+        try {
+            snapshots.forEach((requestId, previous) -> {
+                remove(requestId);
+                if (previous != null) {
+                    for (String stem : previous.stems) {
+                        postingsByStem.computeIfAbsent(stem, Postings::new).add(requestId);
+                    }
+                    requestsById.put(requestId, previous);
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    static Set<String> toStems(String text) {
+        Set<String> stems = new HashSet<>();
+        if (text == null) {
+            return stems;
+        }
+
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{Nd}]+")) {
+            if (word.length() < MIN_WORD_LENGTH) {
+                continue;
+            }
+
+            int end = word.length();
+            while (end > MIN_WORD_LENGTH + 1 && VOWELS.indexOf(word.charAt(end - 1)) >= 0) {
+                end--;
+            }
+            stems.add(word.substring(0, Math.min(end, STEM_LENGTH)));
+        }
+
+        return stems;
+    }
+
+    private static final class IndexedRequest {
+        final long id;
+        final long requesterId;
+        final String[] stems;
+
+        IndexedRequest(long id, long requesterId, String[] stems) {
+            this.id = id;
+            this.requesterId = requesterId;
+            this.stems = stems;
+        }
+    }
+
+    /**
+     * Ids of the requests with a stem in ascending order; new requests are appended to the end.
+     */
+    private static final class Postings {
+        final String stem;
+        long[] ids = new long[2];
+        int size;
+
+        Postings(String stem) {
+            this.stem = stem;
+        }
+
+        void add(long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+            }
+            if (size == 0 || ids[size - 1] < id) {
+                ids[size++] = id;
+                return;
+            }
+
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                return;
+            }
+            position = -position - 1;
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            ids[position] = id;
+            size++;
+        }
+
+        void remove(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position < 0) {
+                return;
+            }
+
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.request.model.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+
+@AllArgsConstructor
+@Getter
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class OpenRequestDto {
+    Long id;
+
+    String description;
+
+    Long requesterId;
+}
@@ -1,14 +1,43 @@
 package ru.practicum.shareit.request.repository;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.request.model.Request;
+import ru.practicum.shareit.request.model.dto.OpenRequestDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface RequestRepository extends JpaRepository<Request, Long> {
     List<Request> findAllByRequesterIdOrderByCreatedDesc(Long requesterId);
 
-    Page<Request> findAllByRequesterIdNotOrderByCreatedDesc(Long requesterId, Pageable pageable);
+    List<Request> findAllByOrderByCreatedDescIdDesc(Pageable pageable);
+
+    @Query("SELECT new ru.practicum.shareit.request.model.dto.OpenRequestDto(r.id, r.description, r.requester.id) " +
+            "FROM Request AS r " +
+            "WHERE NOT EXISTS (SELECT i.id FROM Item AS i WHERE i.request = r) " +
+            "ORDER BY r.id")
+    List<OpenRequestDto> findAllOpen();
+
+    /**
+     * Ordered like {@link #findAllByRequesterIdNotAfter}, so a cursor taken from a page of this query continues it
+     * without skipping or repeating requests created at the same time.
+     */
+    @Query("SELECT r " +
+            "FROM Request AS r " +
+            "WHERE r.requester.id <> ?1 " +
+            "ORDER BY r.created DESC, r.id DESC")
+    Slice<Request> findAllByRequesterIdNot(Long requesterId, Pageable pageable);
+
+    @Query("SELECT r " +
+            "FROM Request AS r " +
+            "WHERE r.requester.id <> ?1 AND " +
+            "(r.created < ?2 OR r.created = ?2 AND r.id < ?3) " +
+            "ORDER BY r.created DESC, r.id DESC")
+    Slice<Request> findAllByRequesterIdNotAfter(Long requesterId,
+                                                LocalDateTime created,
+                                                Long id,
+                                                Pageable pageable);
 }
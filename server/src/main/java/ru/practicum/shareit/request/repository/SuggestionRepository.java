@@ -0,0 +1,24 @@
+package ru.practicum.shareit.request.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.item.model.dto.ItemDto;
+import ru.practicum.shareit.request.model.Suggestion;
+
+import java.util.List;
+
+public interface SuggestionRepository extends JpaRepository<Suggestion, Long> {
+    @Query("SELECT new ru.practicum.shareit.item.model.dto.ItemDto(i.id, i.name, i.description, i.available) " +
+            "FROM Suggestion AS s " +
+            "JOIN s.item AS i " +
+            "WHERE s.request.id = ?1 " +
+            "ORDER BY s.score DESC, i.id DESC")
+    List<ItemDto> findAllItemDtoByRequestId(Long requestId, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM Suggestion AS s " +
+            "WHERE s.item.id = ?1")
+    void deleteAllByItemId(Long itemId);
+}
@@ -1,6 +1,8 @@
 package ru.practicum.shareit.request.service;
 
+import org.springframework.data.domain.Slice;
 import ru.practicum.shareit.common.model.PaginationConfig;
+import ru.practicum.shareit.item.model.dto.ItemDto;
 import ru.practicum.shareit.request.model.dto.RequestItemsDto;
 import ru.practicum.shareit.request.model.dto.RequestDescriptionDto;
 import ru.practicum.shareit.request.model.dto.RequestDto;
@@ -12,7 +14,9 @@ public interface RequestService {
 
     List<RequestItemsDto> getOwn(Long userId);
 
-    List<RequestItemsDto> getAll(Long userId, PaginationConfig paginationConfig);
+    Slice<RequestItemsDto> getAll(Long userId, PaginationConfig paginationConfig);
 
     RequestItemsDto getById(Long userId, Long requestId);
+
+    List<ItemDto> getSuggestions(Long userId, Long requestId, Integer from, Integer size);
 }
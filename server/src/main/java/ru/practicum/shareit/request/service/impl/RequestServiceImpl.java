@@ -5,27 +5,37 @@ import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.common.model.Cursor;
+import ru.practicum.shareit.common.model.OffsetPageRequest;
 import ru.practicum.shareit.common.model.PaginationConfig;
 import ru.practicum.shareit.common.exception.NotFoundException;
-import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.model.dto.ItemDto;
 import ru.practicum.shareit.item.model.dto.ItemRequestIdDto;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.feed.RequestFeed;
+import ru.practicum.shareit.request.match.RequestMatchEngine;
 import ru.practicum.shareit.request.model.Request;
 import ru.practicum.shareit.request.model.dto.RequestItemsDto;
 import ru.practicum.shareit.request.model.dto.RequestDescriptionDto;
 import ru.practicum.shareit.request.model.dto.RequestDto;
 import ru.practicum.shareit.request.repository.RequestRepository;
+import ru.practicum.shareit.request.repository.SuggestionRepository;
 import ru.practicum.shareit.request.service.RequestService;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 import ru.practicum.shareit.request.RequestMapper;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
@@ -35,6 +45,9 @@ public class RequestServiceImpl implements RequestService {
     UserRepository userRepository;
     RequestRepository requestRepository;
     ItemRepository itemRepository;
+    RequestFeed requestFeed;
+    RequestMatchEngine requestMatchEngine;
+    SuggestionRepository suggestionRepository;
 
     @Override
     @Transactional
@@ -45,10 +58,12 @@ public class RequestServiceImpl implements RequestService {
         Request request = Request.builder()
                 .description(requestDescriptionDto.getDescription())
                 .requester(requester)
-                .created(LocalDateTime.now())
+                .created(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS))
                 .build();
 
         Request createdRequest = requestRepository.save(request);
+        requestFeed.add(createdRequest);
+        requestMatchEngine.open(createdRequest);
         log.info("Был добавлен новый запрос на предмет, id={}", createdRequest.getId());
 
         return RequestMapper.toRequestDto(createdRequest);
@@ -71,20 +86,34 @@ public class RequestServiceImpl implements RequestService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<RequestItemsDto> getAll(Long userId, PaginationConfig paginationConfig) {
+    public Slice<RequestItemsDto> getAll(Long userId, PaginationConfig paginationConfig) {
         if (!userRepository.existsById(userId)) {
             throw new NotFoundException("Пользователь с id " + userId + " не найден");
         }
 
-        Pageable pageable = paginationConfig.getPageable();
-        List<Request> requests =
-                requestRepository.findAllByRequesterIdNotOrderByCreatedDesc(userId, pageable).getContent();
+        Cursor cursor = paginationConfig.getCursor();
+        Pageable pageable = cursor == null
+                ? paginationConfig.getPageable()
+                : paginationConfig.getCursorPageable();
+        Optional<Slice<RequestItemsDto>> feedPage = requestFeed.findPage(userId, cursor, pageable);
+        if (feedPage.isPresent()) {
+            log.info("Получен список всех запросов из ленты");
+            return feedPage.get();
+        }
+
+        Slice<Request> requests;
+        if (cursor == null) {
+            requests = requestRepository.findAllByRequesterIdNot(userId, pageable);
+        } else {
+            requests = requestRepository.findAllByRequesterIdNotAfter(
+                    userId, cursor.getRequiredTime(), cursor.getId(), pageable);
+        }
 
         List<RequestItemsDto> requestItemsDtos =
-                RequestMapper.toRequestItemsDto(requests, getRequestItems(requests));
+                RequestMapper.toRequestItemsDto(requests.getContent(), getRequestItems(requests.getContent()));
         log.info("Получен список всех запросов");
 
-        return requestItemsDtos;
+        return new SliceImpl<>(requestItemsDtos, requests.getPageable(), requests.hasNext());
     }
 
     @Override
@@ -103,14 +132,41 @@ public class RequestServiceImpl implements RequestService {
         return requestItemsDto;
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<ItemDto> getSuggestions(Long userId, Long requestId, Integer from, Integer size) {
+        if (!userRepository.existsById(userId)) {
+            throw new NotFoundException("Пользователь с id " + userId + " не найден");
+        }
+        if (!requestRepository.existsById(requestId)) {
+            throw new NotFoundException("Запрос с id " + requestId + " не найден");
+        }
+
+        List<ItemDto> suggestions =
+                suggestionRepository.findAllItemDtoByRequestId(requestId, OffsetPageRequest.of(from, size));
+        log.info("Получены предметы, предложенные для запроса с id {}", requestId);
+
+        return suggestions;
+    }
+
     private List<ItemRequestIdDto> getRequestItems(Request request) {
-        return ItemMapper.toItemRequestIdDto(itemRepository.findAllByRequestId(request.getId()));
+        return itemRepository.findAllDtoByRequestId(request.getId());
     }
 
+    /**
+     * Items of all the requests in one select, grouped by request id; requests without items get an empty list.
+     */
     private Map<Long, List<ItemRequestIdDto>> getRequestItems(List<Request> requests) {
-        Map<Long, List<ItemRequestIdDto>> itemsByRequestId = new HashMap<>();
+        Map<Long, List<ItemRequestIdDto>> itemsByRequestId = new HashMap<>(requests.size() * 4 / 3 + 1);
         for (Request request : requests) {
-            itemsByRequestId.put(request.getId(), getRequestItems(request));
+            itemsByRequestId.put(request.getId(), new ArrayList<>());
+        }
+        if (itemsByRequestId.isEmpty()) {
+            return itemsByRequestId;
+        }
+
+        for (ItemRequestIdDto item : itemRepository.findAllDtoByRequestIdIn(itemsByRequestId.keySet())) {
+            itemsByRequestId.get(item.getRequestId()).add(item);
         }
 
         return itemsByRequestId;
@@ -6,7 +6,13 @@ import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.conflict.BookingConflictDetector;
+import ru.practicum.shareit.booking.summary.BookingStatusCounters;
 import ru.practicum.shareit.common.exception.NotFoundException;
+import ru.practicum.shareit.item.cache.ItemDetailsCache;
+import ru.practicum.shareit.item.search.ItemSearchBackend;
+import ru.practicum.shareit.request.feed.RequestFeed;
+import ru.practicum.shareit.request.match.RequestMatchEngine;
 import ru.practicum.shareit.user.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.model.dto.UserDto;
@@ -14,6 +20,7 @@ import ru.practicum.shareit.user.repository.UserRepository;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.util.List;
+import java.util.Objects;
 
 @RequiredArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
@@ -21,6 +28,12 @@ import java.util.List;
 @Service
 public class UserServiceImpl implements UserService {
     UserRepository userRepository;
+    ItemSearchBackend itemSearchBackend;
+    ItemDetailsCache itemDetailsCache;
+    BookingConflictDetector bookingConflictDetector;
+    BookingStatusCounters bookingStatusCounters;
+    RequestFeed requestFeed;
+    RequestMatchEngine requestMatchEngine;
 
     @Transactional
     @Override
@@ -47,7 +60,12 @@ public class UserServiceImpl implements UserService {
             user.setEmail(foundUser.getEmail());
         }
 
+        boolean renamed = !Objects.equals(user.getName(), foundUser.getName());
+
         User updatedUser = userRepository.save(user);
+        if (renamed) {
+            itemDetailsCache.evictAll();
+        }
         log.info("Пользователь с id {} был обновлен", userId);
 
         return updatedUser;
@@ -77,7 +95,13 @@ public class UserServiceImpl implements UserService {
             throw new NotFoundException("Пользователь с id " + userId + " не найден");
         }
 
+        bookingStatusCounters.decrementAllByUserId(userId);
         userRepository.deleteById(userId);
+        itemSearchBackend.deleteAllByOwnerId(userId);
+        bookingConflictDetector.releaseAllByUserId(userId);
+        itemDetailsCache.evictAll();
+        requestFeed.rebuildAfterCommit();
+        requestMatchEngine.closeAllByRequesterId(userId);
         log.info("Пользователь с id {} был удален", userId);
     }
 }
@@ -0,0 +1,9 @@
+ALTER TABLE items ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE items ALTER COLUMN id SET DEFAULT NEXT VALUE FOR items_seq;
+ALTER SEQUENCE items_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM items);
+
+CREATE INDEX IF NOT EXISTS ix_items_request_id ON items (request_id);
+
+CREATE INDEX IF NOT EXISTS ix_bookings_waiting_start ON bookings (status, start_time, id);
+
+CREATE INDEX IF NOT EXISTS ix_bookings_item_accepted_end ON bookings (item_id, end_time, start_time, status);
@@ -0,0 +1,60 @@
+ALTER TABLE items
+    ADD COLUMN IF NOT EXISTS search_vector TSVECTOR
+        GENERATED ALWAYS AS (to_tsvector('russian', name || ' ' || description)) STORED;
+
+CREATE INDEX IF NOT EXISTS ix_items_search_vector ON items USING GIN (search_vector);
+
+ALTER TABLE items ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE items ALTER COLUMN id SET DEFAULT nextval('items_seq');
+SELECT setval('items_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM items), (SELECT last_value FROM items_seq)));
+
+-- The exclusion constraint needs btree_gist, which only a superuser can create:
+-- it is created by postgres/initdb/btree_gist.sql in docker-compose, or by hand before the first start.
+-- If approved bookings of an item already overlap, the server does not start and lists them; they have to be
+-- resolved first, e.g. with postgres/migrations/reject_overlapping_approved_bookings.sql.
+DO '
+DECLARE
+    overlapping TEXT;
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_constraint WHERE conname = ''ex_booking_approved_period'') THEN
+        RETURN;
+    END IF;
+
+    IF NOT EXISTS (SELECT 1 FROM pg_extension WHERE extname = ''btree_gist'') THEN
+        RAISE EXCEPTION ''Расширение btree_gist не установлено, выполните CREATE EXTENSION btree_gist от имени суперпользователя'';
+    END IF;
+
+    SELECT string_agg(earlier.id || ''/'' || later.id, '', '' ORDER BY earlier.id, later.id)
+    INTO overlapping
+    FROM bookings earlier
+             JOIN bookings later ON later.item_id = earlier.item_id
+        AND later.id > earlier.id
+        AND later.start_time < earlier.end_time
+        AND later.end_time > earlier.start_time
+    WHERE earlier.status = ''APPROVED''
+      AND later.status = ''APPROVED'';
+
+    IF overlapping IS NOT NULL THEN
+        RAISE EXCEPTION ''Подтвержденные бронирования пересекаются (id пар): %. Разрешите пересечения, например, скриптом postgres/migrations/reject_overlapping_approved_bookings.sql'', overlapping;
+    END IF;
+
+    ALTER TABLE bookings
+        ADD CONSTRAINT ex_booking_approved_period
+            EXCLUDE USING gist (item_id WITH =, tsrange(start_time, end_time) WITH &&)
+            WHERE (status = ''APPROVED'');
+END';
+
+CREATE INDEX IF NOT EXISTS ix_items_request_id ON items (request_id) WHERE request_id IS NOT NULL;
+
+-- Bookings of an item are indexed by ix_bookings_item_status_start_end (schema.sql), which answers the last and
+-- next booking lookups and the comment check, by ix_bookings_item_accepted_end below, which answers the range of
+-- findAllAcceptedPeriodsByItemId from its end, and by the GiST index of ex_booking_approved_period, which answers
+-- the overlap checks. The former ix_bookings_item_accepted_start only repeated the first of them.
+DROP INDEX IF EXISTS ix_bookings_item_accepted_start;
+
+-- The expirer reads waiting bookings by start in findAllExpiring.
+CREATE INDEX IF NOT EXISTS ix_bookings_waiting_start ON bookings (start_time, id)
+    WHERE status = 'WAITING';
+
+CREATE INDEX IF NOT EXISTS ix_bookings_item_accepted_end ON bookings (item_id, end_time, start_time)
+    WHERE status IN ('APPROVED', 'WAITING');
@@ -16,6 +16,8 @@ CREATE TABLE IF NOT EXISTS requests
     CONSTRAINT pk_item_request PRIMARY KEY (id)
 );
 
+CREATE SEQUENCE IF NOT EXISTS items_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS items
 (
     id          BIGINT GENERATED BY DEFAULT AS IDENTITY,
@@ -46,4 +48,27 @@ CREATE TABLE IF NOT EXISTS comments
     author_id BIGINT                      NOT NULL REFERENCES users (id) ON DELETE CASCADE,
     created   TIMESTAMP WITHOUT TIME ZONE NOT NULL,
     CONSTRAINT pk_comment PRIMARY KEY (id)
-);
\ No newline at end of file
+);
+
+CREATE TABLE IF NOT EXISTS request_suggestions
+(
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    request_id BIGINT           NOT NULL REFERENCES requests (id) ON DELETE CASCADE,
+    item_id    BIGINT           NOT NULL REFERENCES items (id) ON DELETE CASCADE,
+    score      DOUBLE PRECISION NOT NULL,
+    CONSTRAINT pk_request_suggestion PRIMARY KEY (id)
+);
+
+CREATE INDEX IF NOT EXISTS ix_requests_requester_created ON requests (requester_id, created DESC, id DESC);
+CREATE INDEX IF NOT EXISTS ix_requests_created ON requests (created DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS ix_items_owner_id ON items (owner_id, id);
+
+CREATE INDEX IF NOT EXISTS ix_bookings_booker_start_end ON bookings (booker_id, start_time DESC, id DESC, end_time);
+CREATE INDEX IF NOT EXISTS ix_bookings_item_status_start_end ON bookings (item_id, status, start_time, end_time);
+
+CREATE INDEX IF NOT EXISTS ix_comments_item_id ON comments (item_id, id);
+CREATE INDEX IF NOT EXISTS ix_comments_author_id ON comments (author_id);
+
+CREATE INDEX IF NOT EXISTS ix_request_suggestions_request_score ON request_suggestions (request_id, score DESC, item_id DESC);
+CREATE INDEX IF NOT EXISTS ix_request_suggestions_item_id ON request_suggestions (item_id);
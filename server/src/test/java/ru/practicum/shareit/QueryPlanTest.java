@@ -0,0 +1,264 @@
+package ru.practicum.shareit;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.model.BookingRole;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.dto.BookingState;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.common.model.Cursor;
+import ru.practicum.shareit.item.model.QItem;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.repository.RequestRepository;
+import ru.practicum.shareit.request.repository.SuggestionRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Runs {@code EXPLAIN} for the SQL of every repository query on a seeded database and fails
+ * if any table is read with a full scan instead of an index.
+ * <p>
+ * Not covered: the PostgreSQL-only queries (full-text search and the exclusion constraint lookup),
+ * the {@code LIKE} search of the QueryDSL backend, and the loads of whole tables at startup,
+ * such as the open requests for the match index.
+ */
+@Transactional
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+                "ru.practicum.shareit.QueryPlanTest$RecordingStatementInspector")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class QueryPlanTest {
+    private static final int USERS = 50;
+    private static final int ITEMS_PER_USER = 10;
+    private static final int BOOKINGS_PER_ITEM = 10;
+    private static final int COMMENTS_PER_ITEM = 3;
+    private static final List<String> STATEMENTS = new ArrayList<>();
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    BookingRepository bookingRepository;
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    @Autowired
+    CommentRepository commentRepository;
+
+    @Autowired
+    RequestRepository requestRepository;
+
+    @Autowired
+    SuggestionRepository suggestionRepository;
+
+    Long userId;
+    Long itemId;
+    Long requestId;
+    LocalDateTime now = LocalDateTime.of(2030, 6, 1, 0, 0);
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("INSERT INTO users (name, email) " +
+                "SELECT 'plan ' || x, 'plan' || x || '@mail.com' " +
+                "FROM SYSTEM_RANGE(1, ?)", USERS);
+        userId = jdbcTemplate.queryForObject(
+                "SELECT MIN(id) FROM users WHERE email LIKE 'plan%@mail.com'", Long.class);
+
+        jdbcTemplate.update("INSERT INTO requests (description, requester_id, created) " +
+                "SELECT 'Нужна вещь ' || x, u.id, TIMESTAMP '2030-01-01 00:00:00' + x * INTERVAL '1' HOUR " +
+                "FROM users AS u " +
+                "JOIN SYSTEM_RANGE(1, 5) ON TRUE " +
+                "WHERE u.email LIKE 'plan%@mail.com'");
+        requestId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM requests", Long.class);
+
+        jdbcTemplate.update("INSERT INTO items (name, description, available, owner_id, request_id) " +
+                "SELECT 'Вещь ' || x, 'Описание ' || x, TRUE, u.id, " +
+                "CASE WHEN x = 1 THEN (SELECT MIN(r.id) FROM requests AS r WHERE r.requester_id = u.id) END " +
+                "FROM users AS u " +
+                "JOIN SYSTEM_RANGE(1, ?) ON TRUE " +
+                "WHERE u.email LIKE 'plan%@mail.com'", ITEMS_PER_USER);
+        itemId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM items WHERE owner_id = ?", Long.class, userId);
+
+        jdbcTemplate.update("INSERT INTO bookings (start_time, end_time, item_id, booker_id, status) " +
+                "SELECT TIMESTAMP '2030-01-01 00:00:00' + x * INTERVAL '1' DAY, " +
+                "TIMESTAMP '2030-01-02 00:00:00' + x * INTERVAL '1' DAY, i.id, " +
+                "(SELECT MIN(u.id) FROM users AS u WHERE u.email LIKE 'plan%@mail.com') + MOD(i.id + x, ?), " +
+                "CASE MOD(x, 3) WHEN 0 THEN 'APPROVED' WHEN 1 THEN 'WAITING' ELSE 'REJECTED' END " +
+                "FROM items AS i " +
+                "JOIN SYSTEM_RANGE(1, ?) ON TRUE " +
+                "WHERE i.name LIKE 'Вещь %'", USERS, BOOKINGS_PER_ITEM);
+
+        jdbcTemplate.update("INSERT INTO comments (text, item_id, author_id, created) " +
+                "SELECT 'Отзыв ' || x, i.id, i.owner_id, TIMESTAMP '2030-01-01 00:00:00' " +
+                "FROM items AS i " +
+                "JOIN SYSTEM_RANGE(1, ?) ON TRUE " +
+                "WHERE i.name LIKE 'Вещь %'", COMMENTS_PER_ITEM);
+    }
+
+    @Test
+    void bookingRepository_findAllAcceptedByItemId() {
+        assertUsesIndexes(() -> bookingRepository.findAllAcceptedByItemId(itemId));
+    }
+
+    @Test
+    void bookingRepository_findFirstLastAndNextAccepted() {
+        Set<BookingStatus> statuses = Set.of(BookingStatus.APPROVED, BookingStatus.WAITING);
+
+        assertUsesIndexes(() -> bookingRepository
+                .findFirstByItemIdAndStatusInAndStartBeforeOrderByStartDescIdAsc(itemId, statuses, now));
+        assertUsesIndexes(() -> bookingRepository
+                .findFirstByItemIdAndStatusInAndStartAfterOrderByStartAscIdAsc(itemId, statuses, now));
+    }
+
+    @Test
+    void bookingRepository_findAllAcceptedPeriodsByItemId() {
+        assertUsesIndexes(() -> bookingRepository.findAllAcceptedPeriodsByItemId(itemId, now, now.plusDays(7)));
+    }
+
+    @Test
+    void bookingRepository_findAllLastAndNextAcceptedByItemIdIn() {
+        List<Long> itemIds = List.of(itemId, itemId + 1, itemId + 2);
+
+        assertUsesIndexes(() -> bookingRepository.findAllLastAcceptedByItemIdIn(itemIds, now));
+        assertUsesIndexes(() -> bookingRepository.findAllNextAcceptedByItemIdIn(itemIds, now));
+    }
+
+    @Test
+    void bookingRepository_countAllPrevious() {
+        assertUsesIndexes(() -> bookingRepository.countAllPrevious(itemId, userId));
+    }
+
+    @Test
+    void bookingRepository_findAllWithItemAndBooker() {
+        Cursor cursor = Cursor.of(now, Long.MAX_VALUE);
+
+        for (BookingRole role : BookingRole.values()) {
+            for (BookingState state : BookingState.values()) {
+                assertUsesIndexes(() -> bookingRepository.findAllWithItemAndBooker(role, state, userId, now, null,
+                        PageRequest.of(1, 10)));
+                assertUsesIndexes(() -> bookingRepository.findAllWithItemAndBooker(role, state, userId, now, cursor,
+                        PageRequest.of(0, 10)));
+            }
+        }
+    }
+
+    @Test
+    void bookingRepository_countPeriods() {
+        assertUsesIndexes(() -> bookingRepository.countPeriodsByBookerId(userId, now));
+        assertUsesIndexes(() -> bookingRepository.countPeriodsByOwnerId(userId, now));
+        assertUsesIndexes(() -> bookingRepository.countAllByItemIdGroupByBookerIdAndOwnerIdAndStatus(itemId));
+    }
+
+    @Test
+    void bookingRepository_findAllExpiring() {
+        assertUsesIndexes(() -> bookingRepository.findAllExpiring(now, PageRequest.of(0, 100)));
+    }
+
+    @Test
+    void bookingRepository_findById() {
+        Long bookingId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM bookings", Long.class);
+
+        assertUsesIndexes(() -> bookingRepository.findById(bookingId));
+    }
+
+    @Test
+    void itemRepository_findByIdWithOwner() {
+        assertUsesIndexes(() -> itemRepository.findByIdWithOwner(itemId));
+    }
+
+    @Test
+    void itemRepository_findAllDtoByOwnerId() {
+        assertUsesIndexes(() -> itemRepository.findAllDtoByOwnerId(userId, PageRequest.of(0, 10)));
+        assertUsesIndexes(() -> itemRepository.findAllDtoByOwnerIdAfter(userId, itemId, PageRequest.of(0, 10)));
+        assertUsesIndexes(() -> itemRepository.findAllDto(QItem.item.owner.id.eq(userId), PageRequest.of(0, 10)));
+    }
+
+    @Test
+    void itemRepository_findAllDtoByRequestId() {
+        Long itemRequestId = jdbcTemplate.queryForObject(
+                "SELECT MIN(request_id) FROM items WHERE owner_id = ?", Long.class, userId);
+
+        assertUsesIndexes(() -> itemRepository.findAllDtoByRequestId(itemRequestId));
+    }
+
+    @Test
+    void itemRepository_findAllDtoByRequestIdIn() {
+        List<Long> itemRequestIds = jdbcTemplate.queryForList(
+                "SELECT request_id FROM items WHERE request_id IS NOT NULL ORDER BY request_id LIMIT 10", Long.class);
+
+        assertUsesIndexes(() -> itemRepository.findAllDtoByRequestIdIn(itemRequestIds));
+    }
+
+    @Test
+    void commentRepository_findAllDtoByItemIdAndCount() {
+        assertUsesIndexes(() -> commentRepository.findAllDtoByItemId(itemId, PageRequest.of(0, 10)));
+        assertUsesIndexes(() -> commentRepository.countByItemId(itemId));
+    }
+
+    @Test
+    void requestRepository_findAllByRequesterId() {
+        assertUsesIndexes(() -> requestRepository.findAllByRequesterIdOrderByCreatedDesc(userId));
+    }
+
+    @Test
+    void requestRepository_findAllByRequesterIdNot() {
+        assertUsesIndexes(() -> requestRepository.findAllByRequesterIdNot(userId,
+                PageRequest.of(1, 10)));
+        assertUsesIndexes(() -> requestRepository.findAllByRequesterIdNotAfter(userId, now, requestId,
+                PageRequest.of(0, 10)));
+    }
+
+    @Test
+    void requestRepository_findAllByOrderByCreatedDescIdDesc() {
+        assertUsesIndexes(() -> requestRepository.findAllByOrderByCreatedDescIdDesc(PageRequest.of(0, 20)));
+    }
+
+    @Test
+    void suggestionRepository_findAllItemDtoByRequestIdAndDelete() {
+        jdbcTemplate.update("INSERT INTO request_suggestions (request_id, item_id, score) " +
+                "SELECT r.id, i.id, 1.0 " +
+                "FROM requests AS r " +
+                "JOIN items AS i ON i.owner_id <> r.requester_id AND MOD(i.id + r.id, 50) = 0");
+
+        assertUsesIndexes(() -> suggestionRepository.findAllItemDtoByRequestId(requestId, PageRequest.of(0, 10)));
+        assertUsesIndexes(() -> suggestionRepository.deleteAllByItemId(itemId));
+    }
+
+    private void assertUsesIndexes(Runnable query) {
+        STATEMENTS.clear();
+        query.run();
+        assertFalse(STATEMENTS.isEmpty());
+
+        for (String sql : new ArrayList<>(STATEMENTS)) {
+            String plan = jdbcTemplate.query(connection -> connection.prepareStatement("EXPLAIN " + sql),
+                    resultSet -> resultSet.next() ? resultSet.getString(1) : "");
+
+            assertFalse(plan.contains(".tableScan"), () -> "Полный просмотр таблицы в плане запроса:\n" + plan);
+        }
+    }
+
+    public static class RecordingStatementInspector implements StatementInspector {
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package ru.practicum.shareit.booking.conflict;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the overlap check of an item with many approved bookings: a linear scan over all of them,
+ * which is what a query without a suitable index does, and a lookup in {@link BookingIntervalTree}.
+ * Runs only on demand:
+ * <pre>
+ * BENCHMARK=true mvn -pl server test -Dtest=BookingConflictBenchmarkTest
+ * </pre>
+ */
+@Slf4j
+@EnabledIfEnvironmentVariable(named = "BENCHMARK", matches = "true")
+class BookingConflictBenchmarkTest {
+    private static final int BOOKINGS = 100_000;
+    private static final int QUERIES = 2_000;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    @Test
+    void compareLinearScanAndIntervalTree() {
+        // GIVEN
+        Random random = new Random(7);
+        BookingIntervalTree tree = new BookingIntervalTree();
+        List<LocalDateTime[]> periods = new ArrayList<>(BOOKINGS);
+        for (long id = 1; id <= BOOKINGS; id++) {
+            LocalDateTime start = BASE.plusHours(id * 3);
+            LocalDateTime end = start.plusHours(1 + random.nextInt(2));
+            tree.insert(id, start, end);
+            periods.add(new LocalDateTime[]{start, end});
+        }
+
+        List<LocalDateTime[]> queries = new ArrayList<>(QUERIES);
+        for (int i = 0; i < QUERIES; i++) {
+            LocalDateTime start = BASE.plusHours(random.nextInt(BOOKINGS * 3));
+            queries.add(new LocalDateTime[]{start, start.plusHours(1)});
+        }
+
+        // WHEN
+        long linearNanos = 0;
+        long treeNanos = 0;
+        int linearOverlaps = 0;
+        int treeOverlaps = 0;
+        for (int round = 0; round <= WARMUP_ROUNDS; round++) {
+            long linearStarted = System.nanoTime();
+            linearOverlaps = 0;
+            for (LocalDateTime[] query : queries) {
+                if (linearScan(periods, query[0], query[1])) {
+                    linearOverlaps++;
+                }
+            }
+            linearNanos = System.nanoTime() - linearStarted;
+
+            long treeStarted = System.nanoTime();
+            treeOverlaps = 0;
+            for (LocalDateTime[] query : queries) {
+                if (tree.overlaps(query[0], query[1])) {
+                    treeOverlaps++;
+                }
+            }
+            treeNanos = System.nanoTime() - treeStarted;
+        }
+
+        // THEN
+        log.info("Проверка пересечений ({} броней, {} проверок): перебор {} мкс на проверку, дерево {} мкс на проверку",
+                BOOKINGS, QUERIES, linearNanos / QUERIES / 1_000.0, treeNanos / QUERIES / 1_000.0);
+
+        assertEquals(linearOverlaps, treeOverlaps);
+    }
+
+    private static boolean linearScan(List<LocalDateTime[]> periods, LocalDateTime start, LocalDateTime end) {
+        for (LocalDateTime[] period : periods) {
+            if (period[0].isBefore(end) && period[1].isAfter(start)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,96 @@
+package ru.practicum.shareit.booking.conflict;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BookingIntervalTreeTest {
+    private static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    @Test
+    void overlaps_whenPeriodsTouch_thenReturnFalse() {
+        BookingIntervalTree tree = new BookingIntervalTree();
+        tree.insert(1L, hour(10), hour(12));
+
+        assertFalse(tree.overlaps(hour(8), hour(10)));
+        assertFalse(tree.overlaps(hour(12), hour(14)));
+    }
+
+    @Test
+    void overlaps_whenPeriodsIntersect_thenReturnTrue() {
+        BookingIntervalTree tree = new BookingIntervalTree();
+        tree.insert(1L, hour(10), hour(12));
+
+        assertTrue(tree.overlaps(hour(9), hour(11)));
+        assertTrue(tree.overlaps(hour(11), hour(13)));
+        assertTrue(tree.overlaps(hour(10), hour(12)));
+        assertTrue(tree.overlaps(hour(9), hour(13)));
+        assertTrue(tree.overlaps(hour(11), hour(11).plusMinutes(1)));
+    }
+
+    @Test
+    void overlaps_whenLongPeriodHiddenInLeftSubtree_thenReturnTrue() {
+        BookingIntervalTree tree = new BookingIntervalTree();
+        tree.insert(1L, hour(0), hour(100));
+        for (long i = 2; i < 20; i++) {
+            tree.insert(i, hour(i * 2), hour(i * 2 + 1));
+        }
+
+        assertTrue(tree.overlaps(hour(60), hour(61)));
+    }
+
+    @Test
+    void remove_whenBookingRemoved_thenPeriodIsFree() {
+        BookingIntervalTree tree = new BookingIntervalTree();
+        tree.insert(1L, hour(10), hour(12));
+        tree.insert(2L, hour(10), hour(11));
+
+        tree.remove(1L, hour(10));
+
+        assertEquals(1, tree.size());
+        assertFalse(tree.overlaps(hour(11), hour(12)));
+        assertTrue(tree.overlaps(hour(10), hour(11)));
+
+        tree.remove(2L, hour(10));
+
+        assertTrue(tree.isEmpty());
+        assertFalse(tree.overlaps(hour(0), hour(100)));
+    }
+
+    @Test
+    void overlaps_whenRandomPeriods_thenMatchLinearScan() {
+        Random random = new Random(42);
+        BookingIntervalTree tree = new BookingIntervalTree();
+        List<long[]> periods = new ArrayList<>();
+        for (long id = 1; id <= 2_000; id++) {
+            long start = random.nextInt(10_000);
+            long end = start + 1 + random.nextInt(20);
+            tree.insert(id, hour(start), hour(end));
+            periods.add(new long[]{id, start, end});
+        }
+        for (int i = 0; i < 500; i++) {
+            long[] removed = periods.remove(random.nextInt(periods.size()));
+            tree.remove(removed[0], hour(removed[1]));
+        }
+
+        for (int i = 0; i < 5_000; i++) {
+            long start = random.nextInt(10_000);
+            long end = start + 1 + random.nextInt(20);
+
+            boolean expected = periods.stream().anyMatch(period -> period[1] < end && period[2] > start);
+            assertEquals(expected, tree.overlaps(hour(start), hour(end)));
+        }
+        assertEquals(periods.size(), tree.size());
+    }
+
+    private static LocalDateTime hour(long hour) {
+        return BASE.plusHours(hour);
+    }
+}
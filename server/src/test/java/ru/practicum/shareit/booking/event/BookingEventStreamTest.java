@@ -0,0 +1,278 @@
+package ru.practicum.shareit.booking.event;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.dto.BookingItemIdAndTimeDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.model.dto.ItemRequestIdDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.model.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Opens real {@code GET /bookings/stream} connections for the owner and the booker and checks that
+ * a created and then approved booking reaches both of them, and that open streams hold no database connection.
+ * <p>
+ * The test of a closed connection runs last: Tomcat finishes such a connection asynchronously, after the write
+ * that failed on it, and the streams opened meanwhile by another test could be closed with it.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class BookingEventStreamTest {
+    final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .build();
+    final List<LineQueue> streams = new ArrayList<>();
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    BookingService bookingService;
+
+    @Autowired
+    ItemService itemService;
+
+    @Autowired
+    UserService userService;
+
+    @Autowired
+    BookingEventStream bookingEventStream;
+
+    @Autowired
+    HikariDataSource dataSource;
+
+    Long ownerId;
+    Long bookerId;
+    Long itemId;
+
+    @BeforeEach
+    void setUp() {
+        ownerId = userService.create(UserDto.builder()
+                .name("owner")
+                .email("stream-owner@mail.com")
+                .build()).getId();
+        bookerId = userService.create(UserDto.builder()
+                .name("booker")
+                .email("stream-booker@mail.com")
+                .build()).getId();
+        itemId = itemService.create(ownerId, ItemRequestIdDto.builder()
+                .name("item")
+                .description("item description")
+                .available(true)
+                .build()).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        streams.forEach(LineQueue::close);
+        userService.delete(bookerId);
+        userService.delete(ownerId);
+    }
+
+    @Test
+    void stream_whenBookingCreatedAndApproved_thenOwnerAndBookerReceiveEvents() throws Exception {
+        // GIVEN
+        BlockingQueue<String> ownerLines = open(ownerId);
+        BlockingQueue<String> bookerLines = open(bookerId);
+        assertEquals("retry:3000", ownerLines.poll(10, TimeUnit.SECONDS));
+        assertEquals("retry:3000", bookerLines.poll(10, TimeUnit.SECONDS));
+
+        // WHEN
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Long bookingId = bookingService.create(bookerId,
+                new BookingItemIdAndTimeDto(itemId, start, start.plusDays(1))).getId();
+        bookingService.updateStatus(ownerId, bookingId, true);
+
+        // THEN
+        for (BlockingQueue<String> lines : List.of(ownerLines, bookerLines)) {
+            String created = nextEvent(lines);
+            assertTrue(created.startsWith("event:CREATED\ndata:{\"bookingId\":" + bookingId), created);
+            assertTrue(created.contains("\"status\":\"WAITING\""), created);
+
+            String approved = nextEvent(lines);
+            assertTrue(approved.startsWith("event:STATUS_CHANGED\ndata:{\"bookingId\":" + bookingId), approved);
+            assertTrue(approved.contains("\"status\":\"APPROVED\""), approved);
+        }
+    }
+
+    @Test
+    void stream_whenOpen_thenHoldNoDatabaseConnection() throws Exception {
+        // GIVEN
+        BlockingQueue<String> ownerLines = open(ownerId);
+        BlockingQueue<String> bookerLines = open(bookerId);
+
+        // WHEN
+        assertNotNull(ownerLines.poll(10, TimeUnit.SECONDS));
+        assertNotNull(bookerLines.poll(10, TimeUnit.SECONDS));
+
+        // THEN
+        assertEquals(0, dataSource.getHikariPoolMXBean().getActiveConnections());
+    }
+
+    @Test
+    void stream_whenUserNotFound_thenStatusNotFound() throws Exception {
+        HttpResponse<String> response = httpClient.send(request(-1L), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(404, response.statusCode());
+    }
+
+    @Test
+    void publish_whenClientStalled_thenReturnAtOnceAndDropConnection() throws Exception {
+        // GIVEN
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BookingEventStream stream = new BookingEventStream(Duration.ofMinutes(1), 1, 2, meterRegistry);
+        StalledEmitter emitter = new StalledEmitter();
+        stream.register(ownerId, emitter);
+
+        // WHEN
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            for (long bookingId = 1; bookingId <= 4; bookingId++) {
+                stream.publish(new BookingEvent(BookingEventType.CREATED, bookingId, itemId, bookerId, ownerId,
+                        BookingStatus.WAITING));
+            }
+        });
+
+        // THEN
+        assertEquals(0, stream.size());
+        assertEquals(1, meterRegistry.counter("booking.stream.dropped").count());
+        emitter.release.countDown();
+        assertTrue(emitter.completed.await(10, TimeUnit.SECONDS));
+        stream.shutdown();
+    }
+
+    @Test
+    @Order(Integer.MAX_VALUE)
+    void stream_whenConnectionClosed_thenDropIt() throws Exception {
+        // GIVEN
+        int connections = bookingEventStream.size();
+        BlockingQueue<String> lines = open(ownerId);
+        assertNotNull(lines.poll(10, TimeUnit.SECONDS));
+        assertEquals(connections + 1, bookingEventStream.size());
+
+        // WHEN
+        streams.forEach(LineQueue::close);
+        for (int i = 0; i < 50 && bookingEventStream.size() > connections; i++) {
+            LocalDateTime start = LocalDateTime.now().plusDays(i + 1);
+            bookingService.create(bookerId, new BookingItemIdAndTimeDto(itemId, start, start.plusHours(1)));
+            TimeUnit.MILLISECONDS.sleep(100);
+        }
+
+        // THEN
+        assertEquals(connections, bookingEventStream.size());
+    }
+
+    private BlockingQueue<String> open(Long userId) {
+        LineQueue lines = new LineQueue();
+        httpClient.sendAsync(request(userId), HttpResponse.BodyHandlers.fromLineSubscriber(lines));
+        streams.add(lines);
+
+        return lines;
+    }
+
+    private HttpRequest request(Long userId) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/bookings/stream"))
+                .header("X-Sharer-User-Id", String.valueOf(userId))
+                .build();
+    }
+
+    private static String nextEvent(BlockingQueue<String> lines) throws InterruptedException {
+        StringBuilder event = new StringBuilder();
+        String line;
+        while ((line = lines.poll(10, TimeUnit.SECONDS)) != null) {
+            if (line.isEmpty()) {
+                if (event.length() > 0) {
+                    return event.toString();
+                }
+                continue;
+            }
+            if (event.length() > 0) {
+                event.append('\n');
+            }
+            event.append(line);
+        }
+
+        return event.toString();
+    }
+
+    private static class LineQueue extends LinkedBlockingQueue<String> implements Flow.Subscriber<String> {
+        private volatile Flow.Subscription subscription;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(String line) {
+            add(line);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+
+        @Override
+        public void onComplete() {
+        }
+
+        void close() {
+            if (subscription != null) {
+                subscription.cancel();
+            }
+        }
+    }
+
+    private static class StalledEmitter extends SseEmitter {
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch completed = new CountDownLatch(1);
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package ru.practicum.shareit.booking.expiry;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.event.BookingEvent;
+import ru.practicum.shareit.booking.event.BookingEventType;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.summary.BookingStatusCounters;
+import ru.practicum.shareit.item.cache.ItemDetailsCache;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class WaitingBookingExpirerTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2020, 1, 1, 12, 0);
+
+    private final BookingRepository bookingRepository = mock(BookingRepository.class);
+    private final BookingStatusCounters bookingStatusCounters = mock(BookingStatusCounters.class);
+    private final ItemDetailsCache itemDetailsCache = mock(ItemDetailsCache.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final WaitingBookingExpirer expirer = new WaitingBookingExpirer(bookingRepository, bookingStatusCounters,
+            itemDetailsCache, eventPublisher, new TransactionTemplate(mock(PlatformTransactionManager.class)), 2, meterRegistry);
+
+    @Test
+    void expire_whenMoreBookingsThanBatch_thenCancelInSeveralBatches() {
+        when(bookingRepository.findAllExpiring(NOW, PageRequest.of(0, 2)))
+                .thenReturn(List.of(booking(1L, 10L), booking(2L, 10L)))
+                .thenReturn(List.of(booking(3L, 20L)));
+        when(bookingRepository.cancelAllWaitingByIdIn(anyCollection())).thenReturn(2, 1);
+
+        int cancelled = expirer.expire(NOW);
+
+        assertEquals(3, cancelled);
+        verify(bookingRepository, times(2)).findAllExpiring(NOW, PageRequest.of(0, 2));
+        verify(bookingRepository).cancelAllWaitingByIdIn(Set.of(1L, 2L));
+        verify(bookingRepository).cancelAllWaitingByIdIn(Set.of(3L));
+        verify(bookingStatusCounters, times(3)).move(100L, 200L, BookingStatus.WAITING, BookingStatus.CANCELED);
+        verify(itemDetailsCache).evictOwnerView(10L);
+        verify(itemDetailsCache).evictOwnerView(20L);
+        assertEquals(3.0, meterRegistry.get("booking.expiry.expired").counter().count());
+        assertEquals(3L, meterRegistry.get("booking.expiry.lag").timer().count());
+    }
+
+    @Test
+    void expire_whenBookingAnsweredBeforeUpdate_thenSkipItAndStop() {
+        when(bookingRepository.findAllExpiring(NOW, PageRequest.of(0, 2)))
+                .thenReturn(List.of(booking(1L, 10L), booking(2L, 20L)));
+        when(bookingRepository.cancelAllWaitingByIdIn(Set.of(1L, 2L))).thenReturn(1);
+        when(bookingRepository.findAllIdsByIdInAndStatus(Set.of(1L, 2L), BookingStatus.CANCELED))
+                .thenReturn(List.of(2L));
+
+        int cancelled = expirer.expire(NOW);
+
+        assertEquals(1, cancelled);
+        verify(bookingRepository, times(1)).findAllExpiring(NOW, PageRequest.of(0, 2));
+        verify(bookingStatusCounters, only()).move(100L, 200L, BookingStatus.WAITING, BookingStatus.CANCELED);
+        verify(itemDetailsCache, only()).evictOwnerView(20L);
+        verify(eventPublisher, only()).publishEvent(new BookingEvent(BookingEventType.STATUS_CHANGED, 2L, 20L,
+                100L, 200L, BookingStatus.CANCELED));
+    }
+
+    @Test
+    void expire_whenNothingStarted_thenDoNothing() {
+        when(bookingRepository.findAllExpiring(NOW, PageRequest.of(0, 2))).thenReturn(List.of());
+
+        assertEquals(0, expirer.expire(NOW));
+        verify(bookingRepository, never()).cancelAllWaitingByIdIn(anyCollection());
+        verifyNoInteractions(bookingStatusCounters, itemDetailsCache, eventPublisher);
+    }
+
+    private static ExpiringBooking booking(Long id, Long itemId) {
+        return new ExpiringBooking(id, itemId, 100L, 200L, NOW.minusHours(id));
+    }
+}
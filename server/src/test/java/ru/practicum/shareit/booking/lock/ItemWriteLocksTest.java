@@ -0,0 +1,144 @@
+package ru.practicum.shareit.booking.lock;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.common.exception.BadRequestException;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class ItemWriteLocksTest {
+    private static final Duration TIMEOUT = Duration.ofMillis(200);
+
+    final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    final ItemWriteLocks itemWriteLocks = new ItemWriteLocks(TIMEOUT, meterRegistry);
+    ExecutorService executor;
+    CountDownLatch locked;
+    CountDownLatch release;
+    Future<?> holder;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newSingleThreadExecutor();
+        locked = new CountDownLatch(1);
+        release = new CountDownLatch(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void lock_whenOtherItemLocked_thenDoNotWait() throws Exception {
+        // GIVEN
+        holdInOtherTransaction(1L);
+
+        // WHEN
+        long started = System.nanoTime();
+        TransactionSynchronizationManager.initSynchronization();
+        itemWriteLocks.lock(2L);
+        long waited = System.nanoTime() - started;
+
+        // THEN
+        assertTrue(waited < TIMEOUT.toNanos());
+        assertEquals(2, itemWriteLocks.size());
+        assertEquals(0, contended());
+
+        complete();
+        release.countDown();
+        holder.get(1, TimeUnit.SECONDS);
+        assertEquals(0, itemWriteLocks.size());
+    }
+
+    @Test
+    void lock_whenSameItemLocked_thenThrowBadRequestExceptionAfterTimeout() throws Exception {
+        // GIVEN
+        holdInOtherTransaction(1L);
+
+        // WHEN
+        TransactionSynchronizationManager.initSynchronization();
+        BadRequestException badRequestException = assertThrows(BadRequestException.class,
+                () -> itemWriteLocks.lock(1L));
+
+        // THEN
+        assertEquals("Предмет с id 1 сейчас бронируют другие пользователи, повторите запрос позже",
+                badRequestException.getMessage());
+        assertEquals(1, itemWriteLocks.size());
+        assertEquals(1, contended());
+
+        release.countDown();
+        holder.get(1, TimeUnit.SECONDS);
+        assertEquals(0, itemWriteLocks.size());
+    }
+
+    @Test
+    void lock_whenHolderCompleted_thenNextWaiterAcquires() throws Exception {
+        // GIVEN
+        holdInOtherTransaction(1L);
+
+        // WHEN
+        release.countDown();
+        TransactionSynchronizationManager.initSynchronization();
+        itemWriteLocks.lock(1L);
+
+        // THEN
+        holder.get(1, TimeUnit.SECONDS);
+        assertEquals(1, itemWriteLocks.size());
+
+        complete();
+        assertEquals(0, itemWriteLocks.size());
+    }
+
+    @Test
+    void lock_whenNoTransaction_thenThrowIllegalStateException() {
+        assertThrows(IllegalStateException.class, () -> itemWriteLocks.lock(1L));
+        assertEquals(0, itemWriteLocks.size());
+    }
+
+    private void holdInOtherTransaction(Long itemId) throws InterruptedException {
+        holder = executor.submit(() -> {
+            TransactionSynchronizationManager.initSynchronization();
+            try {
+                itemWriteLocks.lock(itemId);
+                locked.countDown();
+                release.await();
+            } finally {
+                complete();
+            }
+
+            return null;
+        });
+        assertTrue(locked.await(1, TimeUnit.SECONDS));
+    }
+
+    private double contended() {
+        return meterRegistry.get("booking.item.lock.contended").counter().count();
+    }
+
+    private static void complete() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+}
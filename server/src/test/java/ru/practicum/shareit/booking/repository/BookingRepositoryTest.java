@@ -14,6 +14,7 @@ import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -88,4 +89,38 @@ class BookingRepositoryTest {
 
         assertEquals(1, actualCount);
     }
-}
\ No newline at end of file
+
+    @Test
+    void findAllLastAcceptedByItemIdIn() {
+        List<Booking> actualBookingList = bookingRepository.findAllLastAcceptedByItemIdIn(
+                List.of(savedItem.getId()), LocalDateTime.now());
+
+        assertEquals(List.of(savedBooking2), actualBookingList);
+    }
+
+    @Test
+    void findAllNextAcceptedByItemIdIn() {
+        List<Booking> actualBookingList = bookingRepository.findAllNextAcceptedByItemIdIn(
+                List.of(savedItem.getId()), LocalDateTime.now());
+
+        assertEquals(List.of(savedBooking), actualBookingList);
+    }
+
+    @Test
+    void findFirstByItemIdAndStatusInAndStartBeforeOrderByStartDescIdAsc() {
+        Optional<Booking> actualBooking = bookingRepository
+                .findFirstByItemIdAndStatusInAndStartBeforeOrderByStartDescIdAsc(
+                        savedItem.getId(), List.of(BookingStatus.APPROVED, BookingStatus.WAITING), LocalDateTime.now());
+
+        assertEquals(Optional.of(savedBooking2), actualBooking);
+    }
+
+    @Test
+    void findFirstByItemIdAndStatusInAndStartAfterOrderByStartAscIdAsc() {
+        Optional<Booking> actualBooking = bookingRepository
+                .findFirstByItemIdAndStatusInAndStartAfterOrderByStartAscIdAsc(
+                        savedItem.getId(), List.of(BookingStatus.APPROVED, BookingStatus.WAITING), LocalDateTime.now());
+
+        assertEquals(Optional.of(savedBooking), actualBooking);
+    }
+}
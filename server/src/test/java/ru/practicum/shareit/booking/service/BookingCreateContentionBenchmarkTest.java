@@ -0,0 +1,150 @@
+package ru.practicum.shareit.booking.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.dto.BookingItemIdAndTimeDto;
+import ru.practicum.shareit.booking.summary.BookingStatusCounters;
+import ru.practicum.shareit.item.model.dto.ItemRequestIdDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.model.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Creates bookings from a fixed number of threads while changing how many of them book the same item,
+ * from every thread on its own item to all threads on one item, and reports the throughput of each round.
+ * Creates for one item are serialized, so the rounds show what that costs compared to creates spread
+ * over many items; every create of every round must succeed, and while every thread books its own item
+ * no create may wait for another. Runs only on demand:
+ * <pre>
+ * BENCHMARK=true mvn -pl server test -Dtest=BookingCreateContentionBenchmarkTest
+ * </pre>
+ */
+@Slf4j
+@EnabledIfEnvironmentVariable(named = "BENCHMARK", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class BookingCreateContentionBenchmarkTest {
+    private static final int THREADS = 16;
+    private static final int BOOKINGS_PER_THREAD = 20;
+    private static final int[] BOOKERS_PER_ITEM = {1, 4, 16};
+
+    final BookingService bookingService;
+    final ItemService itemService;
+    final UserService userService;
+    final BookingStatusCounters bookingStatusCounters;
+    final MeterRegistry meterRegistry;
+
+    Long ownerId;
+    List<Long> bookerIds;
+    List<Long> itemIds;
+
+    @BeforeEach
+    void setUp() {
+        ownerId = userService.create(UserDto.builder()
+                .name("owner")
+                .email("contention-owner@mail.com")
+                .build()).getId();
+
+        bookerIds = new ArrayList<>();
+        itemIds = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            bookerIds.add(userService.create(UserDto.builder()
+                    .name("booker " + i)
+                    .email("contention-booker" + i + "@mail.com")
+                    .build()).getId());
+            itemIds.add(itemService.create(ownerId, ItemRequestIdDto.builder()
+                    .name("item " + i)
+                    .description("item description")
+                    .available(true)
+                    .build()).getId());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (Long bookerId : bookerIds) {
+            userService.delete(bookerId);
+        }
+        userService.delete(ownerId);
+    }
+
+    @Test
+    void create_whenBookersShareItem_thenReportThroughput() throws Exception {
+        long created = 0;
+        for (int bookersPerItem : BOOKERS_PER_ITEM) {
+            // WHEN
+            double contendedBefore = contended();
+            long elapsedNanos = createConcurrently(bookersPerItem);
+            double contended = contended() - contendedBefore;
+            created += THREADS * BOOKINGS_PER_THREAD;
+
+            // THEN
+            log.info("Создание броней ({} потоков, {} на предмет): {} броней в секунду, {} ожиданий блокировки",
+                    THREADS, bookersPerItem,
+                    Math.round(THREADS * BOOKINGS_PER_THREAD / (elapsedNanos / 1_000_000_000.0)), (long) contended);
+            assertEquals(created, bookingStatusCounters.getByOwnerId(ownerId).get(BookingStatus.WAITING));
+            if (bookersPerItem == 1) {
+                assertEquals(0, contended);
+            }
+        }
+    }
+
+    private double contended() {
+        return meterRegistry.get("booking.item.lock.contended").counter().count();
+    }
+
+    private long createConcurrently(int bookersPerItem) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch startSignal = new CountDownLatch(1);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                Long bookerId = bookerIds.get(thread);
+                Long itemId = itemIds.get(thread / bookersPerItem);
+                futures.add(executor.submit(() -> {
+                    startSignal.await();
+                    for (int i = 0; i < BOOKINGS_PER_THREAD; i++) {
+                        bookingService.create(bookerId, new BookingItemIdAndTimeDto(itemId,
+                                start.plusHours(i * 2L), start.plusHours(i * 2L + 1)));
+                    }
+
+                    return null;
+                }));
+            }
+
+            long started = System.nanoTime();
+            startSignal.countDown();
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+
+            return System.nanoTime() - started;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
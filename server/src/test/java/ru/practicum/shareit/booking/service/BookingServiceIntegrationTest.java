@@ -3,33 +3,57 @@ package ru.practicum.shareit.booking.service;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Slice;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.expiry.WaitingBookingExpirer;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.model.dto.BookingDto;
 import ru.practicum.shareit.booking.model.dto.BookingItemIdAndTimeDto;
 import ru.practicum.shareit.booking.model.dto.BookingState;
+import ru.practicum.shareit.booking.model.dto.BookingStatusResultDto;
+import ru.practicum.shareit.booking.model.dto.BookingStatusUpdateDto;
+import ru.practicum.shareit.booking.model.dto.BookingSummaryDto;
+import ru.practicum.shareit.common.exception.BadRequestException;
+import ru.practicum.shareit.common.model.Cursor;
 import ru.practicum.shareit.common.model.PaginationConfig;
+import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.model.dto.ItemRequestIdDto;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.model.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @Transactional
-@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 class BookingServiceIntegrationTest {
     BookingService bookingService;
     ItemService itemService;
     UserService userService;
+    EntityManager entityManager;
+    EntityManagerFactory entityManagerFactory;
+    WaitingBookingExpirer waitingBookingExpirer;
 
     PaginationConfig paginationConfig = new PaginationConfig();
 
@@ -85,15 +109,15 @@ class BookingServiceIntegrationTest {
         BookingDto bookingDto3 = bookingService.create(booker2Id, bookingItemIdAndTimeDto3);
 
         List<BookingDto> expectedBookingDtoListOfBooker1 =
-                bookingService.getAllByBookerId(bookerId, BookingState.ALL, paginationConfig);
+                bookingService.getAllByBookerId(bookerId, BookingState.ALL, paginationConfig).getContent();
 
         bookingService.updateStatus(ownerId, bookingDto.getId(), true);
 
         List<BookingDto> expectedBookingDtoListOfBooker1WhenStatusUpdated =
-                bookingService.getAllByBookerId(bookerId, BookingState.WAITING, paginationConfig);
+                bookingService.getAllByBookerId(bookerId, BookingState.WAITING, paginationConfig).getContent();
 
         List<BookingDto> expectedBookingDtoListOfBooker2 =
-                bookingService.getAllByBookerId(booker2Id, BookingState.ALL, paginationConfig);
+                bookingService.getAllByBookerId(booker2Id, BookingState.ALL, paginationConfig).getContent();
 
 
         assertEquals(2, expectedBookingDtoListOfBooker1.size());
@@ -115,4 +139,260 @@ class BookingServiceIntegrationTest {
         assertEquals(bookingDto3.getBooker().getId(), expectedBookingDtoListOfBooker2.get(0).getBooker().getId());
         assertEquals(bookingDto3.getItem(), expectedBookingDtoListOfBooker2.get(0).getItem());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getAllByBookerId_whenCursorGiven_thenReturnBookingsAfterCursor() {
+        // GIVEN
+        User owner = userService.create(UserDto.builder().name("owner").email("owner@mail.com").build());
+        User booker = userService.create(UserDto.builder().name("booker").email("booker@mail.com").build());
+
+        ItemRequestIdDto item = itemService.create(owner.getId(), ItemRequestIdDto.builder()
+                .name("test item name")
+                .description("test item description")
+                .available(true)
+                .build());
+
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+        BookingDto first = bookingService.create(booker.getId(),
+                new BookingItemIdAndTimeDto(item.getId(), start.plusDays(1), start.plusDays(2)));
+        BookingDto second = bookingService.create(booker.getId(),
+                new BookingItemIdAndTimeDto(item.getId(), start, start.plusDays(2)));
+        BookingDto third = bookingService.create(booker.getId(),
+                new BookingItemIdAndTimeDto(item.getId(), start, start.plusDays(3)));
+
+        PaginationConfig firstPage = new PaginationConfig();
+        firstPage.setSize(2);
+
+        // WHEN
+        Slice<BookingDto> firstBookings = bookingService.getAllByBookerId(booker.getId(), BookingState.ALL, firstPage);
+
+        BookingDto last = firstBookings.getContent().get(firstBookings.getNumberOfElements() - 1);
+        PaginationConfig nextPage = new PaginationConfig();
+        nextPage.setSize(2);
+        nextPage.setAfter(Cursor.of(last.getStart(), last.getId()).encode());
+
+        Slice<BookingDto> nextBookings = bookingService.getAllByBookerId(booker.getId(), BookingState.ALL, nextPage);
+
+        // THEN
+        assertEquals(List.of(first.getId(), third.getId()), toIds(firstBookings.getContent()));
+        assertTrue(firstBookings.hasNext());
+        assertEquals(List.of(second.getId()), toIds(nextBookings.getContent()));
+        assertFalse(nextBookings.hasNext());
+    }
+
+    @Test
+    void updateStatus_whenApprovedBookingsOverlap_thenRejectSecondApproval() {
+        // GIVEN
+        User owner = userService.create(UserDto.builder().name("owner").email("owner@mail.com").build());
+        User booker = userService.create(UserDto.builder().name("booker").email("booker@mail.com").build());
+        User booker2 = userService.create(UserDto.builder().name("booker2").email("booker2@mail.com").build());
+
+        ItemRequestIdDto item = itemService.create(owner.getId(), ItemRequestIdDto.builder()
+                .name("test item name")
+                .description("test item description")
+                .available(true)
+                .build());
+
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+        BookingDto first = bookingService.create(booker.getId(),
+                new BookingItemIdAndTimeDto(item.getId(), start, start.plusDays(2)));
+        BookingDto overlapping = bookingService.create(booker2.getId(),
+                new BookingItemIdAndTimeDto(item.getId(), start.plusDays(1), start.plusDays(3)));
+        BookingDto adjacent = bookingService.create(booker2.getId(),
+                new BookingItemIdAndTimeDto(item.getId(), start.plusDays(2), start.plusDays(3)));
+
+        // WHEN
+        bookingService.updateStatus(owner.getId(), first.getId(), true);
+
+        // THEN
+        BadRequestException approveException = assertThrows(BadRequestException.class,
+                () -> bookingService.updateStatus(owner.getId(), overlapping.getId(), true));
+        assertEquals("Предмет с id " + item.getId() + " уже забронирован на это время",
+                approveException.getMessage());
+
+        assertThrows(BadRequestException.class, () -> bookingService.create(booker2.getId(),
+                new BookingItemIdAndTimeDto(item.getId(), start.minusHours(1), start.plusHours(1))));
+
+        assertEquals(BookingStatus.APPROVED,
+                bookingService.updateStatus(owner.getId(), adjacent.getId(), true).getStatus());
+
+        bookingService.updateStatus(owner.getId(), first.getId(), false);
+        assertEquals(BookingStatus.REJECTED,
+                bookingService.updateStatus(owner.getId(), overlapping.getId(), false).getStatus());
+        assertEquals(BookingStatus.APPROVED, bookingService.updateStatus(owner.getId(),
+                bookingService.create(booker2.getId(), new BookingItemIdAndTimeDto(item.getId(),
+                        start, start.plusDays(1))).getId(), true).getStatus());
+    }
+
+    @Test
+    void getAll_whenPageOfHundredBookings_thenLoadBookingsWithItemsAndBookersInOneStatement() {
+        // GIVEN
+        User owner = userService.create(UserDto.builder().name("owner").email("owner@mail.com").build());
+        User booker = userService.create(UserDto.builder().name("booker").email("booker@mail.com").build());
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        for (int i = 0; i < 10; i++) {
+            ItemRequestIdDto item = itemService.create(owner.getId(), ItemRequestIdDto.builder()
+                    .name("item" + i)
+                    .description("description" + i)
+                    .available(true)
+                    .build());
+            for (int j = 0; j < 10; j++) {
+                entityManager.persist(Booking.builder()
+                        .item(entityManager.getReference(Item.class, item.getId()))
+                        .booker(entityManager.getReference(User.class, booker.getId()))
+                        .status(BookingStatus.WAITING)
+                        .start(start.plusDays(j))
+                        .end(start.plusDays(j + 1))
+                        .build());
+            }
+        }
+        entityManager.flush();
+
+        PaginationConfig page = new PaginationConfig();
+        page.setSize(100);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        // WHEN
+        entityManager.clear();
+        statistics.clear();
+        Slice<BookingDto> bookerBookings = bookingService.getAllByBookerId(booker.getId(), BookingState.ALL, page);
+        long bookerStatementCount = statistics.getPrepareStatementCount();
+
+        entityManager.clear();
+        statistics.clear();
+        Slice<BookingDto> ownerBookings = bookingService.getAllByOwnerId(owner.getId(), BookingState.ALL, page);
+        long ownerStatementCount = statistics.getPrepareStatementCount();
+
+        entityManager.clear();
+        statistics.clear();
+        BookingDto booking = bookingService.getById(owner.getId(), bookerBookings.getContent().get(0).getId());
+        long getByIdStatementCount = statistics.getPrepareStatementCount();
+
+        // THEN
+        assertEquals(100, bookerBookings.getNumberOfElements());
+        assertFalse(bookerBookings.hasNext());
+        assertEquals(100, ownerBookings.getNumberOfElements());
+        assertFalse(ownerBookings.hasNext());
+        assertEquals(booker.getId(), booking.getBooker().getId());
+        assertEquals(1, bookerStatementCount);
+        assertEquals(1, ownerStatementCount);
+        assertEquals(1, getByIdStatementCount);
+    }
+
+    private static List<Long> toIds(List<BookingDto> bookings) {
+        return bookings.stream()
+                .map(BookingDto::getId)
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    void getSummary_whenBookingsInDifferentPeriodsAndStatuses_thenCountEachState() {
+        // GIVEN
+        Long ownerId = userService.create(UserDto.builder().name("owner").email("owner@mail.com").build()).getId();
+        Long bookerId = userService.create(UserDto.builder().name("booker").email("booker@mail.com").build()).getId();
+        Long itemId = itemService.create(ownerId, ItemRequestIdDto.builder()
+                .name("item")
+                .description("item description")
+                .available(true)
+                .build()).getId();
+        LocalDateTime now = LocalDateTime.now();
+
+        bookingService.create(bookerId, new BookingItemIdAndTimeDto(itemId, now.minusDays(5), now.minusDays(4)));
+        BookingDto current = bookingService.create(bookerId,
+                new BookingItemIdAndTimeDto(itemId, now.minusDays(1), now.plusDays(1)));
+        BookingDto future = bookingService.create(bookerId,
+                new BookingItemIdAndTimeDto(itemId, now.plusDays(3), now.plusDays(4)));
+        bookingService.updateStatus(ownerId, current.getId(), true);
+        bookingService.updateStatus(ownerId, future.getId(), false);
+
+        // WHEN
+        BookingSummaryDto bookerSummary = bookingService.getSummaryByBookerId(bookerId);
+        BookingSummaryDto ownerSummary = bookingService.getSummaryByOwnerId(ownerId);
+
+        // THEN
+        BookingSummaryDto expected = BookingSummaryDto.builder()
+                .all(3L)
+                .current(1L)
+                .past(1L)
+                .future(1L)
+                .waiting(1L)
+                .rejected(1L)
+                .build();
+        assertEquals(expected, bookerSummary);
+        assertEquals(expected, ownerSummary);
+        assertEquals(0L, bookingService.getSummaryByOwnerId(bookerId).getAll());
+
+        itemService.delete(ownerId, itemId);
+
+        assertEquals(0L, bookingService.getSummaryByBookerId(bookerId).getAll());
+    }
+
+    @Test
+    void expire_whenWaitingBookingStarted_thenCancelItAndKeepAnsweredOnes() {
+        // GIVEN
+        Long ownerId = userService.create(UserDto.builder().name("owner").email("owner@mail.com").build()).getId();
+        Long bookerId = userService.create(UserDto.builder().name("booker").email("booker@mail.com").build()).getId();
+        Long itemId = itemService.create(ownerId, ItemRequestIdDto.builder()
+                .name("item")
+                .description("item description")
+                .available(true)
+                .build()).getId();
+        LocalDateTime now = LocalDateTime.now();
+
+        BookingDto started = bookingService.create(bookerId,
+                new BookingItemIdAndTimeDto(itemId, now.minusDays(2), now.minusDays(1)));
+        BookingDto approved = bookingService.create(bookerId,
+                new BookingItemIdAndTimeDto(itemId, now.minusDays(4), now.minusDays(3)));
+        BookingDto future = bookingService.create(bookerId,
+                new BookingItemIdAndTimeDto(itemId, now.plusDays(1), now.plusDays(2)));
+        bookingService.updateStatus(ownerId, approved.getId(), true);
+
+        // WHEN
+        int cancelled = waitingBookingExpirer.expire(now);
+
+        // THEN
+        assertEquals(1, cancelled);
+        assertEquals(BookingStatus.CANCELED, bookingService.getById(bookerId, started.getId()).getStatus());
+        assertEquals(BookingStatus.APPROVED, bookingService.getById(bookerId, approved.getId()).getStatus());
+        assertEquals(BookingStatus.WAITING, bookingService.getById(bookerId, future.getId()).getStatus());
+        assertEquals(1L, bookingService.getSummaryByOwnerId(ownerId).getWaiting());
+    }
+
+    @Test
+    void updateStatuses_whenThousandBookingsApproved_thenLockAndUpdateWithTwoStatements() {
+        // GIVEN
+        Long ownerId = userService.create(UserDto.builder().name("owner").email("owner@mail.com").build()).getId();
+        Long bookerId = userService.create(UserDto.builder().name("booker").email("booker@mail.com").build()).getId();
+        Long itemId = itemService.create(ownerId, ItemRequestIdDto.builder()
+                .name("item")
+                .description("item description")
+                .available(true)
+                .build()).getId();
+
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<Long> bookingIds = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            bookingIds.add(bookingService.create(bookerId, new BookingItemIdAndTimeDto(itemId,
+                    start.plusHours(i * 2L), start.plusHours(i * 2L + 1))).getId());
+        }
+        bookingIds.add(bookingService.create(bookerId, new BookingItemIdAndTimeDto(itemId,
+                start.plusMinutes(30), start.plusMinutes(90))).getId());
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // WHEN
+        List<BookingStatusResultDto> results = bookingService.updateStatuses(ownerId,
+                new BookingStatusUpdateDto(bookingIds, true));
+
+        // THEN
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(1_001, results.size());
+        assertEquals(1_000, results.stream().filter(result -> result.getError() == null).count());
+        assertEquals("Предмет с id " + itemId + " уже забронирован на это время", results.get(1_000).getError());
+        assertEquals(1_000L, bookingService.getSummaryByOwnerId(ownerId).getAll() -
+                bookingService.getSummaryByOwnerId(ownerId).getWaiting());
+    }
+}
@@ -1,6 +1,5 @@
 package ru.practicum.shareit.booking.service;
 
-import com.querydsl.core.types.dsl.BooleanExpression;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import org.junit.jupiter.api.Test;
@@ -9,29 +8,46 @@ import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import ru.practicum.shareit.booking.conflict.BookingConflictDetector;
+import ru.practicum.shareit.booking.event.BookingEvent;
+import ru.practicum.shareit.booking.event.BookingEventStream;
+import ru.practicum.shareit.booking.event.BookingEventType;
+import ru.practicum.shareit.booking.lock.ItemWriteLocks;
 import ru.practicum.shareit.booking.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingRole;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.model.dto.BookingDto;
 import ru.practicum.shareit.booking.model.dto.BookingItemIdAndTimeDto;
 import ru.practicum.shareit.booking.model.dto.BookingState;
+import ru.practicum.shareit.booking.model.dto.BookingStatusResultDto;
+import ru.practicum.shareit.booking.model.dto.BookingStatusUpdateDto;
+import ru.practicum.shareit.booking.model.dto.BookingSummaryDto;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.booking.service.impl.BookingServiceImpl;
+import ru.practicum.shareit.booking.summary.BookingPeriodCounts;
+import ru.practicum.shareit.booking.summary.BookingStatusCounters;
 import ru.practicum.shareit.common.exception.BadRequestException;
 import ru.practicum.shareit.common.exception.NotFoundException;
 import ru.practicum.shareit.common.model.PaginationConfig;
+import ru.practicum.shareit.item.cache.ItemDetailsCache;
+import ru.practicum.shareit.item.comment.CommentEligibilityFilter;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -50,6 +66,27 @@ class BookingServiceTest {
     @Mock
     BookingRepository bookingRepository;
 
+    @Mock
+    ItemDetailsCache itemDetailsCache;
+
+    @Mock
+    BookingConflictDetector bookingConflictDetector;
+
+    @Mock
+    BookingStatusCounters bookingStatusCounters;
+
+    @Mock
+    CommentEligibilityFilter commentEligibilityFilter;
+
+    @Mock
+    ItemWriteLocks itemWriteLocks;
+
+    @Mock
+    BookingEventStream bookingEventStream;
+
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     BookingServiceImpl bookingService;
 
@@ -95,7 +132,7 @@ class BookingServiceTest {
                 .booker(booker)
                 .build();
 
-        when(itemRepository.findByIdWithOwner(1L)).thenReturn(Optional.of(returnedItem));
+        when(itemRepository.findForUpdateById(1L)).thenReturn(Optional.of(returnedItem));
         when(userRepository.findById(1L)).thenReturn(Optional.of(booker));
         when(bookingRepository.save(savedBooking)).thenReturn(returnedBooking);
 
@@ -103,23 +140,48 @@ class BookingServiceTest {
         BookingDto expectedBookingDto = BookingMapper.toBookingDto(returnedBooking);
 
         assertEquals(expectedBookingDto, actualBookingDto);
-        InOrder inOrder = inOrder(itemRepository, userRepository, bookingRepository);
-        inOrder.verify(itemRepository, times(1)).findByIdWithOwner(1L);
+        InOrder inOrder = inOrder(itemWriteLocks, itemRepository, userRepository, bookingRepository);
+        inOrder.verify(itemWriteLocks, times(1)).lock(1L);
+        inOrder.verify(itemRepository, times(1)).findForUpdateById(1L);
         inOrder.verify(userRepository, times(1)).findById(1L);
         inOrder.verify(bookingRepository, times(1)).save(savedBooking);
+        verify(bookingConflictDetector, only()).hasApprovedOverlap(
+                1L, bookingItemIdAndTimeDto.getStart(), bookingItemIdAndTimeDto.getEnd());
+        verify(bookingStatusCounters, only()).increment(1L, 100L, WAITING);
+        verify(commentEligibilityFilter, only()).add(1L, 1L);
+        verify(itemDetailsCache, only()).evictOwnerView(1L);
+        verify(eventPublisher, only()).publishEvent(new BookingEvent(BookingEventType.CREATED,
+                returnedBooking.getId(), 1L, 1L, 100L, WAITING));
         verifyNoMoreInteractions(itemRepository, userRepository, bookingRepository);
     }
 
+    @Test
+    void create_whenItemAlreadyBookedForPeriod_thenThrowBadRequestException() {
+        User owner = userBuilder.id(100L).build();
+        Item returnedItem = itemBuilder.owner(owner).build();
+
+        when(itemRepository.findForUpdateById(1L)).thenReturn(Optional.of(returnedItem));
+        when(bookingConflictDetector.hasApprovedOverlap(
+                1L, bookingItemIdAndTimeDto.getStart(), bookingItemIdAndTimeDto.getEnd())).thenReturn(true);
+
+        BadRequestException badRequestException = assertThrows(BadRequestException.class,
+                () -> bookingService.create(1L, bookingItemIdAndTimeDto));
+
+        assertEquals("Предмет с id 1 уже забронирован на это время", badRequestException.getMessage());
+        verify(itemRepository, only()).findForUpdateById(1L);
+        verifyNoInteractions(userRepository, bookingRepository, itemDetailsCache);
+    }
+
     @Test
     void create_whenItemNotFound_thenThrowNotFoundException() {
-        when(itemRepository.findByIdWithOwner(1L)).thenReturn(Optional.empty());
+        when(itemRepository.findForUpdateById(1L)).thenReturn(Optional.empty());
 
         NotFoundException notFoundException = assertThrows(NotFoundException.class,
                 () -> bookingService.create(1L, bookingItemIdAndTimeDto));
 
         assertEquals("Предмет с id 1 не найден", notFoundException.getMessage());
-        verify(itemRepository, times(1)).findByIdWithOwner(1L);
-        verify(itemRepository, only()).findByIdWithOwner(1L);
+        verify(itemRepository, times(1)).findForUpdateById(1L);
+        verify(itemRepository, only()).findForUpdateById(1L);
         verifyNoMoreInteractions(itemRepository);
     }
 
@@ -127,14 +189,14 @@ class BookingServiceTest {
     void create_whenItemNotAvailable_thenThrowBadRequestException() {
         Item returnedItem = itemBuilder.available(false).build();
 
-        when(itemRepository.findByIdWithOwner(1L)).thenReturn(Optional.of(returnedItem));
+        when(itemRepository.findForUpdateById(1L)).thenReturn(Optional.of(returnedItem));
 
         BadRequestException badRequestException = assertThrows(BadRequestException.class,
                 () -> bookingService.create(1L, bookingItemIdAndTimeDto));
 
         assertEquals("Предмет не доступен для брони", badRequestException.getMessage());
-        verify(itemRepository, times(1)).findByIdWithOwner(1L);
-        verify(itemRepository, only()).findByIdWithOwner(1L);
+        verify(itemRepository, times(1)).findForUpdateById(1L);
+        verify(itemRepository, only()).findForUpdateById(1L);
         verifyNoMoreInteractions(itemRepository);
     }
 
@@ -143,14 +205,14 @@ class BookingServiceTest {
         User owner = userBuilder.build();
         Item returnedItem = itemBuilder.owner(owner).build();
 
-        when(itemRepository.findByIdWithOwner(1L)).thenReturn(Optional.of(returnedItem));
+        when(itemRepository.findForUpdateById(1L)).thenReturn(Optional.of(returnedItem));
 
         NotFoundException notFoundException = assertThrows(NotFoundException.class,
                 () -> bookingService.create(1L, bookingItemIdAndTimeDto));
 
         assertEquals("Пользователь не может забронировать собственный предмет", notFoundException.getMessage());
-        verify(itemRepository, times(1)).findByIdWithOwner(1L);
-        verify(itemRepository, only()).findByIdWithOwner(1L);
+        verify(itemRepository, times(1)).findForUpdateById(1L);
+        verify(itemRepository, only()).findForUpdateById(1L);
         verifyNoMoreInteractions(itemRepository);
     }
 
@@ -159,7 +221,7 @@ class BookingServiceTest {
         User owner = userBuilder.id(100L).build();
         Item returnedItem = itemBuilder.owner(owner).build();
 
-        when(itemRepository.findByIdWithOwner(1L)).thenReturn(Optional.of(returnedItem));
+        when(itemRepository.findForUpdateById(1L)).thenReturn(Optional.of(returnedItem));
         when(userRepository.findById(1L)).thenReturn(Optional.empty());
 
         NotFoundException notFoundException = assertThrows(NotFoundException.class,
@@ -167,65 +229,110 @@ class BookingServiceTest {
 
         assertEquals("Пользователь с id 1 не найден", notFoundException.getMessage());
         InOrder inOrder = inOrder(itemRepository, userRepository);
-        inOrder.verify(itemRepository, times(1)).findByIdWithOwner(1L);
+        inOrder.verify(itemRepository, times(1)).findForUpdateById(1L);
         inOrder.verify(userRepository, times(1)).findById(1L);
         verifyNoMoreInteractions(itemRepository, userRepository);
     }
 
     @Test
-    void updateStatus_whenBookingFoundAndItemFoundAndUserOwnerAndActionNotRepeated_thenReturnBookingDto() {
+    void updateStatus_whenWaitingBookingApprovedByOwner_thenReturnBookingDto() {
         User itemOwner = userBuilder.build();
         Item bookingItem = itemBuilder.owner(itemOwner).build();
         User booker = userBuilder.id(10L).build();
-        Booking returnedBooking = bookingBuilder
+        Booking updatedBooking = bookingBuilder
                 .item(bookingItem)
-                .status(BookingStatus.WAITING)
+                .status(BookingStatus.APPROVED)
                 .booker(booker)
                 .build();
 
-        when(bookingRepository.findById(1L)).thenReturn(Optional.of(returnedBooking));
-        when(itemRepository.findById(1L)).thenReturn(Optional.of(bookingItem));
-        when(bookingRepository.save(returnedBooking)).thenReturn(returnedBooking);
+        when(bookingRepository.updateStatus(1L, 1L, BookingStatus.WAITING, BookingStatus.APPROVED)).thenReturn(1);
+        when(bookingRepository.findById(1L)).thenReturn(Optional.of(updatedBooking));
 
         BookingDto actualBookingDto = bookingService.updateStatus(1L, 1L, true);
-        BookingDto expectedBookingDto = BookingMapper.toBookingDto(returnedBooking);
+        BookingDto expectedBookingDto = BookingMapper.toBookingDto(updatedBooking);
 
         assertEquals(expectedBookingDto, actualBookingDto);
-        verify(bookingRepository, times(1)).findById(1L);
-        verify(itemRepository, times(1)).findById(1L);
-        verify(bookingRepository, times(1)).save(returnedBooking);
-        verifyNoMoreInteractions(bookingRepository, itemRepository);
+        InOrder inOrder = inOrder(bookingRepository, bookingConflictDetector);
+        inOrder.verify(bookingRepository, times(1))
+                .updateStatus(1L, 1L, BookingStatus.WAITING, BookingStatus.APPROVED);
+        inOrder.verify(bookingRepository, times(1)).findById(1L);
+        inOrder.verify(bookingConflictDetector, times(1)).approve(updatedBooking);
+        verify(bookingStatusCounters, only()).move(10L, 1L, BookingStatus.WAITING, BookingStatus.APPROVED);
+        verify(itemDetailsCache, only()).evictOwnerView(1L);
+        verify(eventPublisher, only()).publishEvent(new BookingEvent(BookingEventType.STATUS_CHANGED, 1L, 1L,
+                10L, 1L, BookingStatus.APPROVED));
+        verifyNoMoreInteractions(bookingRepository, bookingConflictDetector);
+        verifyNoInteractions(itemRepository);
     }
 
     @Test
-    void updateStatus_whenBookingNotFound_thenThrowNotFoundException() {
-        when(bookingRepository.findById(1L)).thenReturn(Optional.empty());
+    void updateStatus_whenApprovedBookingRejected_thenReleaseBooking() {
+        User itemOwner = userBuilder.build();
+        Item bookingItem = itemBuilder.owner(itemOwner).build();
+        Booking updatedBooking = bookingBuilder
+                .item(bookingItem)
+                .status(BookingStatus.REJECTED)
+                .booker(userBuilder.id(10L).build())
+                .build();
 
-        NotFoundException notFoundException = assertThrows(NotFoundException.class,
-                () -> bookingService.updateStatus(1L, 1L, true));
+        when(bookingRepository.updateStatus(1L, 1L, BookingStatus.WAITING, BookingStatus.REJECTED)).thenReturn(0);
+        when(bookingRepository.updateStatus(1L, 1L, BookingStatus.APPROVED, BookingStatus.REJECTED)).thenReturn(1);
+        when(bookingRepository.findById(1L)).thenReturn(Optional.of(updatedBooking));
 
-        assertEquals("Бронь с id 1 не найдена", notFoundException.getMessage());
-        verify(bookingRepository, times(1)).findById(1L);
-        verify(bookingRepository, only()).findById(1L);
-        verifyNoMoreInteractions(bookingRepository);
+        BookingDto actualBookingDto = bookingService.updateStatus(1L, 1L, false);
+
+        assertEquals(BookingStatus.REJECTED, actualBookingDto.getStatus());
+        verify(bookingConflictDetector, only()).release(updatedBooking);
+        verify(bookingStatusCounters, only()).move(10L, 1L, BookingStatus.APPROVED, BookingStatus.REJECTED);
     }
 
     @Test
-    void updateStatus_whenItemNotFound_thenThrowNotFoundException() {
-        Item bookingItem = itemBuilder.build();
-        Booking returnedBooking = bookingBuilder.item(bookingItem).build();
+    void updateStatus_whenApprovalOverlapsApprovedBooking_thenThrowBadRequestException() {
+        User itemOwner = userBuilder.build();
+        Item bookingItem = itemBuilder.owner(itemOwner).build();
+        Booking updatedBooking = bookingBuilder
+                .item(bookingItem)
+                .status(BookingStatus.APPROVED)
+                .booker(userBuilder.id(10L).build())
+                .build();
 
-        when(bookingRepository.findById(1L)).thenReturn(Optional.of(returnedBooking));
-        when(itemRepository.findById(1L)).thenReturn(Optional.empty());
+        when(bookingRepository.updateStatus(1L, 1L, BookingStatus.WAITING, BookingStatus.APPROVED)).thenReturn(1);
+        when(bookingRepository.findById(1L)).thenReturn(Optional.of(updatedBooking));
+        doThrow(new BadRequestException("Предмет с id 1 уже забронирован на это время"))
+                .when(bookingConflictDetector).approve(updatedBooking);
+
+        assertThrows(BadRequestException.class, () -> bookingService.updateStatus(1L, 1L, true));
+
+        verifyNoInteractions(itemDetailsCache, bookingStatusCounters);
+    }
+
+    @Test
+    void updateStatus_whenExclusionConstraintViolated_thenThrowBadRequestException() {
+        when(bookingRepository.updateStatus(1L, 1L, BookingStatus.WAITING, BookingStatus.APPROVED))
+                .thenThrow(new DataIntegrityViolationException("ex_booking_approved_period"));
+
+        BadRequestException badRequestException = assertThrows(BadRequestException.class,
+                () -> bookingService.updateStatus(1L, 1L, true));
+
+        assertEquals("Предмет уже забронирован на это время", badRequestException.getMessage());
+        verifyNoInteractions(bookingConflictDetector, itemDetailsCache, bookingStatusCounters);
+    }
+
+    @Test
+    void updateStatus_whenBookingNotFound_thenThrowNotFoundException() {
+        when(bookingRepository.findById(1L)).thenReturn(Optional.empty());
 
         NotFoundException notFoundException = assertThrows(NotFoundException.class,
                 () -> bookingService.updateStatus(1L, 1L, true));
 
-        assertEquals("Предмет с id 1 не найден", notFoundException.getMessage());
-        InOrder inOrder = inOrder(bookingRepository, itemRepository);
+        assertEquals("Бронь с id 1 не найдена", notFoundException.getMessage());
+        InOrder inOrder = inOrder(bookingRepository);
+        inOrder.verify(bookingRepository, times(1))
+                .updateStatus(1L, 1L, BookingStatus.WAITING, BookingStatus.APPROVED);
+        inOrder.verify(bookingRepository, times(1))
+                .updateStatus(1L, 1L, BookingStatus.REJECTED, BookingStatus.APPROVED);
         inOrder.verify(bookingRepository, times(1)).findById(1L);
-        inOrder.verify(itemRepository, times(1)).findById(1L);
-        verifyNoMoreInteractions(bookingRepository, itemRepository);
+        verifyNoMoreInteractions(bookingRepository);
     }
 
     @Test
@@ -235,16 +342,12 @@ class BookingServiceTest {
         Booking returnedBooking = bookingBuilder.item(bookingItem).build();
 
         when(bookingRepository.findById(1L)).thenReturn(Optional.of(returnedBooking));
-        when(itemRepository.findById(1L)).thenReturn(Optional.of(bookingItem));
 
         NotFoundException notOwnerException = assertThrows(NotFoundException.class,
                 () -> bookingService.updateStatus(1L, 1L, true));
 
         assertEquals("Пользователь с id 1 не является владельцем вещи с id 1", notOwnerException.getMessage());
-        InOrder inOrder = inOrder(bookingRepository, itemRepository);
-        inOrder.verify(bookingRepository, times(1)).findById(1L);
-        inOrder.verify(itemRepository, times(1)).findById(1L);
-        verifyNoMoreInteractions(bookingRepository, itemRepository);
+        verifyNoInteractions(itemRepository, bookingConflictDetector, bookingStatusCounters);
     }
 
     @Test
@@ -254,16 +357,105 @@ class BookingServiceTest {
         Booking returnedBooking = bookingBuilder.status(BookingStatus.APPROVED).item(bookingItem).build();
 
         when(bookingRepository.findById(1L)).thenReturn(Optional.of(returnedBooking));
-        when(itemRepository.findById(1L)).thenReturn(Optional.of(bookingItem));
 
         BadRequestException badRequestException = assertThrows(BadRequestException.class,
                 () -> bookingService.updateStatus(1L, 1L, true));
 
         assertEquals("Нельзя повторно одобрить бронь", badRequestException.getMessage());
-        InOrder inOrder = inOrder(bookingRepository, itemRepository);
-        inOrder.verify(bookingRepository, times(1)).findById(1L);
-        inOrder.verify(itemRepository, times(1)).findById(1L);
-        verifyNoMoreInteractions(bookingRepository, itemRepository);
+        verifyNoInteractions(bookingConflictDetector, bookingStatusCounters);
+    }
+
+    @Test
+    void updateStatus_whenBookingCanceled_thenThrowBadRequestException() {
+        User itemOwner = userBuilder.build();
+        Item bookingItem = itemBuilder.owner(itemOwner).build();
+        Booking returnedBooking = bookingBuilder.status(BookingStatus.CANCELED).item(bookingItem).build();
+
+        when(bookingRepository.findById(1L)).thenReturn(Optional.of(returnedBooking));
+
+        BadRequestException badRequestException = assertThrows(BadRequestException.class,
+                () -> bookingService.updateStatus(1L, 1L, false));
+
+        assertEquals("Бронь с id 1 отменена, так как не была подтверждена до начала",
+                badRequestException.getMessage());
+    }
+
+    @Test
+    void updateStatuses_whenSomeBookingsCannotBeApproved_thenApproveOthersWithOneUpdate() {
+        User itemOwner = userBuilder.build();
+        Item bookingItem = itemBuilder.owner(itemOwner).build();
+        Item otherItem = Item.builder().id(2L).owner(userBuilder.id(100L).build()).build();
+        User booker = userBuilder.id(10L).build();
+        Booking waiting = bookingBuilder.id(1L).item(bookingItem).booker(booker).status(WAITING).build();
+        Booking overlapping = bookingBuilder.id(2L).item(bookingItem).booker(booker).status(WAITING).build();
+        Booking approved = bookingBuilder.id(3L).item(bookingItem).booker(booker)
+                .start(now.plusDays(30)).end(now.plusDays(31)).status(BookingStatus.APPROVED).build();
+        Booking foreign = bookingBuilder.id(4L).item(otherItem).booker(booker).status(WAITING).build();
+        Booking rejected = bookingBuilder.id(5L).item(bookingItem).booker(booker)
+                .start(now.plusDays(40)).end(now.plusDays(41)).status(BookingStatus.REJECTED).build();
+
+        when(bookingRepository.findAllForUpdateByIdIn(Set.of(1L, 2L, 3L, 4L, 5L, 6L)))
+                .thenReturn(List.of(waiting, overlapping, approved, foreign, rejected));
+
+        List<BookingStatusResultDto> results = bookingService.updateStatuses(1L,
+                new BookingStatusUpdateDto(List.of(1L, 2L, 3L, 4L, 5L, 6L, 1L), true));
+
+        assertEquals(List.of(
+                BookingStatusResultDto.builder().id(1L).status(BookingStatus.APPROVED).build(),
+                BookingStatusResultDto.builder().id(2L).status(WAITING)
+                        .error("Предмет с id 1 уже забронирован на это время").build(),
+                BookingStatusResultDto.builder().id(3L).status(BookingStatus.APPROVED)
+                        .error("Нельзя повторно одобрить бронь").build(),
+                BookingStatusResultDto.builder().id(4L).status(WAITING)
+                        .error("Пользователь с id 1 не является владельцем вещи с id 2").build(),
+                BookingStatusResultDto.builder().id(5L).status(BookingStatus.APPROVED).build(),
+                BookingStatusResultDto.builder().id(6L).error("Бронь с id 6 не найдена").build()
+        ), results);
+        verify(bookingRepository, times(1)).findAllForUpdateByIdIn(Set.of(1L, 2L, 3L, 4L, 5L, 6L));
+        verify(bookingRepository, times(1)).updateStatusByIdIn(List.of(1L, 5L), 1L, BookingStatus.APPROVED);
+        verify(bookingConflictDetector, times(1)).approveAll(List.of(waiting, rejected));
+        verify(bookingStatusCounters, times(1)).move(10L, 1L, WAITING, BookingStatus.APPROVED);
+        verify(bookingStatusCounters, times(1)).move(10L, 1L, BookingStatus.REJECTED, BookingStatus.APPROVED);
+        verify(itemDetailsCache, only()).evictOwnerView(1L);
+        verifyNoMoreInteractions(bookingRepository);
+    }
+
+    @Test
+    void updateStatuses_whenBookingsOverlapStoredApproved_thenCheckThemWithOneCall() {
+        User itemOwner = userBuilder.build();
+        Item bookingItem = itemBuilder.owner(itemOwner).build();
+        User booker = userBuilder.id(10L).build();
+        Booking free = bookingBuilder.id(1L).item(bookingItem).booker(booker).status(WAITING).build();
+        Booking overlapping = bookingBuilder.id(2L).item(bookingItem).booker(booker)
+                .start(now.plusDays(30)).end(now.plusDays(31)).status(WAITING).build();
+
+        when(bookingRepository.findAllForUpdateByIdIn(Set.of(1L, 2L))).thenReturn(List.of(free, overlapping));
+        when(bookingConflictDetector.findApprovedOverlaps(List.of(free, overlapping))).thenReturn(Set.of(2L));
+
+        List<BookingStatusResultDto> results = bookingService.updateStatuses(1L,
+                new BookingStatusUpdateDto(List.of(1L, 2L), true));
+
+        assertEquals(List.of(
+                BookingStatusResultDto.builder().id(1L).status(BookingStatus.APPROVED).build(),
+                BookingStatusResultDto.builder().id(2L).status(WAITING)
+                        .error("Предмет с id 1 уже забронирован на это время").build()
+        ), results);
+        verify(bookingConflictDetector, times(1)).findApprovedOverlaps(List.of(free, overlapping));
+        verify(bookingConflictDetector, never()).hasApprovedOverlap(any(), any(), any());
+        verify(bookingRepository, times(1)).updateStatusByIdIn(List.of(1L), 1L, BookingStatus.APPROVED);
+    }
+
+    @Test
+    void updateStatuses_whenNothingCanBeRejected_thenDoNotUpdate() {
+        when(bookingRepository.findAllForUpdateByIdIn(Set.of(1L))).thenReturn(List.of());
+
+        List<BookingStatusResultDto> results = bookingService.updateStatuses(1L,
+                new BookingStatusUpdateDto(List.of(1L), false));
+
+        assertEquals(List.of(BookingStatusResultDto.builder().id(1L).error("Бронь с id 1 не найдена").build()),
+                results);
+        verify(bookingRepository, only()).findAllForUpdateByIdIn(Set.of(1L));
+        verifyNoInteractions(bookingConflictDetector, bookingStatusCounters, itemDetailsCache);
     }
 
     @Test
@@ -325,13 +517,7 @@ class BookingServiceTest {
 
     @Test
     void getAllByOwnerId_whenBookingsListNotEmpty_thenReturnBookingDtoList() {
-        Sort byStartDesc = Sort.by("start").descending();
-        Pageable pageable = paginationConfig.getPageable(byStartDesc);
-
-        QBooking qBooking = QBooking.booking;
-        BooleanExpression byOwnerId = qBooking.item.owner.id.eq(1L);
-        BooleanExpression byStatus = qBooking.status.eq(WAITING);
-        BooleanExpression resExpression = byOwnerId.and(byStatus);
+        Pageable pageable = paginationConfig.getPageable();
 
         Item bookingItem = itemBuilder.build();
         Item bookingItem2 = itemBuilder.id(2L).build();
@@ -342,34 +528,33 @@ class BookingServiceTest {
                 bookingBuilder.status(WAITING).item(bookingItem).booker(booker).build(),
                 bookingBuilder.id(2L).status(WAITING).item(bookingItem2).booker(booker2).build()
         );
-        Page<Booking> pagedBookings = new PageImpl<>(returnedBookings);
+        Slice<Booking> bookingSlice = new SliceImpl<>(returnedBookings);
 
-        when(bookingRepository.findAll(resExpression, pageable))
-                .thenReturn(pagedBookings);
+        when(bookingRepository.findAllWithItemAndBooker(eq(BookingRole.OWNER), eq(BookingState.WAITING), eq(1L),
+                        any(LocalDateTime.class), isNull(), eq(pageable)))
+                .thenReturn(bookingSlice);
 
         List<BookingDto> actualBookingDtos =
-                bookingService.getAllByOwnerId(1L, BookingState.WAITING, paginationConfig);
+                bookingService.getAllByOwnerId(1L, BookingState.WAITING, paginationConfig).getContent();
         List<BookingDto> expectedBookingDtos = BookingMapper.toBookingDto(returnedBookings);
 
         assertEquals(expectedBookingDtos, actualBookingDtos);
         verify(bookingRepository, times(1))
-                .findAll(resExpression, pageable);
-        verify(bookingRepository, only()).findAll(resExpression, pageable);
+                .findAllWithItemAndBooker(eq(BookingRole.OWNER), eq(BookingState.WAITING), eq(1L),
+                        any(LocalDateTime.class), isNull(), eq(pageable));
+        verify(bookingRepository, only())
+                .findAllWithItemAndBooker(eq(BookingRole.OWNER), eq(BookingState.WAITING), eq(1L),
+                        any(LocalDateTime.class), isNull(), eq(pageable));
         verifyNoMoreInteractions(bookingRepository);
     }
 
     @Test
     void getAllByOwnerId_whenBookingListNotEmpty_thenThrowNotFoundException() {
-        Sort byStartDesc = Sort.by("start").descending();
-        Pageable pageable = paginationConfig.getPageable(byStartDesc);
-
-        QBooking qBooking = QBooking.booking;
-        BooleanExpression byOwnerId = qBooking.item.owner.id.eq(1L);
-        BooleanExpression byStatus = qBooking.status.eq(WAITING);
-        BooleanExpression resExpression = byOwnerId.and(byStatus);
+        Pageable pageable = paginationConfig.getPageable();
 
-        when(bookingRepository.findAll(resExpression, pageable))
-                .thenReturn(Page.empty());
+        when(bookingRepository.findAllWithItemAndBooker(eq(BookingRole.OWNER), eq(BookingState.WAITING), eq(1L),
+                        any(LocalDateTime.class), isNull(), eq(pageable)))
+                .thenReturn(new SliceImpl<>(List.of()));
 
         NotFoundException notFoundException = assertThrows(NotFoundException.class,
                 () -> bookingService.getAllByOwnerId(1L, BookingState.WAITING, paginationConfig));
@@ -377,20 +562,17 @@ class BookingServiceTest {
         assertEquals("По характеристике WAITING не было найдено вещей, забронированных у пользователя с id 1",
                 notFoundException.getMessage());
         verify(bookingRepository, times(1))
-                .findAll(resExpression, pageable);
-        verify(bookingRepository, only()).findAll(resExpression, pageable);
+                .findAllWithItemAndBooker(eq(BookingRole.OWNER), eq(BookingState.WAITING), eq(1L),
+                        any(LocalDateTime.class), isNull(), eq(pageable));
+        verify(bookingRepository, only())
+                .findAllWithItemAndBooker(eq(BookingRole.OWNER), eq(BookingState.WAITING), eq(1L),
+                        any(LocalDateTime.class), isNull(), eq(pageable));
         verifyNoMoreInteractions(bookingRepository);
     }
 
     @Test
     void getAllByBookerId_whenBookingsListNotEmpty_thenReturnBookingDtoList() {
-        Sort byStartDesc = Sort.by("start").descending();
-        Pageable pageable = paginationConfig.getPageable(byStartDesc);
-
-        QBooking qBooking = QBooking.booking;
-        BooleanExpression byBookerId = qBooking.booker.id.eq(1L);
-        BooleanExpression byStatus = qBooking.status.eq(WAITING);
-        BooleanExpression resExpression = byBookerId.and(byStatus);
+        Pageable pageable = paginationConfig.getPageable();
 
         Item bookingItem = itemBuilder.build();
         Item bookingItem2 = itemBuilder.id(2L).build();
@@ -401,34 +583,33 @@ class BookingServiceTest {
                 bookingBuilder.status(WAITING).item(bookingItem).booker(booker).build(),
                 bookingBuilder.id(2L).status(WAITING).item(bookingItem2).booker(booker2).build()
         );
-        Page<Booking> pagedBookings = new PageImpl<>(returnedBookings);
+        Slice<Booking> bookingSlice = new SliceImpl<>(returnedBookings);
 
-        when(bookingRepository.findAll(resExpression, pageable))
-                .thenReturn(pagedBookings);
+        when(bookingRepository.findAllWithItemAndBooker(eq(BookingRole.BOOKER), eq(BookingState.WAITING), eq(1L),
+                        any(LocalDateTime.class), isNull(), eq(pageable)))
+                .thenReturn(bookingSlice);
 
         List<BookingDto> actualBookingDtos =
-                bookingService.getAllByBookerId(1L, BookingState.WAITING, paginationConfig);
+                bookingService.getAllByBookerId(1L, BookingState.WAITING, paginationConfig).getContent();
         List<BookingDto> expectedBookingDtos = BookingMapper.toBookingDto(returnedBookings);
 
         assertEquals(expectedBookingDtos, actualBookingDtos);
         verify(bookingRepository, times(1))
-                .findAll(resExpression, pageable);
-        verify(bookingRepository, only()).findAll(resExpression, pageable);
+                .findAllWithItemAndBooker(eq(BookingRole.BOOKER), eq(BookingState.WAITING), eq(1L),
+                        any(LocalDateTime.class), isNull(), eq(pageable));
+        verify(bookingRepository, only())
+                .findAllWithItemAndBooker(eq(BookingRole.BOOKER), eq(BookingState.WAITING), eq(1L),
+                        any(LocalDateTime.class), isNull(), eq(pageable));
         verifyNoMoreInteractions(bookingRepository);
     }
 
     @Test
     void getAllByBookerId_whenBookingListNotEmpty_thenThrowNotFoundException() {
-        Sort byStartDesc = Sort.by("start").descending();
-        Pageable pageable = paginationConfig.getPageable(byStartDesc);
-
-        QBooking qBooking = QBooking.booking;
-        BooleanExpression byBookerId = qBooking.booker.id.eq(1L);
-        BooleanExpression byStatus = qBooking.status.eq(WAITING);
-        BooleanExpression resExpression = byBookerId.and(byStatus);
+        Pageable pageable = paginationConfig.getPageable();
 
-        when(bookingRepository.findAll(resExpression, pageable))
-                .thenReturn(Page.empty());
+        when(bookingRepository.findAllWithItemAndBooker(eq(BookingRole.BOOKER), eq(BookingState.WAITING), eq(1L),
+                        any(LocalDateTime.class), isNull(), eq(pageable)))
+                .thenReturn(new SliceImpl<>(List.of()));
 
         NotFoundException notFoundException = assertThrows(NotFoundException.class,
                 () -> bookingService.getAllByBookerId(1L, BookingState.WAITING, paginationConfig));
@@ -436,8 +617,49 @@ class BookingServiceTest {
         assertEquals("По характеристике WAITING не было найдено вещей, забронированных пользователем с id 1",
                 notFoundException.getMessage());
         verify(bookingRepository, times(1))
-                .findAll(resExpression, pageable);
-        verify(bookingRepository, only()).findAll(resExpression, pageable);
+                .findAllWithItemAndBooker(eq(BookingRole.BOOKER), eq(BookingState.WAITING), eq(1L),
+                        any(LocalDateTime.class), isNull(), eq(pageable));
+        verify(bookingRepository, only())
+                .findAllWithItemAndBooker(eq(BookingRole.BOOKER), eq(BookingState.WAITING), eq(1L),
+                        any(LocalDateTime.class), isNull(), eq(pageable));
         verifyNoMoreInteractions(bookingRepository);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getSummaryByBookerId_whenUserFound_thenReturnStatusAndPeriodCounts() {
+        Map<BookingStatus, Long> statusCounts = new EnumMap<>(BookingStatus.class);
+        statusCounts.put(BookingStatus.WAITING, 2L);
+        statusCounts.put(BookingStatus.APPROVED, 3L);
+        statusCounts.put(BookingStatus.REJECTED, 1L);
+        statusCounts.put(BookingStatus.CANCELED, 0L);
+
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(bookingStatusCounters.getByBookerId(1L)).thenReturn(statusCounts);
+        when(bookingRepository.countPeriodsByBookerId(eq(1L), any(LocalDateTime.class)))
+                .thenReturn(new BookingPeriodCounts(1L, 4L, 1L));
+
+        BookingSummaryDto summary = bookingService.getSummaryByBookerId(1L);
+
+        assertEquals(BookingSummaryDto.builder()
+                .all(6L)
+                .current(1L)
+                .past(4L)
+                .future(1L)
+                .waiting(2L)
+                .rejected(1L)
+                .build(), summary);
+        verify(bookingStatusCounters, only()).getByBookerId(1L);
+        verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    void getSummaryByOwnerId_whenUserNotFound_thenThrowNotFoundException() {
+        when(userRepository.existsById(1L)).thenReturn(false);
+
+        NotFoundException notFoundException = assertThrows(NotFoundException.class,
+                () -> bookingService.getSummaryByOwnerId(1L));
+
+        assertEquals("Пользователь с id 1 не найден", notFoundException.getMessage());
+        verifyNoInteractions(bookingRepository, bookingStatusCounters);
+    }
+}
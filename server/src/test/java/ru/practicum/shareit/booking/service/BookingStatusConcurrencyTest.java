@@ -0,0 +1,140 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.dto.BookingItemIdAndTimeDto;
+import ru.practicum.shareit.booking.summary.BookingStatusCounters;
+import ru.practicum.shareit.common.exception.BadRequestException;
+import ru.practicum.shareit.item.model.dto.ItemRequestIdDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.model.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Several owners' sessions answer the same bookings at once, every answer in its own transaction.
+ * Each booking must change its status exactly once per answer, and the status counters must match,
+ * which would not hold if two answers read the same old status and both wrote the new one.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class BookingStatusConcurrencyTest {
+    private static final int THREADS = 8;
+    private static final int BOOKINGS = 20;
+
+    final BookingService bookingService;
+    final ItemService itemService;
+    final UserService userService;
+    final BookingStatusCounters bookingStatusCounters;
+
+    Long ownerId;
+    Long bookerId;
+    List<Long> bookingIds;
+
+    @BeforeEach
+    void setUp() {
+        ownerId = userService.create(UserDto.builder()
+                .name("owner")
+                .email("concurrency-owner@mail.com")
+                .build()).getId();
+        bookerId = userService.create(UserDto.builder()
+                .name("booker")
+                .email("concurrency-booker@mail.com")
+                .build()).getId();
+        Long itemId = itemService.create(ownerId, ItemRequestIdDto.builder()
+                .name("item")
+                .description("item description")
+                .available(true)
+                .build()).getId();
+
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        bookingIds = new ArrayList<>();
+        for (int i = 0; i < BOOKINGS; i++) {
+            bookingIds.add(bookingService.create(bookerId, new BookingItemIdAndTimeDto(itemId,
+                    start.plusDays(i * 2L), start.plusDays(i * 2L + 1))).getId());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        userService.delete(bookerId);
+        userService.delete(ownerId);
+    }
+
+    @Test
+    void updateStatus_whenOwnerAnswersConcurrently_thenEveryTransitionAppliedOnce() throws Exception {
+        // WHEN
+        int approvals = answerConcurrently(true);
+        Map<BookingStatus, Long> afterApproval = bookingStatusCounters.getByOwnerId(ownerId);
+        int rejections = answerConcurrently(false);
+        Map<BookingStatus, Long> afterRejection = bookingStatusCounters.getByOwnerId(ownerId);
+
+        // THEN
+        assertEquals(BOOKINGS, approvals);
+        assertEquals(BOOKINGS, afterApproval.get(BookingStatus.APPROVED));
+        assertEquals(0L, afterApproval.get(BookingStatus.WAITING));
+
+        assertEquals(BOOKINGS, rejections);
+        assertEquals(BOOKINGS, afterRejection.get(BookingStatus.REJECTED));
+        assertEquals(0L, afterRejection.get(BookingStatus.APPROVED));
+        assertEquals(bookingStatusCounters.getByBookerId(bookerId), afterRejection);
+
+        for (Long bookingId : bookingIds) {
+            assertEquals(BookingStatus.REJECTED, bookingService.getById(ownerId, bookingId).getStatus());
+        }
+    }
+
+    private int answerConcurrently(boolean approved) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch startSignal = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                futures.add(executor.submit(() -> {
+                    startSignal.await();
+                    for (Long bookingId : bookingIds) {
+                        try {
+                            bookingService.updateStatus(ownerId, bookingId, approved);
+                            succeeded.incrementAndGet();
+                        } catch (BadRequestException e) {
+                            // another thread has already answered this booking
+                        }
+                    }
+
+                    return null;
+                }));
+            }
+
+            startSignal.countDown();
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return succeeded.get();
+    }
+}
@@ -0,0 +1,83 @@
+package ru.practicum.shareit.booking.summary;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BookingStatusCountersTest {
+    private final BookingRepository bookingRepository = mock(BookingRepository.class);
+    private final BookingStatusCounters counters = new BookingStatusCounters(bookingRepository);
+
+    @BeforeEach
+    void setUp() {
+        when(bookingRepository.countAllGroupByBookerIdAndOwnerIdAndStatus()).thenReturn(List.of(
+                new BookingStatusCount(1L, 10L, BookingStatus.WAITING, 2L),
+                new BookingStatusCount(1L, 20L, BookingStatus.APPROVED, 1L),
+                new BookingStatusCount(2L, 10L, BookingStatus.REJECTED, 3L)
+        ));
+        counters.rebuild();
+    }
+
+    @Test
+    void rebuild_whenGroupedCountsLoaded_thenSumByBookerAndOwner() {
+        Map<BookingStatus, Long> byBooker = counters.getByBookerId(1L);
+        Map<BookingStatus, Long> byOwner = counters.getByOwnerId(10L);
+
+        assertEquals(2L, byBooker.get(BookingStatus.WAITING));
+        assertEquals(1L, byBooker.get(BookingStatus.APPROVED));
+        assertEquals(0L, byBooker.get(BookingStatus.REJECTED));
+        assertEquals(2L, byOwner.get(BookingStatus.WAITING));
+        assertEquals(3L, byOwner.get(BookingStatus.REJECTED));
+        assertEquals(0L, counters.getByOwnerId(99L).get(BookingStatus.WAITING));
+    }
+
+    @Test
+    void incrementAndMove_whenBookingCreatedAndApproved_thenMoveBetweenStatuses() {
+        counters.increment(1L, 10L, BookingStatus.WAITING);
+        counters.move(1L, 10L, BookingStatus.WAITING, BookingStatus.APPROVED);
+
+        assertEquals(2L, counters.getByBookerId(1L).get(BookingStatus.WAITING));
+        assertEquals(2L, counters.getByBookerId(1L).get(BookingStatus.APPROVED));
+        assertEquals(1L, counters.getByOwnerId(10L).get(BookingStatus.APPROVED));
+    }
+
+    @Test
+    void decrementAllByUserId_whenUserDeleted_thenRemoveTheirBookingsFromOtherUsers() {
+        when(bookingRepository.countAllByUserIdGroupByBookerIdAndOwnerIdAndStatus(10L)).thenReturn(List.of(
+                new BookingStatusCount(1L, 10L, BookingStatus.WAITING, 2L),
+                new BookingStatusCount(2L, 10L, BookingStatus.REJECTED, 3L)
+        ));
+
+        counters.decrementAllByUserId(10L);
+
+        assertEquals(0L, counters.getByBookerId(1L).get(BookingStatus.WAITING));
+        assertEquals(1L, counters.getByBookerId(1L).get(BookingStatus.APPROVED));
+        assertEquals(0L, counters.getByBookerId(2L).get(BookingStatus.REJECTED));
+        assertEquals(0L, counters.getByOwnerId(10L).get(BookingStatus.REJECTED));
+    }
+
+    @Test
+    void increment_whenTransactionRolledBack_thenKeepIncrementsOfOtherTransactions() {
+        TransactionSynchronizationManager.initSynchronization();
+        counters.increment(1L, 10L, BookingStatus.WAITING);
+        List<TransactionSynchronization> rolledBack = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+
+        counters.increment(1L, 10L, BookingStatus.WAITING);
+        rolledBack.forEach(synchronization ->
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertEquals(3L, counters.getByBookerId(1L).get(BookingStatus.WAITING));
+        assertEquals(3L, counters.getByOwnerId(10L).get(BookingStatus.WAITING));
+    }
+}
@@ -0,0 +1,123 @@
+package ru.practicum.shareit.item.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.model.dto.ItemBookingsAndCommentsDto;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class ItemDetailsCacheTest {
+    final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    final ItemDetailsCache itemDetailsCache = new ItemDetailsCache(100, Duration.ofMinutes(5), meterRegistry);
+
+    final ItemBookingsAndCommentsDto sharedView = ItemBookingsAndCommentsDto.builder().id(1L).build();
+    final ItemBookingsAndCommentsDto ownerView = ItemBookingsAndCommentsDto.builder().id(1L).build();
+    final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void get_whenViewCached_thenLoadOnceAndCountHit() {
+        itemDetailsCache.get(2L, 1L, 0, 10, loader(sharedView, null));
+        ItemBookingsAndCommentsDto actual = itemDetailsCache.get(3L, 1L, 0, 10, loader(sharedView, null));
+
+        assertSame(sharedView, actual);
+        assertEquals(1, loads.get());
+        assertEquals(1, meterRegistry.counter("cache.gets", "cache", "items", "result", "hit").count());
+        assertEquals(1, meterRegistry.counter("cache.gets", "cache", "items", "result", "miss").count());
+    }
+
+    @Test
+    void get_whenNotFirstCommentsPage_thenAlwaysLoad() {
+        itemDetailsCache.get(2L, 1L, 10, 10, loader(sharedView, null));
+        itemDetailsCache.get(2L, 1L, 10, 10, loader(sharedView, null));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_whenCommentsStartInsideFirstPage_thenAlwaysLoad() {
+        itemDetailsCache.get(2L, 1L, 0, 10, loader(sharedView, null));
+        itemDetailsCache.get(2L, 1L, 5, 10, loader(sharedView, null));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_whenOwnerAndOtherUserRequest_thenKeepSeparateViews() {
+        itemDetailsCache.get(2L, 1L, 0, 10, loader(sharedView, null));
+        itemDetailsCache.get(10L, 1L, 0, 10, loader(ownerView, null));
+
+        assertSame(ownerView, itemDetailsCache.get(10L, 1L, 0, 10, loader(ownerView, null)));
+        assertSame(sharedView, itemDetailsCache.get(2L, 1L, 0, 10, loader(sharedView, null)));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void evictOwnerView_whenBookingChanged_thenReloadOnlyOwnerView() {
+        itemDetailsCache.get(2L, 1L, 0, 10, loader(sharedView, null));
+        itemDetailsCache.get(10L, 1L, 0, 10, loader(ownerView, null));
+
+        itemDetailsCache.evictOwnerView(1L);
+        itemDetailsCache.get(2L, 1L, 0, 10, loader(sharedView, null));
+        itemDetailsCache.get(10L, 1L, 0, 10, loader(ownerView, null));
+
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void get_whenNextBookingAlreadyStarted_thenDoNotKeepOwnerView() {
+        itemDetailsCache.get(10L, 1L, 0, 10, loader(ownerView, LocalDateTime.now().minusSeconds(1)));
+        itemDetailsCache.get(10L, 1L, 0, 10, loader(ownerView, LocalDateTime.now().minusSeconds(1)));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void evict_whenTransactionActive_thenEvictAfterCommit() {
+        itemDetailsCache.get(2L, 1L, 0, 10, loader(sharedView, null));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            itemDetailsCache.evict(1L);
+            itemDetailsCache.get(2L, 1L, 0, 10, loader(sharedView, null));
+            assertEquals(1, loads.get());
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        itemDetailsCache.get(2L, 1L, 0, 10, loader(sharedView, null));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_whenItemEvictedWhileLoading_thenDoNotCacheLoadedView() {
+        itemDetailsCache.get(2L, 1L, 0, 10, () -> {
+            loads.incrementAndGet();
+            itemDetailsCache.evict(1L);
+            return new ItemDetailsCache.View(10L, sharedView, null);
+        });
+        itemDetailsCache.get(2L, 1L, 0, 10, loader(sharedView, null));
+
+        assertEquals(2, loads.get());
+    }
+
+    private Supplier<ItemDetailsCache.View> loader(ItemBookingsAndCommentsDto item, LocalDateTime validUntil) {
+        return () -> {
+            loads.incrementAndGet();
+            return new ItemDetailsCache.View(10L, item, validUntil);
+        };
+    }
+}
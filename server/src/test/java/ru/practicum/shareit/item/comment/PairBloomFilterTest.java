@@ -0,0 +1,58 @@
+package ru.practicum.shareit.item.comment;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PairBloomFilterTest {
+    private static final int PAIRS = 100_000;
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    @Test
+    void mightContain_whenPairAdded_thenReturnTrue() {
+        PairBloomFilter filter = new PairBloomFilter(PAIRS, FALSE_POSITIVE_RATE);
+        Random random = new Random(3);
+        long[][] pairs = new long[PAIRS][];
+        for (int i = 0; i < PAIRS; i++) {
+            pairs[i] = new long[]{random.nextInt(1_000_000), random.nextInt(1_000_000)};
+            filter.add(pairs[i][0], pairs[i][1]);
+        }
+
+        for (long[] pair : pairs) {
+            assertTrue(filter.mightContain(pair[0], pair[1]));
+        }
+    }
+
+    @Test
+    void mightContain_whenPairsNotAdded_thenFalsePositivesNearConfiguredRate() {
+        PairBloomFilter filter = new PairBloomFilter(PAIRS, FALSE_POSITIVE_RATE);
+        for (long itemId = 1; itemId <= PAIRS; itemId++) {
+            filter.add(itemId, itemId % 1_000);
+        }
+
+        int falsePositives = 0;
+        for (long itemId = 1; itemId <= PAIRS; itemId++) {
+            if (filter.mightContain(itemId, itemId % 1_000 + 1)) {
+                falsePositives++;
+            }
+        }
+
+        double measured = (double) falsePositives / PAIRS;
+        assertTrue(measured < FALSE_POSITIVE_RATE * 1.5, () -> "Доля ложных срабатываний: " + measured);
+        assertEquals(FALSE_POSITIVE_RATE, filter.falsePositiveRate(), FALSE_POSITIVE_RATE * 0.2);
+        assertEquals(PAIRS, filter.pairs(), PAIRS * FALSE_POSITIVE_RATE);
+        assertTrue(filter.sizeInBytes() < 130_000, () -> "Размер фильтра: " + filter.sizeInBytes());
+    }
+
+    @Test
+    void mightContain_whenEmpty_thenReturnFalse() {
+        PairBloomFilter filter = new PairBloomFilter(10, FALSE_POSITIVE_RATE);
+
+        assertFalse(filter.mightContain(1L, 1L));
+        assertEquals(0.0, filter.falsePositiveRate());
+    }
+}
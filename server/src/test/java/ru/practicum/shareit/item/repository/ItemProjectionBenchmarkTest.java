@@ -0,0 +1,123 @@
+package ru.practicum.shareit.item.repository;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.Request;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManager;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares heap allocated per listing request when items are loaded as managed entities and then mapped,
+ * and when they are selected straight into DTOs. Allocation is measured per thread, so the numbers
+ * only include the work of the request itself. Runs only on demand:
+ * <pre>
+ * BENCHMARK=true mvn -pl server test -Dtest=ItemProjectionBenchmarkTest
+ * </pre>
+ */
+@Slf4j
+@EnabledIfEnvironmentVariable(named = "BENCHMARK", matches = "true")
+@Transactional
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = {
+                "logging.level.org.hibernate.SQL=INFO",
+                "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=INFO"
+        })
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+class ItemProjectionBenchmarkTest {
+    private static final int ITEMS = 100;
+    private static final int WARMUP_ITERATIONS = 200;
+    private static final int MEASURED_ITERATIONS = 500;
+
+    ItemRepository itemRepository;
+    EntityManager entityManager;
+
+    @Test
+    void compareEntityAndDtoListings() {
+        // GIVEN
+        User owner = User.builder().name("benchmark").email("benchmark@mail.com").build();
+        entityManager.persist(owner);
+        Request request = Request.builder().description("Нужна дрель").requester(owner)
+                .created(LocalDateTime.now()).build();
+        entityManager.persist(request);
+        for (int i = 0; i < ITEMS; i++) {
+            entityManager.persist(Item.builder().name("Дрель " + i).description("Описание " + i)
+                    .available(true).owner(owner).request(request).build());
+        }
+        entityManager.flush();
+
+        PageRequest page = PageRequest.of(0, ITEMS);
+        Supplier<List<?>> ownerEntities = () -> entityManager
+                .createQuery("SELECT i FROM Item AS i WHERE i.owner.id = :ownerId ORDER BY i.id", Item.class)
+                .setParameter("ownerId", owner.getId())
+                .setMaxResults(ITEMS)
+                .getResultList().stream()
+                .map(ItemMapper::toItemDto)
+                .collect(Collectors.toList());
+        Supplier<List<?>> ownerDtos = () -> itemRepository.findAllDtoByOwnerId(owner.getId(), page).getContent();
+        Supplier<List<?>> requestEntities = () -> entityManager
+                .createQuery("SELECT i FROM Item AS i WHERE i.request.id = :requestId", Item.class)
+                .setParameter("requestId", request.getId())
+                .getResultList().stream()
+                .map(ItemMapper::toItemRequestIdDto)
+                .collect(Collectors.toList());
+        Supplier<List<?>> requestDtos = () -> itemRepository.findAllDtoByRequestId(request.getId());
+
+        // WHEN
+        long ownerEntityBytes = measure(ownerEntities);
+        long ownerDtoBytes = measure(ownerDtos);
+        long requestEntityBytes = measure(requestEntities);
+        long requestDtoBytes = measure(requestDtos);
+
+        // THEN
+        log.info("Предметы владельца ({} шт.): сущности {} байт на запрос, DTO {} байт на запрос",
+                ITEMS, ownerEntityBytes, ownerDtoBytes);
+        log.info("Предметы запроса ({} шт.): сущности {} байт на запрос, DTO {} байт на запрос",
+                ITEMS, requestEntityBytes, requestDtoBytes);
+
+        assertEquals(ownerEntities.get(), ownerDtos.get());
+        assertEquals(requestEntities.get(), requestDtos.get());
+        assertTrue(ownerDtoBytes < ownerEntityBytes);
+        assertTrue(requestDtoBytes < requestEntityBytes);
+    }
+
+    private long measure(Supplier<List<?>> listing) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            entityManager.clear();
+            listing.get();
+        }
+
+        com.sun.management.ThreadMXBean threadMXBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long total = 0;
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            entityManager.clear();
+            long before = threadMXBean.getThreadAllocatedBytes(threadId);
+            listing.get();
+            total += threadMXBean.getThreadAllocatedBytes(threadId) - before;
+        }
+
+        return total / MEASURED_ITERATIONS;
+    }
+}
@@ -2,13 +2,22 @@ package ru.practicum.shareit.item.repository;
 
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
+import org.hibernate.Session;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.QItem;
+import ru.practicum.shareit.item.model.dto.ItemDto;
+import ru.practicum.shareit.item.model.dto.ItemRequestIdDto;
+import ru.practicum.shareit.request.model.Request;
 import ru.practicum.shareit.user.model.User;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -53,4 +62,98 @@ class ItemRepositoryTest {
         assertEquals(savedItem, foundItem);
         assertEquals(savedOwner, foundItem.getOwner());
     }
-}
\ No newline at end of file
+
+    @Test
+    void findAllDtoByOwnerId_whenInvoked_thenReturnOwnerItemsWithoutLoadingEntities() {
+        User owner = em.persist(User.builder().name("owner").email("owner@mail.com").build());
+        User otherOwner = em.persist(User.builder().name("other").email("other@mail.com").build());
+        Item item = em.persist(Item.builder().name("Дрель").description("Простая дрель")
+                .available(true).owner(owner).build());
+        em.persist(Item.builder().name("Отвертка").description("Крестовая отвертка")
+                .available(true).owner(otherOwner).build());
+        Item item2 = em.persist(Item.builder().name("Пила").description("Ручная пила")
+                .available(false).owner(owner).build());
+        em.flush();
+        em.clear();
+
+        List<ItemDto> foundItems = itemRepository.findAllDtoByOwnerId(owner.getId(), PageRequest.of(0, 10)).getContent();
+        List<ItemDto> foundItemsAfter =
+                itemRepository.findAllDtoByOwnerIdAfter(owner.getId(), item.getId(), PageRequest.of(0, 10)).getContent();
+
+        assertEquals(List.of(new ItemDto(item.getId(), "Дрель", "Простая дрель", true),
+                new ItemDto(item2.getId(), "Пила", "Ручная пила", false)), foundItems);
+        assertEquals(List.of(new ItemDto(item2.getId(), "Пила", "Ручная пила", false)), foundItemsAfter);
+        assertEquals(0, getManagedEntityCount());
+    }
+
+    @Test
+    void findAllDtoByRequestId_whenInvoked_thenReturnRequestItemsWithoutLoadingEntities() {
+        User owner = em.persist(User.builder().name("owner").email("owner@mail.com").build());
+        User requester = em.persist(User.builder().name("requester").email("requester@mail.com").build());
+        Request request = em.persist(Request.builder().description("Нужна дрель")
+                .requester(requester).created(LocalDateTime.now()).build());
+        Item item = em.persist(Item.builder().name("Дрель").description("Простая дрель")
+                .available(true).owner(owner).request(request).build());
+        em.persist(Item.builder().name("Пила").description("Ручная пила").available(true).owner(owner).build());
+        em.flush();
+        em.clear();
+
+        List<ItemRequestIdDto> foundItems = itemRepository.findAllDtoByRequestId(request.getId());
+
+        assertEquals(List.of(new ItemRequestIdDto(item.getId(), "Дрель", "Простая дрель", true, request.getId())),
+                foundItems);
+        assertEquals(0, getManagedEntityCount());
+    }
+
+    @Test
+    void findAllDtoByRequestIdIn_whenInvoked_thenReturnItemsOfAllRequests() {
+        User owner = em.persist(User.builder().name("owner").email("owner@mail.com").build());
+        User requester = em.persist(User.builder().name("requester").email("requester@mail.com").build());
+        Request request = em.persist(Request.builder().description("Нужна дрель")
+                .requester(requester).created(LocalDateTime.now()).build());
+        Request request2 = em.persist(Request.builder().description("Нужна пила")
+                .requester(requester).created(LocalDateTime.now()).build());
+        Request request3 = em.persist(Request.builder().description("Нужен молоток")
+                .requester(requester).created(LocalDateTime.now()).build());
+        Item item = em.persist(Item.builder().name("Дрель").description("Простая дрель")
+                .available(true).owner(owner).request(request).build());
+        Item item2 = em.persist(Item.builder().name("Пила").description("Ручная пила")
+                .available(false).owner(owner).request(request2).build());
+        em.persist(Item.builder().name("Молоток").description("Большой молоток")
+                .available(true).owner(owner).request(request3).build());
+        em.flush();
+        em.clear();
+
+        List<ItemRequestIdDto> foundItems =
+                itemRepository.findAllDtoByRequestIdIn(List.of(request.getId(), request2.getId()));
+
+        assertEquals(List.of(new ItemRequestIdDto(item.getId(), "Дрель", "Простая дрель", true, request.getId()),
+                new ItemRequestIdDto(item2.getId(), "Пила", "Ручная пила", false, request2.getId())), foundItems);
+        assertEquals(0, getManagedEntityCount());
+    }
+
+    @Test
+    void findAllDto_whenInvoked_thenReturnMatchingItemsInPageOrder() {
+        User owner = em.persist(User.builder().name("owner").email("owner@mail.com").build());
+        Item item = em.persist(Item.builder().name("Дрель").description("Простая дрель")
+                .available(true).owner(owner).build());
+        em.persist(Item.builder().name("Дрель ударная").description("Недоступна")
+                .available(false).owner(owner).build());
+        Item item2 = em.persist(Item.builder().name("Шуруповерт").description("Почти дрель")
+                .available(true).owner(owner).build());
+        em.flush();
+        em.clear();
+
+        List<ItemDto> foundItems = itemRepository.findAllDto(
+                QItem.item.available.isTrue().and(QItem.item.description.containsIgnoreCase("ДРЕЛЬ")),
+                PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "id")));
+
+        assertEquals(List.of(new ItemDto(item2.getId(), "Шуруповерт", "Почти дрель", true),
+                new ItemDto(item.getId(), "Дрель", "Простая дрель", true)), foundItems);
+        assertEquals(0, getManagedEntityCount());
+    }
+
+    private int getManagedEntityCount() {
+        return em.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount();
+    }
+}
@@ -0,0 +1,47 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.common.model.OffsetPageRequest;
+import ru.practicum.shareit.item.model.dto.ItemDto;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class FullTextItemSearchBackendTest {
+    @Mock
+    ItemRepository itemRepository;
+
+    @InjectMocks
+    FullTextItemSearchBackend fullTextItemSearchBackend;
+
+    @Test
+    void search_whenInvoked_thenReturnItemsInRepositoryOrder() {
+        ItemDto item = ItemDto.builder().id(2L).name("Дрель").description("Дрель, дрель").available(true).build();
+        ItemDto item2 = ItemDto.builder().id(1L).name("Отвертка").description("Почти дрель").available(true).build();
+        OffsetPageRequest pageRequest = OffsetPageRequest.of(5, 10);
+
+        when(itemRepository.findAllAvailableDtoByFullTextQuery("дрель", 5, 10)).thenReturn(List.of(item, item2));
+
+        List<ItemDto> actualItems = fullTextItemSearchBackend.search("дрель", pageRequest);
+
+        assertEquals(List.of(item, item2), actualItems);
+        verify(itemRepository, only()).findAllAvailableDtoByFullTextQuery("дрель", 5, 10);
+    }
+
+    @Test
+    void supportsCursor_whenOrderedByRank_thenFalse() {
+        assertFalse(fullTextItemSearchBackend.supportsCursor());
+    }
+}
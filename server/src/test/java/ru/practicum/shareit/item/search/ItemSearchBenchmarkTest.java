@@ -0,0 +1,107 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Compares the QueryDSL {@code LIKE} and the PostgreSQL full-text search backends on a generated catalog.
+ * Runs only against PostgreSQL, e.g. the database from docker-compose:
+ * <pre>
+ * BENCHMARK_DATASOURCE_URL=jdbc:postgresql://localhost:6541/shareit \
+ *     mvn -pl server test -Dtest=ItemSearchBenchmarkTest
+ * </pre>
+ * The catalog is generated once and reused by the following runs.
+ */
+@Slf4j
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = {
+                "spring.datasource.driverClassName=org.postgresql.Driver",
+                "spring.datasource.url=${BENCHMARK_DATASOURCE_URL}",
+                "spring.datasource.username=${BENCHMARK_DATASOURCE_USERNAME:root}",
+                "spring.datasource.password=${BENCHMARK_DATASOURCE_PASSWORD:root}",
+                "spring.sql.init.schema-locations=classpath:schema.sql, classpath:schema-postgres.sql",
+                "logging.level.org.hibernate.SQL=INFO",
+                "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=INFO"
+        })
+@EnabledIfEnvironmentVariable(named = "BENCHMARK_DATASOURCE_URL", matches = ".+")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+class ItemSearchBenchmarkTest {
+    private static final int CATALOG_SIZE = 1_000_000;
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int MEASURED_ITERATIONS = 20;
+    private static final List<String> QUERIES =
+            List.of("дрель", "аккумуляторная", "палатка туристическая", "несуществующий");
+
+    ItemRepository itemRepository;
+    JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void generateCatalog() {
+        jdbcTemplate.update("INSERT INTO users (name, email) " +
+                "VALUES ('benchmark', 'benchmark@shareit.ru') " +
+                "ON CONFLICT (email) DO NOTHING");
+
+        Integer existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM items", Integer.class);
+        int missing = CATALOG_SIZE - (existing == null ? 0 : existing);
+        if (missing <= 0) {
+            return;
+        }
+
+        log.info("Генерация каталога: {} предметов", missing);
+        jdbcTemplate.update("INSERT INTO items (name, description, available, owner_id) " +
+                "SELECT (ARRAY['Дрель', 'Отвертка', 'Самокат', 'Пылесос', 'Палатка'])[1 + g % 5] || ' ' || g, " +
+                "'Описание: ' || (ARRAY['ударная', 'аккумуляторная', 'детский', 'туристическая', 'моющий'])" +
+                "[1 + (g / 5) % 5] || ' ' || md5(g::text), " +
+                "g % 10 <> 0, " +
+                "(SELECT id FROM users WHERE email = 'benchmark@shareit.ru') " +
+                "FROM generate_series(1, ?) AS g", missing);
+        jdbcTemplate.execute("ANALYZE items");
+    }
+
+    @Test
+    void compareBackends() {
+        Pageable pageable = PageRequest.of(0, 10);
+        ItemSearchBackend queryDsl = new QueryDslItemSearchBackend(itemRepository);
+        ItemSearchBackend fullText = new FullTextItemSearchBackend(itemRepository);
+
+        for (String query : QUERIES) {
+            double queryDslMillis = measure(queryDsl, query, pageable);
+            double fullTextMillis = measure(fullText, query, pageable);
+
+            log.info("Запрос \"{}\": query-dsl {} мс, full-text {} мс",
+                    query, String.format("%.2f", queryDslMillis), String.format("%.2f", fullTextMillis));
+        }
+
+        assertFalse(fullText.search("дрель", pageable).isEmpty());
+    }
+
+    private double measure(ItemSearchBackend backend, String query, Pageable pageable) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            backend.search(query, pageable);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            backend.search(query, pageable);
+        }
+
+        return (System.nanoTime() - start) / 1_000_000.0 / MEASURED_ITERATIONS;
+    }
+}
@@ -0,0 +1,139 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.dto.ItemDto;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class ItemSearchEngineTest {
+    @Mock
+    ItemRepository itemRepository;
+
+    @InjectMocks
+    ItemSearchEngine itemSearchEngine;
+
+    final PageRequest firstPage = PageRequest.of(0, 10);
+
+    final User owner = User.builder().id(1L).build();
+    final User owner2 = User.builder().id(2L).build();
+
+    final Item drill = Item.builder()
+            .id(1L).name("Дрель").description("Простая дрель").available(true).owner(owner).build();
+    final Item screwdriver = Item.builder()
+            .id(2L).name("Отвертка").description("Аккумуляторная дрель-шуруповёрт")
+            .available(true).owner(owner2).build();
+    final Item scooter = Item.builder()
+            .id(3L).name("Самокат").description("Детский").available(true).owner(owner2).build();
+
+    @BeforeEach
+    void setUp() {
+        when(itemRepository.findAllByAvailableTrue()).thenReturn(List.of(drill, screwdriver, scooter));
+        itemSearchEngine.rebuild();
+    }
+
+    @Test
+    void search_whenTextInNameOrDescription_thenReturnItemsIgnoringCase() {
+        List<ItemDto> actualItems = itemSearchEngine.search("ДРЕЛ", firstPage);
+
+        assertEquals(List.of(ItemMapper.toItemDto(drill), ItemMapper.toItemDto(screwdriver)), actualItems);
+    }
+
+    @Test
+    void search_whenTextShorterThanTrigram_thenReturnMatchingItems() {
+        List<ItemDto> actualItems = itemSearchEngine.search("ск", firstPage);
+
+        assertEquals(List.of(ItemMapper.toItemDto(scooter)), actualItems);
+    }
+
+    @Test
+    void search_whenTrigramsMatchButTextNot_thenReturnEmptyList() {
+        List<ItemDto> actualItems = itemSearchEngine.search("дрелка", firstPage);
+
+        assertEquals(Collections.emptyList(), actualItems);
+    }
+
+    @Test
+    void search_whenOffsetAndLimitDefined_thenReturnPage() {
+        List<ItemDto> actualItems = itemSearchEngine.search("е", PageRequest.of(1, 1));
+
+        assertEquals(List.of(ItemMapper.toItemDto(screwdriver)), actualItems);
+    }
+
+    @Test
+    void searchAfter_whenCursorGiven_thenReturnMatchesWithGreaterIds() {
+        List<ItemDto> actualItems = itemSearchEngine.searchAfter("е", 1L, 1);
+
+        assertEquals(List.of(ItemMapper.toItemDto(screwdriver)), actualItems);
+    }
+
+    @Test
+    void index_whenItemBecomesUnavailable_thenItemNotFound() {
+        itemSearchEngine.index(Item.builder()
+                .id(1L).name("Дрель").description("Простая дрель").available(false).owner(owner).build());
+
+        assertEquals(List.of(ItemMapper.toItemDto(screwdriver)), itemSearchEngine.search("дрель", firstPage));
+    }
+
+    @Test
+    void index_whenItemRenamed_thenOldTextNotFound() {
+        itemSearchEngine.index(Item.builder()
+                .id(3L).name("Велосипед").description("Детский").available(true).owner(owner2).build());
+
+        assertEquals(Collections.emptyList(), itemSearchEngine.search("самокат", firstPage));
+        assertEquals(1, itemSearchEngine.search("велосипед", firstPage).size());
+    }
+
+    @Test
+    void delete_whenItemDeleted_thenItemNotFound() {
+        itemSearchEngine.delete(1L);
+
+        assertEquals(List.of(ItemMapper.toItemDto(screwdriver)), itemSearchEngine.search("дрель", firstPage));
+    }
+
+    @Test
+    void deleteAllByOwnerId_whenOwnerDeleted_thenOwnerItemsNotFound() {
+        itemSearchEngine.deleteAllByOwnerId(2L);
+
+        assertEquals(List.of(ItemMapper.toItemDto(drill)), itemSearchEngine.search("е", firstPage));
+    }
+
+    @Test
+    void index_whenTransactionRolledBack_thenPreviousStateRestored() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            itemSearchEngine.index(Item.builder()
+                    .id(1L).name("Молоток").description("Тяжелый").available(true).owner(owner).build());
+            itemSearchEngine.index(Item.builder()
+                    .id(4L).name("Дрель ударная").description("Новая").available(true).owner(owner).build());
+            itemSearchEngine.delete(2L);
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(List.of(ItemMapper.toItemDto(drill), ItemMapper.toItemDto(screwdriver)),
+                itemSearchEngine.search("дрель", firstPage));
+    }
+}
@@ -0,0 +1,47 @@
+package ru.practicum.shareit.item.search;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.item.model.QItem;
+import ru.practicum.shareit.item.model.dto.ItemDto;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class QueryDslItemSearchBackendTest {
+    @Mock
+    ItemRepository itemRepository;
+
+    @InjectMocks
+    QueryDslItemSearchBackend queryDslItemSearchBackend;
+
+    @Test
+    void search_whenInvoked_thenReturnAvailableItemsContainingTextInIdOrder() {
+        ItemDto item = ItemDto.builder().id(1L).name("Дрель").description("Простая дрель").available(true).build();
+        PageRequest pageRequest = PageRequest.of(0, 10, Sort.by("id"));
+
+        String text = "дрель";
+        BooleanExpression expectedExpression = QItem.item.available.isTrue()
+                .and(QItem.item.name.containsIgnoreCase(text).or(QItem.item.description.containsIgnoreCase(text)));
+
+        when(itemRepository.findAllDto(expectedExpression, pageRequest)).thenReturn(List.of(item));
+
+        List<ItemDto> actualItems = queryDslItemSearchBackend.search(text, PageRequest.of(0, 10));
+
+        assertEquals(List.of(item), actualItems);
+        verify(itemRepository, only()).findAllDto(expectedExpression, pageRequest);
+    }
+}
@@ -3,6 +3,8 @@ package ru.practicum.shareit.item.service;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -12,20 +14,32 @@ import ru.practicum.shareit.booking.model.dto.BookingDto;
 import ru.practicum.shareit.booking.model.dto.BookingItemIdAndTimeDto;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.common.model.PaginationConfig;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.dto.CommentDto;
+import ru.practicum.shareit.item.model.dto.ItemBookingsAndCommentsDto;
 import ru.practicum.shareit.item.model.dto.ItemBookingsDto;
 import ru.practicum.shareit.item.model.dto.ItemDto;
 import ru.practicum.shareit.item.model.dto.ItemRequestIdDto;
+import ru.practicum.shareit.request.model.Request;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.model.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @Transactional
-@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 class ItemServiceIntegrationTest {
@@ -33,6 +47,8 @@ class ItemServiceIntegrationTest {
     ItemService itemService;
     UserService userService;
     BookingService bookingService;
+    EntityManager entityManager;
+    EntityManagerFactory entityManagerFactory;
 
     PaginationConfig paginationConfig = new PaginationConfig();
 
@@ -92,8 +108,8 @@ class ItemServiceIntegrationTest {
         BookingDto bookingDto2 = bookingService.create(user2Id, bookingItemIdAndTimeDto2);
 
         // WHEN
-        List<ItemBookingsDto> actualUser1ItemBookingsDtos = itemService.getAllByOwnerId(user1Id, paginationConfig);
-        List<ItemBookingsDto> actualUser2ItemBookingsDtos = itemService.getAllByOwnerId(user2Id, paginationConfig);
+        List<ItemBookingsDto> actualUser1ItemBookingsDtos = itemService.getAllByOwnerId(user1Id, paginationConfig).getContent();
+        List<ItemBookingsDto> actualUser2ItemBookingsDtos = itemService.getAllByOwnerId(user2Id, paginationConfig).getContent();
 
         // THEN
         List<ItemBookingsDto> expectedUser1ItemBookingsDtos = List.of(
@@ -204,4 +220,129 @@ class ItemServiceIntegrationTest {
         assertEquals(expectedUser1ItemDtos, actualUser1ItemDtos);
         assertEquals(expectedUser2ItemDtos, actualUser2ItemDtos);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getAllByOwnerId_whenPageGrows_thenQueryCountStaysTheSame() {
+        // GIVEN
+        User owner = userService.create(UserDto.builder().name("owner").email("owner@mail.com").build());
+        User booker = userService.create(UserDto.builder().name("booker").email("booker@mail.com").build());
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        PaginationConfig smallPage = new PaginationConfig();
+        smallPage.setSize(5);
+        PaginationConfig largePage = new PaginationConfig();
+        largePage.setSize(50);
+
+        createItemsWithBookings(owner.getId(), booker.getId(), 5);
+        entityManager.flush();
+        statistics.clear();
+
+        // WHEN
+        List<ItemBookingsDto> smallPageItems = itemService.getAllByOwnerId(owner.getId(), smallPage).getContent();
+        long smallPageStatementCount = statistics.getPrepareStatementCount();
+
+        createItemsWithBookings(owner.getId(), booker.getId(), 45);
+        entityManager.flush();
+        statistics.clear();
+
+        List<ItemBookingsDto> largePageItems = itemService.getAllByOwnerId(owner.getId(), largePage).getContent();
+        long largePageStatementCount = statistics.getPrepareStatementCount();
+
+        // THEN
+        assertEquals(5, smallPageItems.size());
+        assertEquals(50, largePageItems.size());
+        largePageItems.forEach(itemBookingsDto -> {
+            assertEquals(booker.getId(), itemBookingsDto.getLastBooking().getBookerId());
+            assertEquals(booker.getId(), itemBookingsDto.getNextBooking().getBookerId());
+        });
+        assertEquals(smallPageStatementCount, largePageStatementCount);
+    }
+
+    @Test
+    void getById_whenCommentsWrittenByDifferentAuthors_thenLoadCommentPageInOneStatement() {
+        // GIVEN
+        User owner = userService.create(UserDto.builder().name("owner").email("owner@mail.com").build());
+        ItemRequestIdDto itemRequestIdDto = itemService.create(owner.getId(), ItemRequestIdDto.builder()
+                .name("item")
+                .description("description")
+                .available(true)
+                .build());
+
+        for (int i = 0; i < 5; i++) {
+            User author = userService.create(UserDto.builder().name("author" + i).email(i + "@mail.com").build());
+            entityManager.persist(Comment.builder()
+                    .text("comment" + i)
+                    .item(entityManager.getReference(Item.class, itemRequestIdDto.getId()))
+                    .author(author)
+                    .created(LocalDateTime.now())
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // WHEN
+        ItemBookingsAndCommentsDto item = itemService.getById(owner.getId() + 100, itemRequestIdDto.getId(), 0, 3);
+
+        // THEN
+        assertEquals(List.of("author0", "author1", "author2"), item.getComments().stream()
+                .map(CommentDto::getAuthorName)
+                .collect(Collectors.toList()));
+        assertEquals(5L, item.getCommentsCount());
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void createAll_whenManyItems_thenInsertInBatches() {
+        // GIVEN
+        User owner = userService.create(UserDto.builder().name("owner").email("owner@mail.com").build());
+        Request request = Request.builder().description("request").requester(owner).created(LocalDateTime.now()).build();
+        entityManager.persist(request);
+        entityManager.flush();
+
+        List<ItemRequestIdDto> itemRequestIdDtos = IntStream.range(0, 120)
+                .mapToObj(i -> ItemRequestIdDto.builder()
+                        .name("item" + i)
+                        .description("description" + i)
+                        .available(true)
+                        .requestId(i % 2 == 0 ? request.getId() : null)
+                        .build())
+                .collect(Collectors.toList());
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // WHEN
+        List<ItemRequestIdDto> createdItems = itemService.createAll(owner.getId(), itemRequestIdDtos);
+        entityManager.flush();
+
+        // THEN
+        assertEquals(120, createdItems.stream().map(ItemRequestIdDto::getId).distinct().count());
+        assertEquals(60, createdItems.stream().filter(item -> request.getId().equals(item.getRequestId())).count());
+        assertEquals(120, statistics.getEntityInsertCount());
+        assertTrue(statistics.getPrepareStatementCount() < 10);
+    }
+
+    private void createItemsWithBookings(Long ownerId, Long bookerId, int count) {
+        for (int i = 0; i < count; i++) {
+            ItemRequestIdDto itemRequestIdDto = itemService.create(ownerId, ItemRequestIdDto.builder()
+                    .name("item" + i)
+                    .description("description" + i)
+                    .available(true)
+                    .build());
+
+            bookingService.create(bookerId, new BookingItemIdAndTimeDto(
+                    itemRequestIdDto.getId(),
+                    LocalDateTime.now().minusDays(2),
+                    LocalDateTime.now().minusDays(1)
+            ));
+            bookingService.create(bookerId, new BookingItemIdAndTimeDto(
+                    itemRequestIdDto.getId(),
+                    LocalDateTime.now().plusDays(1),
+                    LocalDateTime.now().plusDays(2)
+            ));
+        }
+    }
+}
@@ -1,6 +1,6 @@
 package ru.practicum.shareit.item.service;
 
-import com.querydsl.core.types.dsl.BooleanExpression;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import org.junit.jupiter.api.Test;
@@ -8,36 +8,49 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import ru.practicum.shareit.booking.conflict.BookingConflictDetector;
 import ru.practicum.shareit.booking.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.summary.BookingStatusCounters;
 import ru.practicum.shareit.common.exception.BadRequestException;
 import ru.practicum.shareit.common.exception.NotFoundException;
+import ru.practicum.shareit.common.model.OffsetPageRequest;
 import ru.practicum.shareit.common.model.PaginationConfig;
 import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.cache.ItemDetailsCache;
+import ru.practicum.shareit.item.comment.CommentEligibilityFilter;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.item.model.QItem;
 import ru.practicum.shareit.item.model.dto.*;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchBackend;
 import ru.practicum.shareit.item.service.impl.ItemServiceImpl;
+import ru.practicum.shareit.request.feed.RequestFeed;
+import ru.practicum.shareit.request.match.RequestMatch;
+import ru.practicum.shareit.request.match.RequestMatchEngine;
 import ru.practicum.shareit.request.model.Request;
+import ru.practicum.shareit.request.model.Suggestion;
 import ru.practicum.shareit.request.repository.RequestRepository;
+import ru.practicum.shareit.request.repository.SuggestionRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
@@ -59,6 +72,31 @@ class ItemServiceTest {
     @Mock
     RequestRepository requestRepository;
 
+    @Mock
+    ItemSearchBackend itemSearchBackend;
+
+    @Mock
+    BookingConflictDetector bookingConflictDetector;
+
+    @Mock
+    BookingStatusCounters bookingStatusCounters;
+
+    @Mock
+    CommentEligibilityFilter commentEligibilityFilter;
+
+    @Mock
+    RequestFeed requestFeed;
+
+    @Mock
+    RequestMatchEngine requestMatchEngine;
+
+    @Mock
+    SuggestionRepository suggestionRepository;
+
+    @Spy
+    ItemDetailsCache itemDetailsCache =
+            new ItemDetailsCache(100, Duration.ofMinutes(5), new SimpleMeterRegistry());
+
     @InjectMocks
     ItemServiceImpl itemService;
 
@@ -94,11 +132,6 @@ class ItemServiceTest {
             .description("request")
             .created(now);
 
-    final Comment.CommentBuilder commentBuilder = Comment.builder()
-            .id(1L)
-            .text("Random text")
-            .created(now);
-
     final Booking.BookingBuilder bookingBuilder = Booking.builder()
             .id(1L)
             .status(BookingStatus.WAITING)
@@ -114,6 +147,8 @@ class ItemServiceTest {
 
     final PaginationConfig paginationConfig = new PaginationConfig();
 
+    final Pageable firstCommentsPage = OffsetPageRequest.of(0, 10);
+
     final CommentTextDto commentTextDto = new CommentTextDto("Random text");
 
     @Test
@@ -133,6 +168,7 @@ class ItemServiceTest {
         InOrder inOrder = inOrder(userRepository, itemRepository);
         inOrder.verify(userRepository, times(1)).findById(1L);
         inOrder.verify(itemRepository, times(1)).save(any(Item.class));
+        verify(itemSearchBackend, only()).index(returnedItem);
         verifyNoMoreInteractions(userRepository, itemRepository);
     }
 
@@ -160,7 +196,30 @@ class ItemServiceTest {
         inOrder.verify(userRepository, times(1)).findById(1L);
         inOrder.verify(requestRepository, times(1)).findById(1L);
         inOrder.verify(itemRepository, times(1)).save(any(Item.class));
+        verify(requestMatchEngine, only()).close(request.getId());
         verifyNoMoreInteractions(userRepository, itemRepository, requestRepository);
+        verifyNoInteractions(suggestionRepository);
+    }
+
+    @Test
+    void create_whenItemMatchesOpenRequests_thenSaveSuggestions() {
+        ItemRequestIdDto itemRequestIdDto = itemRequestIdDtoBuilder.build();
+        User returnedOwner = userBuilder.build();
+        Item returnedItem = itemBuilder.owner(returnedOwner).build();
+        Request request = requestBuilder.id(7L).build();
+
+        when(userRepository.findById(1L)).thenReturn(Optional.of(returnedOwner));
+        when(itemRepository.save(any(Item.class))).thenReturn(returnedItem);
+        when(requestMatchEngine.match(returnedItem)).thenReturn(List.of(new RequestMatch(7L, 2.5)));
+        when(requestRepository.getReferenceById(7L)).thenReturn(request);
+
+        itemService.create(1L, itemRequestIdDto);
+
+        verify(suggestionRepository, only()).saveAll(List.of(Suggestion.builder()
+                .request(request)
+                .item(returnedItem)
+                .score(2.5)
+                .build()));
     }
 
     @Test
@@ -196,6 +255,71 @@ class ItemServiceTest {
         verifyNoMoreInteractions(userRepository);
     }
 
+    @Test
+    void createAll_whenOwnerAndRequestsFound_thenResolveRequestsOnceAndSaveAll() {
+        ItemRequestIdDto itemRequestIdDto = itemRequestIdDtoBuilder.requestId(1L).build();
+        ItemRequestIdDto itemRequestIdDto2 = itemRequestIdDtoBuilder.name("item2").requestId(1L).build();
+        ItemRequestIdDto itemRequestIdDto3 = itemRequestIdDtoBuilder.name("item3").requestId(null).build();
+        User owner = userBuilder.build();
+        Request request = requestBuilder.build();
+
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(userRepository.getReferenceById(1L)).thenReturn(owner);
+        when(requestRepository.findAllById(Set.of(1L))).thenReturn(List.of(request));
+        when(itemRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<ItemRequestIdDto> createdItems =
+                itemService.createAll(1L, List.of(itemRequestIdDto, itemRequestIdDto2, itemRequestIdDto3));
+
+        assertEquals(List.of(itemRequestIdDto, itemRequestIdDto2, itemRequestIdDto3), createdItems);
+        InOrder inOrder = inOrder(userRepository, requestRepository, itemRepository);
+        inOrder.verify(userRepository, times(1)).existsById(1L);
+        inOrder.verify(userRepository, times(1)).getReferenceById(1L);
+        inOrder.verify(requestRepository, times(1)).findAllById(Set.of(1L));
+        inOrder.verify(itemRepository, times(1)).saveAll(anyList());
+        verify(itemSearchBackend, times(3)).index(any(Item.class));
+        verifyNoMoreInteractions(userRepository, requestRepository, itemRepository);
+    }
+
+    @Test
+    void createAll_whenNoRequestIds_thenDoNotQueryRequests() {
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(userRepository.getReferenceById(1L)).thenReturn(userBuilder.build());
+        when(itemRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        itemService.createAll(1L, List.of(itemRequestIdDtoBuilder.build()));
+
+        verifyNoInteractions(requestRepository);
+    }
+
+    @Test
+    void createAll_whenRequestNotFound_thenThrowNotFoundException() {
+        List<ItemRequestIdDto> itemRequestIdDtos = List.of(
+                itemRequestIdDtoBuilder.requestId(1L).build(),
+                itemRequestIdDtoBuilder.requestId(2L).build());
+
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(userRepository.getReferenceById(1L)).thenReturn(userBuilder.build());
+        when(requestRepository.findAllById(Set.of(1L, 2L))).thenReturn(List.of(requestBuilder.build()));
+
+        NotFoundException requestNotFoundException = assertThrows(NotFoundException.class,
+                () -> itemService.createAll(1L, itemRequestIdDtos));
+
+        assertEquals("Запрос на предмет с id 2 не найден", requestNotFoundException.getMessage());
+        verifyNoInteractions(itemRepository, itemSearchBackend);
+    }
+
+    @Test
+    void createAll_whenOwnerNotFound_thenThrowNotFoundException() {
+        when(userRepository.existsById(1L)).thenReturn(false);
+
+        NotFoundException userNotFoundException = assertThrows(NotFoundException.class,
+                () -> itemService.createAll(1L, List.of(itemRequestIdDtoBuilder.build())));
+
+        assertEquals("Пользователь с id 1 не найден", userNotFoundException.getMessage());
+        verifyNoInteractions(requestRepository, itemRepository, itemSearchBackend);
+    }
+
     @Test
     void update_whenUserAndItemFoundAndUserIsAnOwner_thenUpdateItem() {
         ItemDto itemDto = itemDtoBuilder.description("Test2").build();
@@ -218,6 +342,7 @@ class ItemServiceTest {
         inOrder.verify(userRepository, times(1)).findById(1L);
         inOrder.verify(itemRepository, times(1)).findById(1L);
         inOrder.verify(itemRepository, times(1)).save(any(Item.class));
+        verify(itemDetailsCache, times(1)).evict(1L);
         verifyNoMoreInteractions(userRepository, itemRepository);
     }
 
@@ -277,35 +402,35 @@ class ItemServiceTest {
     @Test
     void getById_whenItemFoundAndUserNotOwner_thenReturnItemWithoutBookings() {
         Item returnedItem = itemBuilder.owner(User.builder().id(100L).build()).build();
-        User commentWriter = userBuilder.build();
-        Comment comment = commentBuilder.author(commentWriter).build();
-        Comment comment2 = commentBuilder.id(2L).author(commentWriter).build();
-        List<Comment> comments = List.of(comment, comment2);
+        List<CommentDto> comments = List.of(
+                new CommentDto(1L, "Random text", "user", now),
+                new CommentDto(2L, "Random text", "user", now)
+        );
 
         when(itemRepository.findByIdWithOwner(1L)).thenReturn(Optional.of(returnedItem));
-        when(commentRepository.findAllByItemId(1L)).thenReturn(comments);
+        when(commentRepository.findAllDtoByItemId(1L, firstCommentsPage)).thenReturn(comments);
 
-        ItemBookingsAndCommentsDto actualItem = itemService.getById(1L, 1L);
+        ItemBookingsAndCommentsDto actualItem = itemService.getById(1L, 1L, 0, 10);
         ItemBookingsAndCommentsDto expectedItem =
                 itemBookingsAndCommentsDtoBuilder
-                        .comments(ItemMapper.toCommentDto(comments))
+                        .comments(comments)
+                        .commentsCount(2L)
                         .build();
 
         assertEquals(expectedItem, actualItem);
         InOrder inOrder = inOrder(itemRepository, commentRepository);
         inOrder.verify(itemRepository, times(1)).findByIdWithOwner(1L);
-        inOrder.verify(commentRepository, times(1)).findAllByItemId(1L);
+        inOrder.verify(commentRepository, times(1)).findAllDtoByItemId(1L, firstCommentsPage);
         verifyNoMoreInteractions(commentRepository, itemRepository);
     }
 
     @Test
     void getById_whenItemFoundAndUserOwner_thenReturnItemWithBookings() {
         Item returnedItem = itemBuilder.owner(userBuilder.build()).build();
-        User commentWriter = userBuilder.build();
-
-        Comment comment = commentBuilder.author(commentWriter).build();
-        Comment comment2 = commentBuilder.id(2L).author(commentWriter).build();
-        List<Comment> comments = List.of(comment, comment2);
+        List<CommentDto> comments = List.of(
+                new CommentDto(1L, "Random text", "user", now),
+                new CommentDto(2L, "Random text", "user", now)
+        );
 
         User booker1 = userBuilder.id(10L).build();
         User booker2 = userBuilder.id(12L).build();
@@ -315,16 +440,19 @@ class ItemServiceTest {
                 .start(now.plusDays(2))
                 .end(now.plusDays(15))
                 .build();
-        List<Booking> bookings = List.of(lastBooking, nextBooking);
 
         when(itemRepository.findByIdWithOwner(1L)).thenReturn(Optional.of(returnedItem));
-        when(commentRepository.findAllByItemId(1L)).thenReturn(comments);
-        when(bookingRepository.findAllAcceptedByItemId(1L)).thenReturn(bookings);
+        when(commentRepository.findAllDtoByItemId(1L, firstCommentsPage)).thenReturn(comments);
+        when(bookingRepository.findFirstByItemIdAndStatusInAndStartBeforeOrderByStartDescIdAsc(
+                eq(1L), anyCollection(), any(LocalDateTime.class))).thenReturn(Optional.of(lastBooking));
+        when(bookingRepository.findFirstByItemIdAndStatusInAndStartAfterOrderByStartAscIdAsc(
+                eq(1L), anyCollection(), any(LocalDateTime.class))).thenReturn(Optional.of(nextBooking));
 
-        ItemBookingsAndCommentsDto actualItem = itemService.getById(1L, 1L);
+        ItemBookingsAndCommentsDto actualItem = itemService.getById(1L, 1L, 0, 10);
         ItemBookingsAndCommentsDto expectedItem =
                 itemBookingsAndCommentsDtoBuilder
-                        .comments(ItemMapper.toCommentDto(comments))
+                        .comments(comments)
+                        .commentsCount(2L)
                         .lastBooking(BookingMapper.toBookingBookerIdDto(lastBooking))
                         .nextBooking(BookingMapper.toBookingBookerIdDto(nextBooking))
                         .build();
@@ -332,15 +460,82 @@ class ItemServiceTest {
         assertEquals(expectedItem, actualItem);
         InOrder inOrder = inOrder(itemRepository, commentRepository, bookingRepository);
         inOrder.verify(itemRepository, times(1)).findByIdWithOwner(1L);
-        inOrder.verify(commentRepository, times(1)).findAllByItemId(1L);
-        inOrder.verify(bookingRepository, times(1)).findAllAcceptedByItemId(1L);
+        inOrder.verify(commentRepository, times(1)).findAllDtoByItemId(1L, firstCommentsPage);
+        inOrder.verify(bookingRepository, times(1)).findFirstByItemIdAndStatusInAndStartBeforeOrderByStartDescIdAsc(
+                eq(1L), anyCollection(), any(LocalDateTime.class));
+        inOrder.verify(bookingRepository, times(1)).findFirstByItemIdAndStatusInAndStartAfterOrderByStartAscIdAsc(
+                eq(1L), anyCollection(), any(LocalDateTime.class));
         verifyNoMoreInteractions(commentRepository, itemRepository, bookingRepository);
     }
 
+    @Test
+    void getById_whenCalledTwice_thenLoadItemOnce() {
+        Item returnedItem = itemBuilder.owner(User.builder().id(100L).build()).build();
+
+        when(itemRepository.findByIdWithOwner(1L)).thenReturn(Optional.of(returnedItem));
+        when(commentRepository.findAllDtoByItemId(1L, firstCommentsPage)).thenReturn(Collections.emptyList());
+
+        ItemBookingsAndCommentsDto firstItem = itemService.getById(1L, 1L, 0, 10);
+        ItemBookingsAndCommentsDto secondItem = itemService.getById(2L, 1L, 0, 10);
+
+        assertEquals(firstItem, secondItem);
+        verify(itemRepository, only()).findByIdWithOwner(1L);
+        verify(commentRepository, only()).findAllDtoByItemId(1L, firstCommentsPage);
+    }
+
+    @Test
+    void getById_whenItemEvicted_thenLoadItemAgain() {
+        Item returnedItem = itemBuilder.owner(User.builder().id(100L).build()).build();
+
+        when(itemRepository.findByIdWithOwner(1L)).thenReturn(Optional.of(returnedItem));
+        when(commentRepository.findAllDtoByItemId(1L, firstCommentsPage)).thenReturn(Collections.emptyList());
+
+        itemService.getById(1L, 1L, 0, 10);
+        itemDetailsCache.evict(1L);
+        itemService.getById(1L, 1L, 0, 10);
+
+        verify(itemRepository, times(2)).findByIdWithOwner(1L);
+        verify(commentRepository, times(2)).findAllDtoByItemId(1L, firstCommentsPage);
+    }
+
+    @Test
+    void getById_whenCommentsPageFull_thenCountComments() {
+        Item returnedItem = itemBuilder.owner(User.builder().id(100L).build()).build();
+        Pageable secondCommentsPage = OffsetPageRequest.of(1, 1);
+        List<CommentDto> comments = List.of(new CommentDto(2L, "Random text", "user", now));
+
+        when(itemRepository.findByIdWithOwner(1L)).thenReturn(Optional.of(returnedItem));
+        when(commentRepository.findAllDtoByItemId(1L, secondCommentsPage)).thenReturn(comments);
+        when(commentRepository.countByItemId(1L)).thenReturn(3L);
+
+        ItemBookingsAndCommentsDto actualItem = itemService.getById(1L, 1L, 1, 1);
+
+        assertEquals(comments, actualItem.getComments());
+        assertEquals(3L, actualItem.getCommentsCount());
+        verify(commentRepository, times(1)).countByItemId(1L);
+    }
+
+    @Test
+    void getById_whenCommentsFromNotMultipleOfSize_thenStartAtFromAndSkipCache() {
+        Item returnedItem = itemBuilder.owner(User.builder().id(100L).build()).build();
+        Pageable commentsPage = OffsetPageRequest.of(5, 10);
+
+        when(itemRepository.findByIdWithOwner(1L)).thenReturn(Optional.of(returnedItem));
+        when(commentRepository.findAllDtoByItemId(1L, commentsPage)).thenReturn(Collections.emptyList());
+        when(commentRepository.countByItemId(1L)).thenReturn(5L);
+
+        itemService.getById(1L, 1L, 5, 10);
+        ItemBookingsAndCommentsDto actualItem = itemService.getById(1L, 1L, 5, 10);
+
+        assertEquals(Collections.emptyList(), actualItem.getComments());
+        assertEquals(5L, actualItem.getCommentsCount());
+        verify(commentRepository, times(2)).findAllDtoByItemId(1L, commentsPage);
+    }
+
     @Test
     void getById_whenItemNotFound_thenThrowNotFoundException() {
         assertThrows(NotFoundException.class,
-                () -> itemService.getById(1L, 1L));
+                () -> itemService.getById(1L, 1L, 0, 10));
         verify(itemRepository, times(1)).findByIdWithOwner(1L);
         verify(itemRepository, only()).findByIdWithOwner(1L);
         verifyNoMoreInteractions(itemRepository);
@@ -348,40 +543,59 @@ class ItemServiceTest {
 
     @Test
     void getAllByOwnerId_whenUserFound_thenReturnItems() {
-        List<Item> returnedItems = List.of(
-                itemBuilder.build(),
-                itemBuilder.id(2L).name("new test").build()
-        );
-        Page<Item> pagedItems = new PageImpl<>(returnedItems);
+        Item item = itemBuilder.build();
+        Item item2 = itemBuilder.id(2L).name("new test").build();
+        List<ItemDto> returnedItems = List.of(ItemMapper.toItemDto(item), ItemMapper.toItemDto(item2));
 
         User booker1 = userBuilder.id(10L).build();
         User booker2 = userBuilder.id(12L).build();
-        Booking lastBooking = bookingBuilder.booker(booker1).build();
+        Booking lastBooking = bookingBuilder.item(item).booker(booker1).build();
         Booking nextBooking = bookingBuilder
+                .id(2L)
+                .item(item2)
                 .booker(booker2)
                 .start(now.plusDays(2))
                 .end(now.plusDays(15))
                 .build();
-        List<Booking> returnedBookings = List.of(lastBooking, nextBooking);
 
         when(userRepository.existsById(1L)).thenReturn(true);
-        when(itemRepository.findAllByOwnerIdOrderByIdAsc(1L, paginationConfig.getPageable())).thenReturn(pagedItems);
-        when(bookingRepository.findAllAcceptedByItemId(anyLong())).thenReturn(returnedBookings);
-
-        List<ItemBookingsDto> actualItemBookingsDto = itemService.getAllByOwnerId(1L, paginationConfig);
-        List<ItemBookingsDto> expectedItemBookingsDto = returnedItems.stream()
-                .map((x) -> ItemMapper.toItemBookingsDto(x, returnedBookings))
-                .collect(Collectors.toList());
+        when(itemRepository.findAllDtoByOwnerId(1L, paginationConfig.getPageable()))
+                .thenReturn(new SliceImpl<>(returnedItems));
+        when(bookingRepository.findAllLastAcceptedByItemIdIn(eq(List.of(1L, 2L)), any(LocalDateTime.class)))
+                .thenReturn(List.of(lastBooking));
+        when(bookingRepository.findAllNextAcceptedByItemIdIn(eq(List.of(1L, 2L)), any(LocalDateTime.class)))
+                .thenReturn(List.of(nextBooking));
+
+        List<ItemBookingsDto> actualItemBookingsDto = itemService.getAllByOwnerId(1L, paginationConfig).getContent();
+        List<ItemBookingsDto> expectedItemBookingsDto = List.of(
+                ItemMapper.toItemBookingsDto(item, lastBooking, null),
+                ItemMapper.toItemBookingsDto(item2, null, nextBooking)
+        );
 
         assertEquals(expectedItemBookingsDto, actualItemBookingsDto);
         InOrder inOrder = inOrder(userRepository, itemRepository, bookingRepository);
         inOrder.verify(userRepository, times(1)).existsById(1L);
         inOrder.verify(itemRepository, times(1))
-                .findAllByOwnerIdOrderByIdAsc(1L, paginationConfig.getPageable());
-        inOrder.verify(bookingRepository, times(2)).findAllAcceptedByItemId(anyLong());
+                .findAllDtoByOwnerId(1L, paginationConfig.getPageable());
+        inOrder.verify(bookingRepository, times(1))
+                .findAllLastAcceptedByItemIdIn(eq(List.of(1L, 2L)), any(LocalDateTime.class));
+        inOrder.verify(bookingRepository, times(1))
+                .findAllNextAcceptedByItemIdIn(eq(List.of(1L, 2L)), any(LocalDateTime.class));
         verifyNoMoreInteractions(userRepository, itemRepository, bookingRepository);
     }
 
+    @Test
+    void getAllByOwnerId_whenUserHasNoItems_thenReturnEmptyListWithoutBookingQueries() {
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(itemRepository.findAllDtoByOwnerId(1L, paginationConfig.getPageable()))
+                .thenReturn(new SliceImpl<>(Collections.emptyList()));
+
+        List<ItemBookingsDto> actualItemBookingsDto = itemService.getAllByOwnerId(1L, paginationConfig).getContent();
+
+        assertEquals(Collections.emptyList(), actualItemBookingsDto);
+        verifyNoInteractions(bookingRepository);
+    }
+
     @Test
     void getAllByOwnerId_whenUserNotFound_thenThrowNotFoundException() {
         when(userRepository.existsById(1L)).thenReturn(false);
@@ -407,32 +621,22 @@ class ItemServiceTest {
 
     @Test
     void getAllByTextQuery_whenUserFoundAndTextNotBlank_thenReturnItems() {
-        List<Item> returnedItems = List.of(
-                itemBuilder.build(),
-                itemBuilder.id(2L).build()
+        List<ItemDto> returnedItems = List.of(
+                itemDtoBuilder.build(),
+                itemDtoBuilder.id(2L).build()
         );
-        Page<Item> pagedItems = new PageImpl<>(returnedItems);
-
-        String text = "test";
-        BooleanExpression byAvailableTrue = QItem.item.available.isTrue();
-        BooleanExpression byNameOrDescriptionContainingText = QItem.item.name.containsIgnoreCase(text)
-                .or(QItem.item.description.containsIgnoreCase(text));
-        BooleanExpression resExpression = byAvailableTrue.and(byNameOrDescriptionContainingText);
 
         when(userRepository.existsById(1L)).thenReturn(true);
-        when(itemRepository.findAll(resExpression, paginationConfig.getPageable())).thenReturn(pagedItems);
+        when(itemSearchBackend.search("test", paginationConfig.getPageable())).thenReturn(returnedItems);
 
-        List<ItemDto> actualItems = itemService.getAllByTextQuery(1L, text, paginationConfig);
-        List<ItemDto> expectedItems = returnedItems.stream()
-                .map(ItemMapper::toItemDto)
-                .collect(Collectors.toList());
+        List<ItemDto> actualItems = itemService.getAllByTextQuery(1L, "test", paginationConfig);
 
-        assertEquals(expectedItems, actualItems);
-        assertEquals(2, actualItems.size());
-        InOrder inOrder = inOrder(userRepository, itemRepository);
+        assertEquals(returnedItems, actualItems);
+        InOrder inOrder = inOrder(userRepository, itemSearchBackend);
         inOrder.verify(userRepository, times(1)).existsById(1L);
-        inOrder.verify(itemRepository, times(1)).findAll(resExpression, paginationConfig.getPageable());
-        verifyNoMoreInteractions(userRepository, itemRepository);
+        inOrder.verify(itemSearchBackend, times(1)).search("test", paginationConfig.getPageable());
+        verifyNoMoreInteractions(userRepository, itemSearchBackend);
+        verifyNoInteractions(itemRepository);
     }
 
     @Test
@@ -446,6 +650,66 @@ class ItemServiceTest {
         verifyNoMoreInteractions(userRepository);
     }
 
+    @Test
+    void isTextQueryCursorSupported_whenInvoked_thenAskSearchBackend() {
+        when(itemSearchBackend.supportsCursor()).thenReturn(false);
+
+        assertFalse(itemService.isTextQueryCursorSupported());
+        verify(itemSearchBackend, only()).supportsCursor();
+    }
+
+    @Test
+    void getAvailability_whenBookingsOverlap_thenMergeThemAndReturnGapsAsFree() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime to = from.plusDays(10);
+        List<PeriodDto> periods = List.of(
+                new PeriodDto(from.minusDays(1), from.plusDays(1)),
+                new PeriodDto(from.plusDays(3), from.plusDays(5)),
+                new PeriodDto(from.plusDays(4), from.plusDays(6)),
+                new PeriodDto(from.plusDays(6), from.plusDays(7)),
+                new PeriodDto(from.plusDays(9), from.plusDays(12))
+        );
+
+        when(itemRepository.existsById(1L)).thenReturn(true);
+        when(bookingRepository.findAllAcceptedPeriodsByItemId(1L, from, to)).thenReturn(periods);
+
+        ItemAvailabilityDto availability = itemService.getAvailability(1L, from, to);
+
+        assertEquals(List.of(
+                new PeriodDto(from, from.plusDays(1)),
+                new PeriodDto(from.plusDays(3), from.plusDays(7)),
+                new PeriodDto(from.plusDays(9), to)
+        ), availability.getBusy());
+        assertEquals(List.of(
+                new PeriodDto(from.plusDays(1), from.plusDays(3)),
+                new PeriodDto(from.plusDays(7), from.plusDays(9))
+        ), availability.getFree());
+    }
+
+    @Test
+    void getAvailability_whenNoBookings_thenWholeRangeFree() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime to = from.plusDays(10);
+
+        when(itemRepository.existsById(1L)).thenReturn(true);
+        when(bookingRepository.findAllAcceptedPeriodsByItemId(1L, from, to)).thenReturn(Collections.emptyList());
+
+        ItemAvailabilityDto availability = itemService.getAvailability(1L, from, to);
+
+        assertEquals(Collections.emptyList(), availability.getBusy());
+        assertEquals(List.of(new PeriodDto(from, to)), availability.getFree());
+    }
+
+    @Test
+    void getAvailability_whenItemNotFound_thenThrowNotFoundException() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+        when(itemRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(NotFoundException.class, () -> itemService.getAvailability(1L, from, from.plusDays(1)));
+        verifyNoInteractions(bookingRepository);
+    }
+
     @Test
     void delete_whenUserAndItemFoundAndUserOwner_thenDeleteItem() {
         Item returnedItem = itemBuilder
@@ -463,6 +727,10 @@ class ItemServiceTest {
         inOrder.verify(itemRepository, times(1)).existsById(1L);
         inOrder.verify(itemRepository, times(1)).findById(1L);
         inOrder.verify(itemRepository, times(1)).deleteById(1L);
+        verify(bookingStatusCounters, only()).decrementAllByItemId(1L);
+        verify(itemSearchBackend, only()).delete(1L);
+        verify(bookingConflictDetector, only()).releaseAllByItemId(1L);
+        verify(itemDetailsCache, times(1)).evict(1L);
         verifyNoMoreInteractions(userRepository, itemRepository);
     }
 
@@ -518,6 +786,7 @@ class ItemServiceTest {
 
     @Test
     void createComment_whenUserAndItemFoundAndUserHasBookedBefore_thenReturnComment() {
+        when(commentEligibilityFilter.mightHaveBooked(1L, 1L)).thenReturn(true);
         Item returnedItem = itemBuilder.build();
         User returnedUser = userBuilder.build();
 
@@ -546,6 +815,8 @@ class ItemServiceTest {
         inOrder.verify(itemRepository, times(1)).findById(1L);
         inOrder.verify(bookingRepository, times(1)).countAllPrevious(1L, 1L);
         inOrder.verify(commentRepository, times(1)).save(any(Comment.class));
+        verify(commentEligibilityFilter, times(1)).recordChecked(true);
+        verify(itemDetailsCache, times(1)).evict(1L);
         verifyNoMoreInteractions(userRepository, itemRepository, bookingRepository, commentRepository);
     }
 
@@ -579,6 +850,7 @@ class ItemServiceTest {
 
     @Test
     void createComment_whenUserHasNotBookedBefore_thenThrowBadRequestException() {
+        when(commentEligibilityFilter.mightHaveBooked(1L, 1L)).thenReturn(true);
         when(userRepository.findById(1L)).thenReturn(Optional.of(userBuilder.build()));
         when(itemRepository.findById(1L)).thenReturn(Optional.of(itemBuilder.build()));
         when(bookingRepository.countAllPrevious(1L, 1L)).thenReturn(0);
@@ -592,6 +864,21 @@ class ItemServiceTest {
         inOrder.verify(userRepository, times(1)).findById(1L);
         inOrder.verify(itemRepository, times(1)).findById(1L);
         inOrder.verify(bookingRepository, times(1)).countAllPrevious(1L, 1L);
+        verify(commentEligibilityFilter, times(1)).recordChecked(false);
         verifyNoMoreInteractions(userRepository, itemRepository, bookingRepository);
     }
+
+    @Test
+    void createComment_whenFilterRulesOutBooking_thenThrowBadRequestExceptionWithoutCountingBookings() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(userBuilder.build()));
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(itemBuilder.build()));
+        when(commentEligibilityFilter.mightHaveBooked(1L, 1L)).thenReturn(false);
+
+        BadRequestException badRequestException = assertThrows(BadRequestException.class,
+                () -> itemService.createComment(1L, 1L, commentTextDto));
+
+        assertEquals("Пользователь с id 1 раньше не бронировал предмет с id 1",
+                badRequestException.getMessage());
+        verifyNoInteractions(bookingRepository, commentRepository);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,193 @@
+package ru.practicum.shareit.request.feed;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.common.model.Cursor;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.dto.ItemRequestIdDto;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.model.Request;
+import ru.practicum.shareit.request.model.dto.RequestItemsDto;
+import ru.practicum.shareit.request.repository.RequestRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class RequestFeedTest {
+    static final int CAPACITY = 3;
+
+    final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    final RequestRepository requestRepository = mock(RequestRepository.class);
+    final ItemRepository itemRepository = mock(ItemRepository.class);
+    final LocalDateTime now = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    RequestFeed requestFeed;
+
+    @BeforeEach
+    void setUp() {
+        requestFeed = new RequestFeed(requestRepository, itemRepository, CAPACITY, meterRegistry);
+    }
+
+    @Test
+    void findPage_whenAllRequestsFit_thenServeEveryPageExceptOwnRequests() {
+        rebuild(request(3L, 1L), request(2L, 2L), request(1L, 2L));
+
+        Slice<RequestItemsDto> firstPage = requestFeed.findPage(1L, null, PageRequest.of(0, 1)).orElseThrow();
+        Slice<RequestItemsDto> secondPage = requestFeed.findPage(1L, null, PageRequest.of(1, 1)).orElseThrow();
+
+        assertEquals(List.of(2L), ids(firstPage));
+        assertTrue(firstPage.hasNext());
+        assertEquals(List.of(1L), ids(secondPage));
+        assertFalse(secondPage.hasNext());
+        assertEquals(2, meterRegistry.counter("requests.feed.gets", "result", "hit").count());
+    }
+
+    @Test
+    void findPage_whenBufferTooShortAndNotComplete_thenMiss() {
+        rebuild(request(4L, 2L), request(3L, 2L), request(2L, 2L), request(1L, 2L));
+
+        assertEquals(Optional.empty(), requestFeed.findPage(1L, null, PageRequest.of(1, 2)));
+        assertEquals(List.of(4L, 3L), ids(requestFeed.findPage(1L, null, PageRequest.of(0, 2)).orElseThrow()));
+        assertEquals(1, meterRegistry.counter("requests.feed.gets", "result", "miss").count());
+    }
+
+    @Test
+    void findPage_whenCursorGiven_thenStartAfterIt() {
+        rebuild(request(3L, 2L), request(2L, 2L), request(1L, 2L));
+        Cursor cursor = Cursor.of(now.plusHours(3), 3L);
+
+        Slice<RequestItemsDto> page = requestFeed.findPage(1L, cursor, PageRequest.of(0, 5)).orElseThrow();
+
+        assertEquals(List.of(2L, 1L), ids(page));
+        assertFalse(page.hasNext());
+    }
+
+    @Test
+    void add_whenBufferFull_thenPushOutOldestAndStopBeingComplete() {
+        rebuild(request(3L, 2L), request(2L, 2L), request(1L, 2L));
+
+        requestFeed.add(request(4L, 2L));
+
+        assertEquals(List.of(4L, 3L), ids(requestFeed.findPage(1L, null, PageRequest.of(0, 2)).orElseThrow()));
+        assertEquals(Optional.empty(), requestFeed.findPage(1L, null, PageRequest.of(0, 3)));
+        assertEquals(3, requestFeed.size());
+    }
+
+    @Test
+    void add_whenCommittedOutOfOrder_thenShiftIntoPlace() {
+        rebuild(request(3L, 2L), request(1L, 2L));
+
+        requestFeed.add(request(2L, 2L));
+
+        assertEquals(List.of(3L, 2L, 1L), ids(requestFeed.findPage(1L, null, PageRequest.of(0, 5)).orElseThrow()));
+    }
+
+    @Test
+    void put_whenItemCreatedMovedAndRemoved_thenFollowItsRequest() {
+        Request request = request(2L, 2L);
+        Request request2 = request(1L, 2L);
+        rebuild(request, request2);
+        Pageable pageable = PageRequest.of(0, 5);
+
+        requestFeed.put(Item.builder().id(10L).name("item").available(true).request(request).build());
+        assertEquals(List.of(10L), itemIds(requestFeed.findPage(1L, null, pageable).orElseThrow(), 0));
+
+        requestFeed.put(Item.builder().id(10L).name("item").available(true).request(request2).build());
+        assertEquals(List.of(), itemIds(requestFeed.findPage(1L, null, pageable).orElseThrow(), 0));
+        assertEquals(List.of(10L), itemIds(requestFeed.findPage(1L, null, pageable).orElseThrow(), 1));
+
+        requestFeed.remove(10L);
+        assertEquals(List.of(), itemIds(requestFeed.findPage(1L, null, pageable).orElseThrow(), 1));
+    }
+
+    @Test
+    void add_whenInTransaction_thenApplyAfterCommitAndReadDatabaseUntilThen() {
+        rebuild(request(2L, 2L), request(1L, 2L));
+
+        TransactionSynchronizationManager.initSynchronization();
+        requestFeed.add(request(3L, 2L));
+        Optional<Slice<RequestItemsDto>> pageInTransaction = requestFeed.findPage(1L, null, PageRequest.of(0, 5));
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertEquals(Optional.empty(), pageInTransaction);
+        assertEquals(List.of(3L, 2L, 1L), ids(requestFeed.findPage(1L, null, PageRequest.of(0, 5)).orElseThrow()));
+    }
+
+    @Test
+    void add_whenTransactionRolledBack_thenKeepOtherChangesWithoutReloading() {
+        rebuild(request(2L, 2L), request(1L, 2L));
+        requestFeed.add(request(3L, 2L));
+
+        TransactionSynchronizationManager.initSynchronization();
+        requestFeed.add(request(4L, 2L));
+        requestFeed.put(Item.builder().id(10L).name("item").available(true).request(request(3L, 2L)).build());
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        Slice<RequestItemsDto> page = requestFeed.findPage(1L, null, PageRequest.of(0, 5)).orElseThrow();
+        assertEquals(List.of(3L, 2L, 1L), ids(page));
+        assertEquals(List.of(), itemIds(page, 0));
+        verify(requestRepository, times(1)).findAllByOrderByCreatedDescIdDesc(any(Pageable.class));
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+        }
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+
+    private void rebuild(Request... newestFirst) {
+        when(requestRepository.findAllByOrderByCreatedDescIdDesc(any(Pageable.class)))
+                .thenAnswer(invocation -> {
+                    Pageable pageable = invocation.getArgument(0);
+                    return List.of(newestFirst).subList(0, Math.min(newestFirst.length, pageable.getPageSize()));
+                });
+        when(itemRepository.findAllDtoByRequestIdIn(anyCollection())).thenReturn(List.<ItemRequestIdDto>of());
+        requestFeed.rebuild();
+    }
+
+    private Request request(Long id, Long requesterId) {
+        return Request.builder()
+                .id(id)
+                .description("Нужна вещь " + id)
+                .requester(User.builder().id(requesterId).build())
+                .created(now.plusHours(id))
+                .build();
+    }
+
+    private static List<Long> ids(Slice<RequestItemsDto> page) {
+        return page.getContent().stream()
+                .map(RequestItemsDto::getId)
+                .collect(Collectors.toList());
+    }
+
+    private static List<Long> itemIds(Slice<RequestItemsDto> page, int index) {
+        return page.getContent().get(index).getItems().stream()
+                .map(ItemRequestIdDto::getId)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,110 @@
+package ru.practicum.shareit.request.match;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.repository.RequestRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Matches generated items against a million open requests. Words are drawn from a generated vocabulary
+ * with a skewed distribution, so that a few of them are in most requests and most of them are rare,
+ * and every description starts with the same word. The database is not involved. Runs only on demand:
+ * <pre>
+ * BENCHMARK=true mvn -pl server test -Dtest=RequestMatchEngineBenchmarkTest
+ * </pre>
+ */
+@Slf4j
+@EnabledIfEnvironmentVariable(named = "BENCHMARK", matches = "true")
+class RequestMatchEngineBenchmarkTest {
+    private static final int REQUESTS = 1_000_000;
+    private static final int ITEMS = 2_000;
+    private static final int VOCABULARY_SIZE = 20_000;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final String CONSONANTS = "бвгдзклмнпрстфх";
+    private static final String VOWELS = "аоуеи";
+
+    @Test
+    void matchItemsAgainstMillionRequests() {
+        // GIVEN
+        Random random = new Random(42);
+        List<String> vocabulary = generateVocabulary();
+        RequestMatchEngine requestMatchEngine =
+                new RequestMatchEngine(mock(RequestRepository.class), 5, 10_000);
+
+        long indexStarted = System.nanoTime();
+        for (long id = 1; id <= REQUESTS; id++) {
+            requestMatchEngine.put(id, id % 1_000, "Нужна " + words(vocabulary, random, 3));
+        }
+        long indexNanos = System.nanoTime() - indexStarted;
+
+        List<Item> items = new ArrayList<>(ITEMS);
+        for (int i = 0; i < ITEMS; i++) {
+            items.add(Item.builder()
+                    .name(words(vocabulary, random, 1))
+                    .description(words(vocabulary, random, 2))
+                    .owner(User.builder().id(1_000L + i).build())
+                    .build());
+        }
+
+        // WHEN
+        long matchNanos = 0;
+        long matched = 0;
+        for (int round = 0; round <= WARMUP_ROUNDS; round++) {
+            matched = 0;
+            long started = System.nanoTime();
+            for (Item item : items) {
+                matched += requestMatchEngine.match(item).size();
+            }
+            matchNanos = System.nanoTime() - started;
+        }
+
+        // THEN
+        double matchMicros = matchNanos / 1_000.0 / ITEMS;
+        log.info("Индекс {} открытых запросов построен за {} мс; подбор запросов для предмета: {} мкс, " +
+                        "найдено в среднем {}", REQUESTS, indexNanos / 1_000_000, String.format("%.1f", matchMicros),
+                String.format("%.2f", (double) matched / ITEMS));
+
+        assertTrue(matched > 0);
+    }
+
+    /**
+     * Distinct words of the form consonant-vowel-consonant-vowel-consonant-"а", so that every word has its own stem.
+     */
+    private static List<String> generateVocabulary() {
+        List<String> vocabulary = new ArrayList<>(VOCABULARY_SIZE);
+        for (int i = 0; i < VOCABULARY_SIZE; i++) {
+            StringBuilder word = new StringBuilder();
+            int value = i;
+            for (int letter = 0; letter < 5; letter++) {
+                String letters = letter % 2 == 0 ? CONSONANTS : VOWELS;
+                word.append(letters.charAt(value % letters.length()));
+                value /= letters.length();
+            }
+            vocabulary.add(word.append('а').toString());
+        }
+
+        return vocabulary;
+    }
+
+    /**
+     * Words with a skewed distribution: the lower the index, the more often the word is drawn.
+     */
+    private static String words(List<String> vocabulary, Random random, int count) {
+        StringBuilder words = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            double skew = random.nextDouble();
+            words.append(vocabulary.get((int) (vocabulary.size() * skew * skew * skew))).append(' ');
+        }
+
+        return words.toString();
+    }
+}
@@ -0,0 +1,111 @@
+package ru.practicum.shareit.request.match;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.Request;
+import ru.practicum.shareit.request.model.dto.OpenRequestDto;
+import ru.practicum.shareit.request.repository.RequestRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class RequestMatchEngineTest {
+    final RequestRepository requestRepository = mock(RequestRepository.class);
+    final RequestMatchEngine requestMatchEngine = new RequestMatchEngine(requestRepository, 2, 100);
+
+    @Test
+    void toStems_whenWordsInflected_thenShareStem() {
+        assertEquals(Set.of("дрел"), RequestMatchEngine.toStems("Дрель, дрели и дрелью"));
+        assertEquals(Set.of("палат", "турис"), RequestMatchEngine.toStems("палатку туристическую"));
+    }
+
+    @Test
+    void match_whenRequestsShareWords_thenRankByRarerWordsAndSkipOwnRequests() {
+        when(requestRepository.findAllOpen()).thenReturn(List.of(
+                new OpenRequestDto(1L, "Нужна ударная дрель", 10L),
+                new OpenRequestDto(2L, "Нужна дрель", 10L),
+                new OpenRequestDto(3L, "Нужна палатка", 10L),
+                new OpenRequestDto(4L, "Нужна ударная дрель", 1L)
+        ));
+        requestMatchEngine.rebuild();
+
+        List<RequestMatch> matches = requestMatchEngine.match(item("Дрель ударная", "Нужна для ремонта"));
+
+        assertEquals(List.of(1L, 2L), requestIds(matches));
+        assertTrue(matches.get(0).getScore() > matches.get(1).getScore());
+    }
+
+    @Test
+    void close_whenRequestAnswered_thenNoLongerMatch() {
+        requestMatchEngine.put(1L, 10L, "Нужна дрель");
+        requestMatchEngine.put(2L, 10L, "Ищу дрель");
+
+        requestMatchEngine.close(2L);
+
+        assertEquals(List.of(1L), requestIds(requestMatchEngine.match(item("Дрель", "Аккумуляторная"))));
+        assertEquals(1, requestMatchEngine.size());
+    }
+
+    @Test
+    void open_whenTransactionRolledBack_thenRestorePreviousState() {
+        requestMatchEngine.put(1L, 10L, "Нужна дрель");
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            requestMatchEngine.open(Request.builder()
+                    .id(2L)
+                    .description("Ищу дрель")
+                    .requester(User.builder().id(10L).build())
+                    .build());
+            requestMatchEngine.close(1L);
+            assertEquals(List.of(2L), requestIds(requestMatchEngine.match(item("Дрель", "Ударная"))));
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(
+                            TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clear();
+        }
+
+        assertEquals(List.of(1L), requestIds(requestMatchEngine.match(item("Дрель", "Ударная"))));
+    }
+
+    @Test
+    void match_whenWordTooCommonForBudget_thenScanOnlyNewestRequests() {
+        for (long id = 1; id <= 300; id++) {
+            requestMatchEngine.put(id, 10L, "Нужна дрель");
+        }
+
+        List<RequestMatch> matches = requestMatchEngine.match(item("Дрель", "Ударная"));
+
+        assertEquals(List.of(300L, 299L), requestIds(matches));
+    }
+
+    private static Item item(String name, String description) {
+        return Item.builder()
+                .id(100L)
+                .name(name)
+                .description(description)
+                .available(true)
+                .owner(User.builder().id(1L).build())
+                .build();
+    }
+
+    private static List<Long> requestIds(List<RequestMatch> matches) {
+        return matches.stream()
+                .map(RequestMatch::getRequestId)
+                .collect(Collectors.toList());
+    }
+}
@@ -3,11 +3,16 @@ package ru.practicum.shareit.request.service;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.common.exception.BadRequestException;
+import ru.practicum.shareit.common.model.Cursor;
 import ru.practicum.shareit.common.model.PaginationConfig;
+import ru.practicum.shareit.item.model.dto.ItemDto;
 import ru.practicum.shareit.item.model.dto.ItemRequestIdDto;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.request.model.dto.RequestDescriptionDto;
@@ -17,18 +22,27 @@ import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.model.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @Transactional
-@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 class RequestServiceIntegrationTest {
     RequestService requestService;
     UserService userService;
     ItemService itemService;
+    EntityManager entityManager;
+    EntityManagerFactory entityManagerFactory;
 
     @Test
     void getAll() {
@@ -60,7 +74,7 @@ class RequestServiceIntegrationTest {
         itemRequestIdDto = itemService.create(user2Id, itemRequestIdDto);
         itemRequestIdDto2 = itemService.create(user2Id, itemRequestIdDto2);
 
-        List<RequestItemsDto> actualRequestItemsDtos = requestService.getAll(user2Id, new PaginationConfig());
+        List<RequestItemsDto> actualRequestItemsDtos = requestService.getAll(user2Id, new PaginationConfig()).getContent();
 
 
         assertEquals(2, actualRequestItemsDtos.size());
@@ -73,4 +87,181 @@ class RequestServiceIntegrationTest {
         assertEquals(requestDto.getDescription(), actualRequestItemsDtos.get(1).getDescription());
         assertEquals(List.of(itemRequestIdDto), actualRequestItemsDtos.get(1).getItems());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getAll_whenCursorGiven_thenReturnRequestsCreatedBeforeCursor() {
+        // GIVEN
+        Long requesterId = userService.create(UserDto.builder().name("test").email("test@mail.com").build()).getId();
+        Long userId = userService.create(UserDto.builder().name("test2").email("test2@mail.com").build()).getId();
+
+        RequestDto requestDto = requestService.create(requesterId, new RequestDescriptionDto("Test description"));
+        RequestDto requestDto2 = requestService.create(requesterId, new RequestDescriptionDto("Test description2"));
+        RequestDto requestDto3 = requestService.create(requesterId, new RequestDescriptionDto("Test description3"));
+
+        PaginationConfig paginationConfig = new PaginationConfig();
+        paginationConfig.setSize(2);
+        paginationConfig.setAfter(Cursor.of(requestDto3.getCreated(), requestDto3.getId()).encode());
+
+        // WHEN
+        List<RequestItemsDto> actualRequestItemsDtos = requestService.getAll(userId, paginationConfig).getContent();
+
+        // THEN
+        assertEquals(2, actualRequestItemsDtos.size());
+        assertEquals(requestDto2.getId(), actualRequestItemsDtos.get(0).getId());
+        assertEquals(requestDto.getId(), actualRequestItemsDtos.get(1).getId());
+    }
+
+    @Test
+    void getAll_whenRequestsCreatedAtSameTime_thenContinueOffsetPageWithCursor() {
+        // GIVEN
+        Long requesterId = userService.create(UserDto.builder().name("test").email("test@mail.com").build()).getId();
+        Long userId = userService.create(UserDto.builder().name("test2").email("test2@mail.com").build()).getId();
+
+        RequestDto requestDto = requestService.create(requesterId, new RequestDescriptionDto("Test description"));
+        RequestDto requestDto2 = requestService.create(requesterId, new RequestDescriptionDto("Test description2"));
+        RequestDto requestDto3 = requestService.create(requesterId, new RequestDescriptionDto("Test description3"));
+        entityManager.flush();
+        entityManager.createQuery("UPDATE Request AS r SET r.created = ?1")
+                .setParameter(1, requestDto.getCreated())
+                .executeUpdate();
+        entityManager.clear();
+
+        PaginationConfig offsetPage = new PaginationConfig();
+        offsetPage.setSize(2);
+
+        // WHEN
+        List<RequestItemsDto> firstPage = requestService.getAll(userId, offsetPage).getContent();
+        RequestItemsDto last = firstPage.get(firstPage.size() - 1);
+        PaginationConfig cursorPage = new PaginationConfig();
+        cursorPage.setSize(2);
+        cursorPage.setAfter(Cursor.of(last.getCreated(), last.getId()).encode());
+        List<RequestItemsDto> secondPage = requestService.getAll(userId, cursorPage).getContent();
+
+        // THEN
+        assertEquals(List.of(requestDto3.getId(), requestDto2.getId()),
+                firstPage.stream().map(RequestItemsDto::getId).collect(Collectors.toList()));
+        assertEquals(List.of(requestDto.getId()),
+                secondPage.stream().map(RequestItemsDto::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void getAll_whenPageGrows_thenQueryCountStaysTheSame() {
+        // GIVEN
+        Long requesterId = userService.create(UserDto.builder().name("test").email("test@mail.com").build()).getId();
+        Long userId = userService.create(UserDto.builder().name("test2").email("test2@mail.com").build()).getId();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        // both pages lie deeper than the request feed reaches, so they are read from the database
+        PaginationConfig smallPage = new PaginationConfig();
+        smallPage.setFrom(25);
+        smallPage.setSize(5);
+        PaginationConfig largePage = new PaginationConfig();
+        largePage.setSize(50);
+
+        createRequestsWithItems(requesterId, userId, 30);
+        entityManager.flush();
+        statistics.clear();
+
+        // WHEN
+        List<RequestItemsDto> smallPageRequests = requestService.getAll(userId, smallPage).getContent();
+        long smallPageStatementCount = statistics.getPrepareStatementCount();
+
+        createRequestsWithItems(requesterId, userId, 45);
+        entityManager.flush();
+        statistics.clear();
+
+        List<RequestItemsDto> largePageRequests = requestService.getAll(userId, largePage).getContent();
+        long largePageStatementCount = statistics.getPrepareStatementCount();
+
+        // THEN
+        assertEquals(5, smallPageRequests.size());
+        assertEquals(50, largePageRequests.size());
+        largePageRequests.forEach(requestItemsDto -> assertEquals(1, requestItemsDto.getItems().size()));
+        assertEquals(smallPageStatementCount, largePageStatementCount);
+    }
+
+    @Test
+    void getAll_whenRequestsChangedInSameTransaction_thenReadThemFromDatabase() {
+        // GIVEN
+        Long requesterId = userService.create(UserDto.builder().name("test").email("test@mail.com").build()).getId();
+        Long userId = userService.create(UserDto.builder().name("test2").email("test2@mail.com").build()).getId();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        createRequestsWithItems(requesterId, userId, 3);
+        RequestDto ownRequestDto = requestService.create(userId, new RequestDescriptionDto("Своя вещь"));
+        RequestDto newestRequestDto = requestService.create(requesterId, new RequestDescriptionDto("Новая вещь"));
+        entityManager.flush();
+
+        PaginationConfig paginationConfig = new PaginationConfig();
+        paginationConfig.setSize(2);
+        statistics.clear();
+
+        // WHEN
+        List<RequestItemsDto> firstPage = requestService.getAll(userId, paginationConfig).getContent();
+        long firstPageStatementCount = statistics.getPrepareStatementCount();
+        List<RequestItemsDto> ownPage = requestService.getAll(requesterId, paginationConfig).getContent();
+
+        // THEN
+        assertEquals(2, firstPage.size());
+        assertEquals(newestRequestDto.getId(), firstPage.get(0).getId());
+        assertEquals(List.of(), firstPage.get(0).getItems());
+        assertEquals("Нужна вещь 2", firstPage.get(1).getDescription());
+        assertEquals(1, firstPage.get(1).getItems().size());
+        assertTrue(firstPageStatementCount > 1);
+        assertEquals(List.of(ownRequestDto.getId()),
+                ownPage.stream().map(RequestItemsDto::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void getAll_whenCursorMalformed_thenThrowBadRequestException() {
+        Long userId = userService.create(UserDto.builder().name("test").email("test@mail.com").build()).getId();
+
+        PaginationConfig paginationConfig = new PaginationConfig();
+        paginationConfig.setAfter("bad cursor");
+
+        assertThrows(BadRequestException.class, () -> requestService.getAll(userId, paginationConfig));
+    }
+
+    @Test
+    void getSuggestions_whenItemMatchesOpenRequest_thenSuggestItemUntilRequestAnswered() {
+        // GIVEN
+        Long requesterId = userService.create(UserDto.builder().name("test").email("test@mail.com").build()).getId();
+        Long ownerId = userService.create(UserDto.builder().name("test2").email("test2@mail.com").build()).getId();
+        RequestDto requestDto = requestService.create(requesterId, new RequestDescriptionDto("Нужна ударная дрель"));
+
+        // WHEN
+        ItemRequestIdDto suggestedItem = itemService.create(ownerId, ItemRequestIdDto.builder()
+                .name("Дрель")
+                .description("Ударная, с набором сверл")
+                .available(true)
+                .build());
+        itemService.create(ownerId, ItemRequestIdDto.builder()
+                .name("Дрель ударная")
+                .description("Для этого запроса")
+                .available(true)
+                .requestId(requestDto.getId())
+                .build());
+        itemService.create(ownerId, ItemRequestIdDto.builder()
+                .name("Дрель ударная")
+                .description("Уже после ответа на запрос")
+                .available(true)
+                .build());
+
+        // THEN
+        List<ItemDto> suggestions = requestService.getSuggestions(requesterId, requestDto.getId(), 0, 10);
+        assertEquals(List.of(suggestedItem.getId()),
+                suggestions.stream().map(ItemDto::getId).collect(Collectors.toList()));
+    }
+
+    private void createRequestsWithItems(Long requesterId, Long ownerId, int count) {
+        for (int i = 0; i < count; i++) {
+            RequestDto requestDto = requestService.create(requesterId, new RequestDescriptionDto("Нужна вещь " + i));
+            itemService.create(ownerId, ItemRequestIdDto.builder()
+                    .name("Вещь " + i)
+                    .description("Описание " + i)
+                    .available(true)
+                    .requestId(requestDto.getId())
+                    .build());
+        }
+    }
+}
@@ -8,25 +8,31 @@ import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import ru.practicum.shareit.common.exception.NotFoundException;
+import ru.practicum.shareit.common.model.OffsetPageRequest;
 import ru.practicum.shareit.common.model.PaginationConfig;
 import ru.practicum.shareit.item.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.dto.ItemDto;
 import ru.practicum.shareit.item.model.dto.ItemRequestIdDto;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.feed.RequestFeed;
+import ru.practicum.shareit.request.match.RequestMatchEngine;
 import ru.practicum.shareit.request.model.Request;
 import ru.practicum.shareit.request.model.dto.RequestDescriptionDto;
 import ru.practicum.shareit.request.model.dto.RequestDto;
 import ru.practicum.shareit.request.model.dto.RequestItemsDto;
 import ru.practicum.shareit.request.repository.RequestRepository;
+import ru.practicum.shareit.request.repository.SuggestionRepository;
 import ru.practicum.shareit.request.service.impl.RequestServiceImpl;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -45,6 +51,15 @@ class RequestServiceTest {
     @Mock
     RequestRepository requestRepository;
 
+    @Mock
+    RequestFeed requestFeed;
+
+    @Mock
+    RequestMatchEngine requestMatchEngine;
+
+    @Mock
+    SuggestionRepository suggestionRepository;
+
     @InjectMocks
     RequestServiceImpl requestService;
 
@@ -88,7 +103,9 @@ class RequestServiceTest {
         InOrder inOrder = inOrder(userRepository, requestRepository);
         inOrder.verify(userRepository, times(1)).findById(1L);
         inOrder.verify(requestRepository, times(1)).save(any(Request.class));
-        verifyNoMoreInteractions(userRepository, requestRepository);
+        verify(requestFeed, times(1)).add(any(Request.class));
+        verify(requestMatchEngine, times(1)).open(any(Request.class));
+        verifyNoMoreInteractions(userRepository, requestRepository, requestFeed, requestMatchEngine);
     }
 
     @Test
@@ -120,8 +137,8 @@ class RequestServiceTest {
 
         when(userRepository.existsById(1L)).thenReturn(true);
         when(requestRepository.findAllByRequesterIdOrderByCreatedDesc(1L)).thenReturn(returnedRequests);
-        when(itemRepository.findAllByRequestId(1L)).thenReturn(List.of(returnedItem));
-        when(itemRepository.findAllByRequestId(2L)).thenReturn(List.of(returnedItem2));
+        when(itemRepository.findAllDtoByRequestIdIn(Set.of(1L, 2L))).thenReturn(List.of(
+                ItemMapper.toItemRequestIdDto(returnedItem), ItemMapper.toItemRequestIdDto(returnedItem2)));
 
         List<RequestItemsDto> actualRequestItemsDtos = requestService.getOwn(1L);
 
@@ -140,8 +157,8 @@ class RequestServiceTest {
         inOrder.verify(userRepository, times(1)).existsById(1L);
         inOrder.verify(requestRepository, times(1))
                 .findAllByRequesterIdOrderByCreatedDesc(1L);
-        inOrder.verify(itemRepository, times(2))
-                .findAllByRequestId(anyLong());
+        inOrder.verify(itemRepository, times(1))
+                .findAllDtoByRequestIdIn(Set.of(1L, 2L));
         verifyNoMoreInteractions(userRepository, requestRepository, itemRepository);
     }
 
@@ -175,12 +192,13 @@ class RequestServiceTest {
 
 
         when(userRepository.existsById(1L)).thenReturn(true);
-        when(requestRepository.findAllByRequesterIdNotOrderByCreatedDesc(1L, pageable))
-                .thenReturn(new PageImpl<>(returnedRequests));
-        when(itemRepository.findAllByRequestId(1L)).thenReturn(List.of(returnedItem));
-        when(itemRepository.findAllByRequestId(2L)).thenReturn(List.of(returnedItem2));
+        when(requestFeed.findPage(1L, null, pageable)).thenReturn(Optional.empty());
+        when(requestRepository.findAllByRequesterIdNot(1L, pageable))
+                .thenReturn(new SliceImpl<>(returnedRequests));
+        when(itemRepository.findAllDtoByRequestIdIn(Set.of(1L, 2L))).thenReturn(List.of(
+                ItemMapper.toItemRequestIdDto(returnedItem), ItemMapper.toItemRequestIdDto(returnedItem2)));
 
-        List<RequestItemsDto> actualRequestItemsDtos = requestService.getAll(1L, paginationConfig);
+        List<RequestItemsDto> actualRequestItemsDtos = requestService.getAll(1L, paginationConfig).getContent();
 
         List<ItemRequestIdDto> itemRequestIdDtos = List.of(ItemMapper.toItemRequestIdDto(returnedItem));
         List<ItemRequestIdDto> itemRequestIdDtos2 = List.of(ItemMapper.toItemRequestIdDto(returnedItem2));
@@ -196,12 +214,29 @@ class RequestServiceTest {
         InOrder inOrder = inOrder(userRepository, requestRepository, itemRepository);
         inOrder.verify(userRepository, times(1)).existsById(1L);
         inOrder.verify(requestRepository, times(1))
-                .findAllByRequesterIdNotOrderByCreatedDesc(1L, pageable);
-        inOrder.verify(itemRepository, times(2))
-                .findAllByRequestId(anyLong());
+                .findAllByRequesterIdNot(1L, pageable);
+        inOrder.verify(itemRepository, times(1))
+                .findAllDtoByRequestIdIn(Set.of(1L, 2L));
         verifyNoMoreInteractions(userRepository, requestRepository, itemRepository);
     }
 
+    @Test
+    void getAll_whenFeedHasPage_thenReturnItWithoutQueries() {
+        Pageable pageable = paginationConfig.getPageable();
+        List<RequestItemsDto> feedRequestItemsDtos = List.of(RequestItemsDto.builder().id(1L).items(List.of())
+                .description("Test description").created(now).build());
+
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(requestFeed.findPage(1L, null, pageable))
+                .thenReturn(Optional.of(new SliceImpl<>(feedRequestItemsDtos, pageable, false)));
+
+        List<RequestItemsDto> actualRequestItemsDtos = requestService.getAll(1L, paginationConfig).getContent();
+
+        assertEquals(feedRequestItemsDtos, actualRequestItemsDtos);
+        verify(userRepository, only()).existsById(1L);
+        verifyNoInteractions(requestRepository, itemRepository);
+    }
+
     @Test
     void getAll_whenUserNotFound_thenThrowNotFoundException() {
         when(userRepository.existsById(1L)).thenReturn(false);
@@ -226,7 +261,7 @@ class RequestServiceTest {
         when(userRepository.existsById(1L)).thenReturn(true);
         when(requestRepository.findById(1L))
                 .thenReturn(Optional.of(returnedRequest));
-        when(itemRepository.findAllByRequestId(1L)).thenReturn(List.of(returnedItem));
+        when(itemRepository.findAllDtoByRequestId(1L)).thenReturn(List.of(ItemMapper.toItemRequestIdDto(returnedItem)));
 
         RequestItemsDto actualRequestItemsDto = requestService.getById(1L, 1L);
 
@@ -239,7 +274,7 @@ class RequestServiceTest {
         inOrder.verify(userRepository, times(1)).existsById(1L);
         inOrder.verify(requestRepository, times(1))
                 .findById(1L);
-        inOrder.verify(itemRepository, times(1)).findAllByRequestId(anyLong());
+        inOrder.verify(itemRepository, times(1)).findAllDtoByRequestId(anyLong());
         verifyNoMoreInteractions(userRepository, requestRepository, itemRepository);
     }
 
@@ -255,4 +290,30 @@ class RequestServiceTest {
         verify(userRepository, only()).existsById(1L);
         verifyNoMoreInteractions(userRepository);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getSuggestions_whenUserAndRequestFound_thenReturnSuggestedItemsFromOffset() {
+        List<ItemDto> suggestedItems = List.of(new ItemDto(5L, "item", "item description", true));
+
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(requestRepository.existsById(2L)).thenReturn(true);
+        when(suggestionRepository.findAllItemDtoByRequestId(2L, OffsetPageRequest.of(7, 5))).thenReturn(suggestedItems);
+
+        List<ItemDto> actualItems = requestService.getSuggestions(1L, 2L, 7, 5);
+
+        assertEquals(suggestedItems, actualItems);
+        verify(suggestionRepository, only()).findAllItemDtoByRequestId(2L, OffsetPageRequest.of(7, 5));
+    }
+
+    @Test
+    void getSuggestions_whenRequestNotFound_thenThrowNotFoundException() {
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(requestRepository.existsById(2L)).thenReturn(false);
+
+        NotFoundException notFoundException = assertThrows(NotFoundException.class,
+                () -> requestService.getSuggestions(1L, 2L, 0, 10));
+
+        assertEquals("Запрос с id 2 не найден", notFoundException.getMessage());
+        verifyNoInteractions(suggestionRepository);
+    }
+}
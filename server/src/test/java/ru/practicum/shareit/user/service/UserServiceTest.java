@@ -9,7 +9,13 @@ import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.conflict.BookingConflictDetector;
+import ru.practicum.shareit.booking.summary.BookingStatusCounters;
 import ru.practicum.shareit.common.exception.NotFoundException;
+import ru.practicum.shareit.item.cache.ItemDetailsCache;
+import ru.practicum.shareit.item.search.ItemSearchBackend;
+import ru.practicum.shareit.request.feed.RequestFeed;
+import ru.practicum.shareit.request.match.RequestMatchEngine;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.model.dto.UserDto;
 import ru.practicum.shareit.user.repository.UserRepository;
@@ -28,6 +34,24 @@ class UserServiceTest {
     @Mock
     UserRepository userRepository;
 
+    @Mock
+    ItemSearchBackend itemSearchBackend;
+
+    @Mock
+    ItemDetailsCache itemDetailsCache;
+
+    @Mock
+    BookingConflictDetector bookingConflictDetector;
+
+    @Mock
+    BookingStatusCounters bookingStatusCounters;
+
+    @Mock
+    RequestFeed requestFeed;
+
+    @Mock
+    RequestMatchEngine requestMatchEngine;
+
     @InjectMocks
     UserServiceImpl userService;
 
@@ -75,6 +99,7 @@ class UserServiceTest {
         verify(userRepository, times(1))
                 .save(userArgumentCaptor.capture());
         verifyNoMoreInteractions(userRepository);
+        verify(itemDetailsCache, only()).evictAll();
         assertEquals(newUser, userArgumentCaptor.getValue());
     }
 
@@ -141,6 +166,10 @@ class UserServiceTest {
 
         verify(userRepository, times(1)).existsById(1L);
         verify(userRepository, times(1)).deleteById(1L);
+        verify(bookingStatusCounters, only()).decrementAllByUserId(1L);
+        verify(itemSearchBackend, only()).deleteAllByOwnerId(1L);
+        verify(bookingConflictDetector, only()).releaseAllByUserId(1L);
+        verify(itemDetailsCache, only()).evictAll();
         verifyNoMoreInteractions(userRepository);
     }
 